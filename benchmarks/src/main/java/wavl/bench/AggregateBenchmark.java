@@ -0,0 +1,97 @@
+package wavl.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wavl.WAVLMonoid;
+import wavl.WAVLTree;
+
+/**
+ * AggregateBenchmark
+ * <p>
+ * the sum of the value lengths over ranges of span keys: wavlAggregate
+ * reads the registered WAVLMonoid, wavlScan walks the range with a Cursor.
+ * the churn benchmarks show what keeping the aggregate costs the writers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AggregateBenchmark {
+    private static final WAVLMonoid<Long> LENGTHS = WAVLMonoid.sum(String::length);
+
+    @Param({"100", "10000"})
+    public int span;
+
+    private WAVLTree tree;
+    private WAVLTree aggregated;
+    private WAVLTree.Cursor cursor;
+    private int[] probes;
+    // his[i] is the key span keys after probes[i], or the largest key
+    private int[] his;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void load(Workload w) {
+        this.tree = w.loadTree();
+        this.aggregated = w.loadTree();
+        this.aggregated.setAggregate(LENGTHS);
+        this.cursor = this.tree.cursor();
+        this.probes = w.probes;
+        int[] sorted = this.tree.keysToArray();
+        this.his = new int[Workload.PROBES];
+        for (int i = 0; i < Workload.PROBES; i++) {
+            int r = this.tree.rank(this.probes[i]);
+            this.his[i] = sorted[Math.min(r + this.span, sorted.length) - 1];
+        }
+    }
+
+    private int nextIndex() {
+        int i = this.next;
+        this.next = (i + 1) & (Workload.PROBES - 1);
+        return i;
+    }
+
+    @Benchmark
+    public long wavlAggregate() {
+        int i = nextIndex();
+        return this.aggregated.aggregate(LENGTHS, this.probes[i], this.his[i]);
+    }
+
+    @Benchmark
+    public long wavlScan() {
+        int i = nextIndex();
+        long sum = 0;
+        WAVLTree.Cursor c = this.cursor;
+        for (c.seek(this.probes[i], this.his[i]); c.valid(); c.next()) {
+            sum += c.getValue().length();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int wavlChurn() {
+        int k = this.probes[nextIndex()];
+        return this.tree.delete(k) + this.tree.insert(k, Workload.value(k));
+    }
+
+    @Benchmark
+    public int aggregatedChurn() {
+        int k = this.probes[nextIndex()];
+        return this.aggregated.delete(k) + this.aggregated.insert(k, Workload.value(k));
+    }
+}
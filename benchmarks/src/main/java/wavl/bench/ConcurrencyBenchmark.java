@@ -0,0 +1,122 @@
+package wavl.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wavl.ConcurrentWAVLTree;
+import wavl.ShardedWAVLTree;
+import wavl.WAVLTree;
+
+/**
+ * ConcurrencyBenchmark
+ * <p>
+ * A read-heavy mix, 19 searching threads against one churning writer, on a
+ * ConcurrentWAVLTree (optimistic reads) and on a WAVLTree behind a single
+ * synchronized block (the old way). Raise the thread counts with -tg, e.g.
+ * -tg 7,1 on an 8 core box.
+ * <p>
+ * The *Writes groups are write-heavy ingest: 4 churning threads on a
+ * ShardedWAVLTree (one lock per key range) and on a ConcurrentWAVLTree
+ * (one write lock).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrencyBenchmark {
+
+    @State(Scope.Group)
+    public static class Shared {
+        ConcurrentWAVLTree stamped;
+        ShardedWAVLTree sharded;
+        WAVLTree tree;
+        int[] probes;
+
+        @Setup(Level.Trial)
+        public void load(Workload w) {
+            this.stamped = new ConcurrentWAVLTree(w.loadTree());
+            this.sharded = new ShardedWAVLTree();
+            for (int k : w.keys) {
+                this.sharded.insert(k, Workload.value(k));
+            }
+            this.tree = w.loadTree();
+            this.probes = w.probes;
+        }
+    }
+
+    // every thread walks the probes from its own position
+    @State(Scope.Thread)
+    public static class Position {
+        int next = (int) Thread.currentThread().getId() * 7919;
+
+        int nextKey(Shared s) {
+            this.next = (this.next + 1) & (Workload.PROBES - 1);
+            return s.probes[this.next];
+        }
+    }
+
+    @Benchmark
+    @Group("stamped")
+    @GroupThreads(19)
+    public String stampedSearch(Shared s, Position p) {
+        return s.stamped.search(p.nextKey(s));
+    }
+
+    @Benchmark
+    @Group("stamped")
+    @GroupThreads(1)
+    public int stampedChurn(Shared s, Position p) {
+        int k = p.nextKey(s);
+        return s.stamped.delete(k) + s.stamped.insert(k, Workload.value(k));
+    }
+
+    @Benchmark
+    @Group("synchronized")
+    @GroupThreads(19)
+    public String synchronizedSearch(Shared s, Position p) {
+        int k = p.nextKey(s);
+        synchronized (s) {
+            return s.tree.search(k);
+        }
+    }
+
+    @Benchmark
+    @Group("synchronized")
+    @GroupThreads(1)
+    public int synchronizedChurn(Shared s, Position p) {
+        int k = p.nextKey(s);
+        synchronized (s) {
+            return s.tree.delete(k) + s.tree.insert(k, Workload.value(k));
+        }
+    }
+
+    @Benchmark
+    @Group("shardedWrites")
+    @GroupThreads(4)
+    public int shardedWriteChurn(Shared s, Position p) {
+        int k = p.nextKey(s);
+        return s.sharded.delete(k) + s.sharded.insert(k, Workload.value(k));
+    }
+
+    @Benchmark
+    @Group("stampedWrites")
+    @GroupThreads(4)
+    public int stampedWriteChurn(Shared s, Position p) {
+        int k = p.nextKey(s);
+        return s.stamped.delete(k) + s.stamped.insert(k, Workload.value(k));
+    }
+}
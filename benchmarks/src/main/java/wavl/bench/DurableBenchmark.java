@@ -0,0 +1,91 @@
+package wavl.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wavl.DurableWAVLTree;
+
+/**
+ * DurableBenchmark
+ * <p>
+ * the cost of the write-ahead log. durableChurn is UpdateBenchmark.wavlChurn
+ * with both writes logged, compare the two for the logging overhead and
+ * across groupSize for what group commit buys (1 forces the log on every
+ * write). durableCheckpoint saves the loaded tree and empties the log.
+ * the log goes to the default temp directory, so the numbers are only as
+ * good as the disk under it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DurableBenchmark {
+    // the group commit window, long enough that groupSize decides
+    private static final long GROUP_MILLIS = 100;
+
+    @Param({"1", "64", "1024"})
+    public int groupSize;
+
+    private Path dir;
+    private DurableWAVLTree tree;
+    private int[] probes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void open(Workload w) throws IOException {
+        this.dir = Files.createTempDirectory("wavl-durable");
+        // load through wide groups, the load is not what is measured
+        try (DurableWAVLTree load = DurableWAVLTree.open(this.dir, 1 << 16, GROUP_MILLIS, 0)) {
+            for (int k : w.keys) {
+                load.insert(k, Workload.value(k));
+            }
+            load.checkpoint();
+        }
+        this.tree = DurableWAVLTree.open(this.dir, this.groupSize, GROUP_MILLIS, 0);
+        this.probes = w.probes;
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        this.tree.close();
+        try (Stream<Path> files = Files.walk(this.dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    @Benchmark
+    public int durableChurn() {
+        int k = this.probes[this.next];
+        this.next = (this.next + 1) & (Workload.PROBES - 1);
+        return this.tree.delete(k) + this.tree.insert(k, Workload.value(k));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public DurableWAVLTree durableCheckpoint() throws IOException {
+        this.tree.checkpoint();
+        return this.tree;
+    }
+}
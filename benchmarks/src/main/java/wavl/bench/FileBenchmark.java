@@ -0,0 +1,75 @@
+package wavl.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wavl.WAVLTree;
+
+/**
+ * FileBenchmark
+ * <p>
+ * save and load of a loaded tree, with and without the ranks. compare the
+ * loads with UpdateBenchmark.wavlInsertAll, the restart they replace. the
+ * files go to the default temp directory, so the loads mostly measure the
+ * page cache rather than the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileBenchmark {
+    private WAVLTree tree;
+    private Path ranked;
+    private Path balanced;
+    private Path scratch;
+
+    @Setup(Level.Trial)
+    public void save(Workload w) throws IOException {
+        this.tree = w.loadTree();
+        this.ranked = Files.createTempFile("wavl-ranked", ".bin");
+        this.balanced = Files.createTempFile("wavl-balanced", ".bin");
+        this.scratch = Files.createTempFile("wavl-scratch", ".bin");
+        this.tree.save(this.ranked, true);
+        this.tree.save(this.balanced, false);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Files.deleteIfExists(this.ranked);
+        Files.deleteIfExists(this.balanced);
+        Files.deleteIfExists(this.scratch);
+    }
+
+    @Benchmark
+    public Path wavlSave() throws IOException {
+        this.tree.save(this.scratch);
+        return this.scratch;
+    }
+
+    @Benchmark
+    public WAVLTree wavlLoad() throws IOException {
+        return WAVLTree.load(this.ranked);
+    }
+
+    @Benchmark
+    public WAVLTree wavlLoadBalanced() throws IOException {
+        return WAVLTree.load(this.balanced);
+    }
+}
@@ -0,0 +1,102 @@
+package wavl.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wavl.FrozenWAVLIndex;
+import wavl.WAVLTree;
+
+/**
+ * FrozenBenchmark
+ * <p>
+ * reads on a loaded WAVLTree (wavl*) against the FrozenWAVLIndex it
+ * freezes to (frozen*), and the cost of going back and forth.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrozenBenchmark {
+    private WAVLTree tree;
+    private FrozenWAVLIndex frozen;
+    private int[] probes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void load(Workload w) {
+        this.tree = w.loadTree();
+        this.frozen = this.tree.freeze();
+        this.probes = w.probes;
+    }
+
+    private int nextKey() {
+        int k = this.probes[this.next];
+        this.next = (this.next + 1) & (Workload.PROBES - 1);
+        return k;
+    }
+
+    @Benchmark
+    public String wavlSearch() {
+        return this.tree.search(nextKey());
+    }
+
+    @Benchmark
+    public String frozenSearch() {
+        return this.frozen.search(nextKey());
+    }
+
+    @Benchmark
+    public String wavlSearchMiss() {
+        return this.tree.search(~nextKey());
+    }
+
+    @Benchmark
+    public String frozenSearchMiss() {
+        return this.frozen.search(~nextKey());
+    }
+
+    @Benchmark
+    public int wavlRank() {
+        return this.tree.rank(nextKey());
+    }
+
+    @Benchmark
+    public int frozenRank() {
+        return this.frozen.rank(nextKey());
+    }
+
+    @Benchmark
+    public String wavlSelect() {
+        return this.tree.select(1 + (nextKey() & Integer.MAX_VALUE) % this.tree.size());
+    }
+
+    @Benchmark
+    public String frozenSelect() {
+        return this.frozen.select(1 + (nextKey() & Integer.MAX_VALUE) % this.frozen.size());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public FrozenWAVLIndex freeze() {
+        return this.tree.freeze();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public WAVLTree thaw() {
+        return this.frozen.thaw();
+    }
+}
@@ -0,0 +1,174 @@
+package wavl.bench;
+
+import java.util.SplittableRandom;
+
+/**
+ * KeyStream
+ * <p>
+ * The key workloads used by the benchmarks. Every stream maps a position
+ * 0..n-1 to a key, so the same stream can be used both to load a tree and to
+ * pick probe keys out of a loaded tree without keeping a second copy of the
+ * key set in memory.
+ */
+public enum KeyStream {
+    /**
+     * keys 0,1,2,... inserted in ascending order (timestamps, sequence ids)
+     */
+    SEQUENTIAL {
+        @Override
+        public int key(int i, int n) {
+            return i;
+        }
+    },
+    /**
+     * n distinct keys scattered over the whole int range
+     */
+    RANDOM {
+        @Override
+        public int key(int i, int n) {
+            return mix(i);
+        }
+
+        @Override
+        int probeIndex(SplittableRandom rnd, int step, int n, Zipf zipf) {
+            return rnd.nextInt(n);
+        }
+    },
+    /**
+     * same key set as RANDOM but loaded and probed with a Zipfian skew, a
+     * few hot keys get most of the traffic and repeat in the load stream
+     */
+    ZIPFIAN {
+        @Override
+        public int key(int i, int n) {
+            return mix(i);
+        }
+
+        @Override
+        int loadIndex(SplittableRandom rnd, int step, int n, Zipf zipf) {
+            return zipf.next(rnd);
+        }
+
+        @Override
+        int probeIndex(SplittableRandom rnd, int step, int n, Zipf zipf) {
+            return zipf.next(rnd);
+        }
+    },
+    /**
+     * interleaved ascending runs of TOOTH keys, every run restarts below the
+     * previous one (batched appends from several producers)
+     */
+    SAWTOOTH {
+        @Override
+        public int key(int i, int n) {
+            int teeth = (n + TOOTH - 1) / TOOTH;
+            return (i % TOOTH) * teeth + i / TOOTH;
+        }
+    };
+
+    static final int TOOTH = 1024;
+
+    /**
+     * returns the key at position i of a stream of length n
+     */
+    public abstract int key(int i, int n);
+
+    // position of the step'th key of the load stream
+    int loadIndex(SplittableRandom rnd, int step, int n, Zipf zipf) {
+        return step;
+    }
+
+    // position of the step'th probe, probes only hit keys of the load stream
+    int probeIndex(SplittableRandom rnd, int step, int n, Zipf zipf) {
+        return step % n;
+    }
+
+    /**
+     * public int[] load(int n, long seed)
+     * <p>
+     * returns the n keys to insert, in insertion order. for ZIPFIAN the array
+     * contains repeats, which insert reports as -1 and TreeMap ignores.
+     */
+    public int[] load(int n, long seed) {
+        //O(n)
+        SplittableRandom rnd = new SplittableRandom(seed);
+        Zipf zipf = this == ZIPFIAN ? new Zipf(n) : null;
+        int[] keys = new int[n];
+        for (int step = 0; step < n; step++) {
+            keys[step] = key(loadIndex(rnd, step, n, zipf), n);
+        }
+        return keys;
+    }
+
+    /**
+     * public int[] probes(int n, int count, long seed)
+     * <p>
+     * returns count keys, all present in a tree loaded with load(n, seed),
+     * in the order the benchmarks look them up.
+     */
+    public int[] probes(int n, int count, long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed ^ 0x5DEECE66DL);
+        Zipf zipf = this == ZIPFIAN ? new Zipf(n) : null;
+        int[] keys = new int[count];
+        for (int step = 0; step < count; step++) {
+            keys[step] = key(probeIndex(rnd, step, n, zipf), n);
+        }
+        return keys;
+    }
+
+    // murmur3 finalizer, a bijection on int so distinct i give distinct keys
+    static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Zipf
+     * <p>
+     * Zipfian positions over 0..n-1 (Gray et al., "Quickly generating
+     * billion-record synthetic databases"), the same generator YCSB uses.
+     * Position 0 is the hottest.
+     */
+    static final class Zipf {
+        static final double THETA = 0.99;
+
+        private final int n;
+        private final double alpha;
+        private final double eta;
+        private final double zetaN;
+
+        Zipf(int n) {
+            //O(n) once, for the zeta constant
+            this.n = n;
+            this.zetaN = zeta(n);
+            double zeta2 = zeta(2);
+            this.alpha = 1.0 / (1.0 - THETA);
+            this.eta = (1 - Math.pow(2.0 / n, 1 - THETA)) / (1 - zeta2 / zetaN);
+        }
+
+        private static double zeta(int n) {
+            double sum = 0;
+            for (int i = 1; i <= n; i++) {
+                sum += 1 / Math.pow(i, THETA);
+            }
+            return sum;
+        }
+
+        int next(SplittableRandom rnd) {
+            double u = rnd.nextDouble();
+            double uz = u * zetaN;
+            if (uz < 1.0) {
+                return 0;
+            }
+            if (uz < 1.0 + Math.pow(0.5, THETA)) {
+                return Math.min(1, n - 1);
+            }
+            int i = (int) (n * Math.pow(eta * u - eta + 1, alpha));
+            return Math.min(i, n - 1);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package wavl.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wavl.LongKeyWAVLTree;
+import wavl.WAVLTree;
+
+/**
+ * LongKeyBenchmark
+ * <p>
+ * LongKeyWAVLTree (long*) against WAVLTree (wavl*) on the same workload.
+ * the long keys are the int keys widened to fill all 64 bits in the same
+ * order, so both trees have the same shape and only the key width differs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LongKeyBenchmark {
+    private WAVLTree tree;
+    private LongKeyWAVLTree longTree;
+    private int[] probes;
+    private long[] longProbes;
+    private long[] longKeys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void load(Workload w) {
+        this.probes = w.probes;
+        this.longProbes = widen(w.probes);
+        this.longKeys = widen(w.keys);
+        this.tree = wavlInsertAll(w);
+        this.longTree = longInsertAll(w);
+    }
+
+    // k in the high half, its bits again in the low half: order preserving
+    private static long[] widen(int[] keys) {
+        long[] wide = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            wide[i] = (long) keys[i] << Integer.SIZE | Integer.toUnsignedLong(keys[i]);
+        }
+        return wide;
+    }
+
+    private int nextIndex() {
+        int i = this.next;
+        this.next = (i + 1) & (Workload.PROBES - 1);
+        return i;
+    }
+
+    @Benchmark
+    public String wavlSearch() {
+        return this.tree.search(this.probes[nextIndex()]);
+    }
+
+    @Benchmark
+    public String longSearch() {
+        return this.longTree.search(this.longProbes[nextIndex()]);
+    }
+
+    @Benchmark
+    public int wavlRank() {
+        return this.tree.rank(this.probes[nextIndex()]);
+    }
+
+    @Benchmark
+    public int longRank() {
+        return this.longTree.rank(this.longProbes[nextIndex()]);
+    }
+
+    @Benchmark
+    public int wavlChurn() {
+        int k = this.probes[nextIndex()];
+        return this.tree.delete(k) + this.tree.insert(k, Workload.value(k));
+    }
+
+    @Benchmark
+    public int longChurn() {
+        int i = nextIndex();
+        long k = this.longProbes[i];
+        return this.longTree.delete(k) + this.longTree.insert(k, Workload.value(this.probes[i]));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public WAVLTree wavlInsertAll(Workload w) {
+        WAVLTree tree = new WAVLTree();
+        for (int k : w.keys) {
+            tree.insert(k, Workload.value(k));
+        }
+        return tree;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public LongKeyWAVLTree longInsertAll(Workload w) {
+        LongKeyWAVLTree tree = new LongKeyWAVLTree();
+        long[] keys = this.longKeys;
+        for (int i = 0; i < keys.length; i++) {
+            tree.insert(keys[i], Workload.value(w.keys[i]));
+        }
+        return tree;
+    }
+}
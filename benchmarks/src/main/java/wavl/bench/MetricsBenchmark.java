@@ -0,0 +1,74 @@
+package wavl.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wavl.WAVLMetrics;
+import wavl.WAVLTree;
+
+/**
+ * MetricsBenchmark
+ * <p>
+ * the cost of WAVLMetrics: wavl* run on a tree without metrics, metered*
+ * on the same load with metrics attached. QueryBenchmark.wavlSearch and
+ * UpdateBenchmark.wavlChurn are the numbers from before metrics existed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+    private WAVLTree tree;
+    private WAVLTree metered;
+    private int[] probes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void load(Workload w) {
+        this.tree = w.loadTree();
+        this.metered = w.loadTree();
+        this.metered.setMetrics(new WAVLMetrics());
+        this.probes = w.probes;
+    }
+
+    private int nextKey() {
+        int k = this.probes[this.next];
+        this.next = (this.next + 1) & (Workload.PROBES - 1);
+        return k;
+    }
+
+    @Benchmark
+    public String wavlSearch() {
+        return this.tree.search(nextKey());
+    }
+
+    @Benchmark
+    public String meteredSearch() {
+        return this.metered.search(nextKey());
+    }
+
+    @Benchmark
+    public int wavlChurn() {
+        int k = nextKey();
+        return this.tree.delete(k) + this.tree.insert(k, Workload.value(k));
+    }
+
+    @Benchmark
+    public int meteredChurn() {
+        int k = nextKey();
+        return this.metered.delete(k) + this.metered.insert(k, Workload.value(k));
+    }
+}
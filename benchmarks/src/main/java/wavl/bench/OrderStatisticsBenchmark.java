@@ -0,0 +1,113 @@
+package wavl.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wavl.WAVLTree;
+
+/**
+ * OrderStatisticsBenchmark
+ * <p>
+ * batches of batch ranks or keys answered one call at a time (loop*)
+ * against one selectAll or rankAll walk, and four percentiles by select
+ * against one quantiles call. the scores are per batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderStatisticsBenchmark {
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+
+    @Param({"16", "1024"})
+    public int batch;
+
+    private WAVLTree tree;
+    private int[][] rankBatches;
+    private int[][] keyBatches;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void load(Workload w) {
+        this.tree = w.loadTree();
+        int size = this.tree.size();
+        int batches = Workload.PROBES / this.batch;
+        this.rankBatches = new int[batches][];
+        this.keyBatches = new int[batches][];
+        for (int b = 0; b < batches; b++) {
+            int[] keys = Arrays.copyOfRange(w.probes, b * this.batch, (b + 1) * this.batch);
+            int[] ranks = new int[this.batch];
+            for (int j = 0; j < this.batch; j++) {
+                ranks[j] = 1 + (KeyStream.mix(keys[j]) & Integer.MAX_VALUE) % size;
+            }
+            this.keyBatches[b] = keys;
+            this.rankBatches[b] = ranks;
+        }
+    }
+
+    private int nextBatch() {
+        int b = this.next;
+        this.next = (b + 1) % this.rankBatches.length;
+        return b;
+    }
+
+    @Benchmark
+    public String[] loopSelect() {
+        int[] ranks = this.rankBatches[nextBatch()];
+        String[] arr = new String[ranks.length];
+        for (int j = 0; j < ranks.length; j++) {
+            arr[j] = this.tree.select(ranks[j]);
+        }
+        return arr;
+    }
+
+    @Benchmark
+    public String[] selectAll() {
+        return this.tree.selectAll(this.rankBatches[nextBatch()]);
+    }
+
+    @Benchmark
+    public int[] loopRank() {
+        int[] keys = this.keyBatches[nextBatch()];
+        int[] arr = new int[keys.length];
+        for (int j = 0; j < keys.length; j++) {
+            arr[j] = this.tree.rank(keys[j]);
+        }
+        return arr;
+    }
+
+    @Benchmark
+    public int[] rankAll() {
+        return this.tree.rankAll(this.keyBatches[nextBatch()]);
+    }
+
+    @Benchmark
+    public String[] loopPercentiles() {
+        int size = this.tree.size();
+        String[] arr = new String[PERCENTILES.length];
+        for (int j = 0; j < PERCENTILES.length; j++) {
+            arr[j] = this.tree.select(Math.max(1, (int) Math.ceil(PERCENTILES[j] * size)));
+        }
+        return arr;
+    }
+
+    @Benchmark
+    public int[] quantiles() {
+        return this.tree.quantiles(PERCENTILES);
+    }
+}
@@ -0,0 +1,232 @@
+package wavl.bench;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wavl.ArenaWAVLTree;
+import wavl.WAVLTree;
+
+/**
+ * QueryBenchmark
+ * <p>
+ * Read-only operations on a loaded tree, every wavl* benchmark is paired
+ * with the closest TreeMap&lt;Integer,String&gt; operation as its baseline.
+ * select has no TreeMap counterpart (TreeMap keeps no subtree sizes).
+ * arena* runs the same operation on an ArenaWAVLTree.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+    // keys read per range scan
+    private static final int SCAN = 100;
+
+    private WAVLTree tree;
+    private ArenaWAVLTree arena;
+    private TreeMap<Integer, String> map;
+    private int[] probes;
+    private int[] ranks;
+    private WAVLTree.Cursor cursor;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void load(Workload w) {
+        this.tree = w.loadTree();
+        this.arena = w.loadArena();
+        this.map = w.loadMap();
+        this.probes = w.probes;
+        this.cursor = this.tree.cursor();
+        // select ranks follow the probe keys, so skewed streams stay skewed
+        this.ranks = new int[Workload.PROBES];
+        for (int i = 0; i < this.ranks.length; i++) {
+            this.ranks[i] = 1 + (int) (Integer.toUnsignedLong(KeyStream.mix(
+                    this.probes[i])) % this.tree.size());
+        }
+    }
+
+    private int nextIndex() {
+        int i = this.next;
+        this.next = (i + 1) & (Workload.PROBES - 1);
+        return i;
+    }
+
+    @Benchmark
+    public String wavlSearch() {
+        return this.tree.search(this.probes[nextIndex()]);
+    }
+
+    @Benchmark
+    public String arenaSearch() {
+        return this.arena.search(this.probes[nextIndex()]);
+    }
+
+    @Benchmark
+    public String treeMapGet() {
+        return this.map.get(this.probes[nextIndex()]);
+    }
+
+    @Benchmark
+    public String wavlSelect() {
+        return this.tree.select(this.ranks[nextIndex()]);
+    }
+
+    @Benchmark
+    public String arenaSelect() {
+        return this.arena.select(this.ranks[nextIndex()]);
+    }
+
+    @Benchmark
+    public int wavlRank() {
+        return this.tree.rank(this.probes[nextIndex()]);
+    }
+
+    @Benchmark
+    public int wavlCountRange() {
+        int i = nextIndex();
+        int a = this.probes[i];
+        int b = this.probes[(i + 1) & (Workload.PROBES - 1)];
+        return this.tree.countRange(Math.min(a, b), Math.max(a, b));
+    }
+
+    @Benchmark
+    public int treeMapCountRange() {
+        // TreeMap counts a sub map by walking it
+        int i = nextIndex();
+        int a = this.probes[i];
+        int b = this.probes[(i + 1) & (Workload.PROBES - 1)];
+        return this.map.subMap(Math.min(a, b), true, Math.max(a, b), true).size();
+    }
+
+    @Benchmark
+    public WAVLTree.IWAVLNode wavlSuccessor() {
+        return this.tree.successor(this.probes[nextIndex()]);
+    }
+
+    @Benchmark
+    public Map.Entry<Integer, String> treeMapHigher() {
+        return this.map.higherEntry(this.probes[nextIndex()]);
+    }
+
+    @Benchmark
+    public WAVLTree.IWAVLNode wavlFloor() {
+        // probe + 1 is mostly absent, the floor is the probe itself
+        return this.tree.floor(this.probes[nextIndex()] + 1);
+    }
+
+    @Benchmark
+    public Map.Entry<Integer, String> treeMapFloor() {
+        return this.map.floorEntry(this.probes[nextIndex()] + 1);
+    }
+
+    @Benchmark
+    public long wavlScan100() {
+        long sum = 0;
+        int n = 0;
+        WAVLTree.Cursor c = this.cursor;
+        for (c.seek(this.probes[nextIndex()]); c.valid() && n < SCAN; c.next()) {
+            sum += c.getKey();
+            n++;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long treeMapScan100() {
+        long sum = 0;
+        int n = 0;
+        for (int k : this.map.tailMap(this.probes[nextIndex()], true).keySet()) {
+            if (n++ == SCAN) {
+                break;
+            }
+            sum += k;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public String wavlMin() {
+        return this.tree.min();
+    }
+
+    @Benchmark
+    public String arenaMin() {
+        return this.arena.min();
+    }
+
+    @Benchmark
+    public String treeMapFirst() {
+        return this.map.firstEntry().getValue();
+    }
+
+    @Benchmark
+    public String wavlMax() {
+        return this.tree.max();
+    }
+
+    @Benchmark
+    public String arenaMax() {
+        return this.arena.max();
+    }
+
+    @Benchmark
+    public String treeMapLast() {
+        return this.map.lastEntry().getValue();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int[] wavlKeysToArray() {
+        return this.tree.keysToArray();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int[] arenaKeysToArray() {
+        return this.arena.keysToArray();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int[] treeMapKeysToArray() {
+        int[] arr = new int[this.map.size()];
+        int i = 0;
+        for (int k : this.map.keySet()) {
+            arr[i++] = k;
+        }
+        return arr;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String[] wavlInfoToArray() {
+        return this.tree.infoToArray();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String[] arenaInfoToArray() {
+        return this.arena.infoToArray();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String[] treeMapValuesToArray() {
+        return this.map.values().toArray(new String[0]);
+    }
+}
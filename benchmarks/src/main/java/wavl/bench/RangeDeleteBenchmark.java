@@ -0,0 +1,81 @@
+package wavl.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wavl.WAVLTree;
+
+/**
+ * RangeDeleteBenchmark
+ * <p>
+ * a retention purge: every key below a watermark leaves a freshly loaded
+ * tree, the smallest purge keys of it (all of them if the tree is
+ * smaller). loopDelete deletes them one by one, deleteAll as one batch,
+ * deleteRange cuts them out with two splits and a join. retainRange keeps
+ * the rest the other way round.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+public class RangeDeleteBenchmark {
+    @Param({"1000", "100000"})
+    public int purge;
+
+    private WAVLTree tree;
+    // the keys below the watermark, ascending
+    private int[] purged;
+    private int watermark;
+
+    @Setup(Level.Invocation)
+    public void load(Workload w) {
+        this.tree = w.loadTree();
+        int[] sorted = this.tree.keysToArray();
+        int count = Math.min(this.purge, sorted.length);
+        this.purged = Arrays.copyOf(sorted, count);
+        this.watermark = sorted[count - 1];
+    }
+
+    @Benchmark
+    public WAVLTree loopDelete() {
+        for (int k : this.purged) {
+            this.tree.delete(k);
+        }
+        return this.tree;
+    }
+
+    @Benchmark
+    public WAVLTree deleteAll() {
+        this.tree.deleteAll(this.purged);
+        return this.tree;
+    }
+
+    @Benchmark
+    public WAVLTree deleteRange() {
+        this.tree.deleteRange(Integer.MIN_VALUE, this.watermark);
+        return this.tree;
+    }
+
+    @Benchmark
+    public WAVLTree retainRange() {
+        if (this.watermark < Integer.MAX_VALUE) {
+            this.tree.retainRange(this.watermark + 1, Integer.MAX_VALUE);
+        }
+        return this.tree;
+    }
+}
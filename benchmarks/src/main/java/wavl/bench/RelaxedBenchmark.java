@@ -0,0 +1,145 @@
+package wavl.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wavl.ConcurrentWAVLTree;
+import wavl.WAVLTree;
+
+/**
+ * RelaxedBenchmark
+ * <p>
+ * writes with rebalancing on the write path (strict*) against relaxed
+ * writes that leave it to later (relaxed*). the churn benchmarks sample
+ * the latency of every write, so the percentiles show the tail the
+ * rebalancing adds, the relaxed tree is rebalanced by the background
+ * thread of ConcurrentWAVLTree. the burst benchmarks write BURST fresh keys
+ * into a loaded tree, relaxedBurst then rebalances them in one go and
+ * relaxedBurstWrites leaves them unbalanced.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RelaxedBenchmark {
+    // keys written per burst
+    static final int BURST = 1 << 12;
+    // time between background rebalancing runs
+    private static final long PERIOD_MILLIS = 1;
+
+    @State(Scope.Benchmark)
+    public static class Churn {
+        ConcurrentWAVLTree strict;
+        ConcurrentWAVLTree relaxed;
+        int[] probes;
+        int next;
+
+        @Setup(Level.Trial)
+        public void load(Workload w) {
+            this.strict = new ConcurrentWAVLTree(w.loadTree());
+            this.relaxed = new ConcurrentWAVLTree(w.loadTree());
+            this.relaxed.setRelaxed(true, PERIOD_MILLIS);
+            this.probes = w.probes;
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            this.relaxed.setRelaxed(false, 0);
+        }
+
+        int nextKey() {
+            int k = this.probes[this.next];
+            this.next = (this.next + 1) & (Workload.PROBES - 1);
+            return k;
+        }
+    }
+
+    /**
+     * a freshly loaded tree for every burst, and BURST keys that are not in
+     * it: scattered, or ascending from near the top of the key space like
+     * timestamps. relaxed inserts repair an ascending run once it gets
+     * deeper than 2log(n), see WAVLTree.setRelaxed
+     */
+    @State(Scope.Thread)
+    public static class Burst {
+        @Param({"scattered", "ascending"})
+        String order;
+
+        WAVLTree tree;
+        int[] keys;
+
+        @Setup(Level.Invocation)
+        public void load(Workload w) {
+            this.tree = w.loadTree();
+            this.keys = new int[BURST];
+            int found = 0;
+            boolean ascending = "ascending".equals(this.order);
+            for (int i = 0; found < BURST; i++) {
+                int k = ascending ? Integer.MAX_VALUE - 2 * BURST + i : KeyStream.mix(~i);
+                if (this.tree.search(k) == null) {
+                    this.keys[found++] = k;
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public int strictChurn(Churn s) {
+        int k = s.nextKey();
+        return s.strict.delete(k) + s.strict.insert(k, Workload.value(k));
+    }
+
+    @Benchmark
+    public int relaxedChurn(Churn s) {
+        int k = s.nextKey();
+        return s.relaxed.delete(k) + s.relaxed.insert(k, Workload.value(k));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public WAVLTree strictBurst(Burst s) {
+        for (int k : s.keys) {
+            s.tree.insert(k, Workload.value(k));
+        }
+        return s.tree;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public WAVLTree relaxedBurstWrites(Burst s) {
+        // the writers' share alone, the tree is reloaded before it is fixed
+        s.tree.setRelaxed(true);
+        for (int k : s.keys) {
+            s.tree.insert(k, Workload.value(k));
+        }
+        return s.tree;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public WAVLTree relaxedBurst(Burst s) {
+        s.tree.setRelaxed(true);
+        for (int k : s.keys) {
+            s.tree.insert(k, Workload.value(k));
+        }
+        s.tree.setRelaxed(false);
+        return s.tree;
+    }
+}
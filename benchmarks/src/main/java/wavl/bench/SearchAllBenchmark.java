@@ -0,0 +1,75 @@
+package wavl.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wavl.WAVLTree;
+
+/**
+ * SearchAllBenchmark
+ * <p>
+ * looking up batches of batch keys: loopSearch calls search once per key,
+ * searchAll hands the whole batch to WAVLTree.searchAll. the scores are per
+ * batch, divide by batch for the time per key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchAllBenchmark {
+    @Param({"16", "256", "16384"})
+    public int batch;
+
+    private WAVLTree tree;
+    // the probes cut into Workload.PROBES / batch batches
+    private int[][] batches;
+    private String[] out;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void load(Workload w) {
+        this.tree = w.loadTree();
+        this.batches = new int[Workload.PROBES / this.batch][];
+        for (int b = 0; b < this.batches.length; b++) {
+            this.batches[b] = Arrays.copyOfRange(w.probes, b * this.batch, (b + 1) * this.batch);
+        }
+        this.out = new String[this.batch];
+    }
+
+    private int[] nextBatch() {
+        int[] keys = this.batches[this.next];
+        this.next = (this.next + 1) % this.batches.length;
+        return keys;
+    }
+
+    @Benchmark
+    public String[] loopSearch() {
+        int[] keys = nextBatch();
+        String[] out = this.out;
+        for (int j = 0; j < keys.length; j++) {
+            out[j] = this.tree.search(keys[j]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public String[] searchAll() {
+        this.tree.searchAll(nextBatch(), this.out);
+        return this.out;
+    }
+}
@@ -0,0 +1,121 @@
+package wavl.bench;
+
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wavl.WAVLTree;
+
+/**
+ * SetOperationBenchmark
+ * <p>
+ * union, intersection and difference of two trees that share a third of
+ * their keys: the stream's distinct keys are dealt out so that a gets
+ * positions 0 and 1 of every three and b gets positions 1 and 2. The WAVL
+ * operations consume their operands, so both trees are rebuilt (with
+ * fromSorted, not measured) before every invocation. The treeMap* baselines
+ * copy a and merge b into it with putAll/retainAll/removeAll.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SetOperationBenchmark {
+    private int[] aKeys;
+    private String[] aValues;
+    private int[] bKeys;
+    private String[] bValues;
+    private TreeMap<Integer, String> aMap;
+    private TreeMap<Integer, String> bMap;
+    private WAVLTree a;
+    private WAVLTree b;
+
+    @Setup(Level.Trial)
+    public void deal(Workload w) {
+        int[] sorted = w.loadTree().keysToArray();
+        int aCount = 0;
+        int bCount = 0;
+        for (int j = 0; j < sorted.length; j++) {
+            aCount += j % 3 != 2 ? 1 : 0;
+            bCount += j % 3 != 0 ? 1 : 0;
+        }
+        this.aKeys = new int[aCount];
+        this.aValues = new String[aCount];
+        this.bKeys = new int[bCount];
+        this.bValues = new String[bCount];
+        this.aMap = new TreeMap<>();
+        this.bMap = new TreeMap<>();
+        aCount = 0;
+        bCount = 0;
+        for (int j = 0; j < sorted.length; j++) {
+            int k = sorted[j];
+            if (j % 3 != 2) {
+                this.aKeys[aCount] = k;
+                this.aValues[aCount++] = Workload.value(k);
+                this.aMap.put(k, Workload.value(k));
+            }
+            if (j % 3 != 0) {
+                this.bKeys[bCount] = k;
+                this.bValues[bCount++] = Workload.value(k);
+                this.bMap.put(k, Workload.value(k));
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void rebuild() {
+        this.a = WAVLTree.fromSorted(this.aKeys, this.aValues);
+        this.b = WAVLTree.fromSorted(this.bKeys, this.bValues);
+    }
+
+    @Benchmark
+    public WAVLTree wavlUnion() {
+        return WAVLTree.union(this.a, this.b);
+    }
+
+    @Benchmark
+    public TreeMap<Integer, String> treeMapUnion() {
+        TreeMap<Integer, String> result = new TreeMap<>(this.aMap);
+        for (var e : this.bMap.entrySet()) {
+            result.putIfAbsent(e.getKey(), e.getValue());
+        }
+        return result;
+    }
+
+    @Benchmark
+    public WAVLTree wavlIntersection() {
+        return WAVLTree.intersection(this.a, this.b);
+    }
+
+    @Benchmark
+    public TreeMap<Integer, String> treeMapIntersection() {
+        TreeMap<Integer, String> result = new TreeMap<>(this.aMap);
+        result.keySet().retainAll(this.bMap.keySet());
+        return result;
+    }
+
+    @Benchmark
+    public WAVLTree wavlDifference() {
+        return WAVLTree.difference(this.a, this.b);
+    }
+
+    @Benchmark
+    public TreeMap<Integer, String> treeMapDifference() {
+        TreeMap<Integer, String> result = new TreeMap<>(this.aMap);
+        result.keySet().removeAll(this.bMap.keySet());
+        return result;
+    }
+}
@@ -0,0 +1,68 @@
+package wavl.bench;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wavl.WAVLTree;
+
+/**
+ * StreamBenchmark
+ * <p>
+ * Summing every key, sequentially and with parallel streams, straight off
+ * the tree, through keysToArray() (the old way, a full copy first) and
+ * through TreeMap's key set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamBenchmark {
+    private WAVLTree tree;
+    private TreeMap<Integer, String> map;
+
+    @Setup(Level.Trial)
+    public void load(Workload w) {
+        this.tree = w.loadTree();
+        this.map = w.loadMap();
+    }
+
+    @Benchmark
+    public long wavlKeysSum() {
+        return this.tree.keys().asLongStream().sum();
+    }
+
+    @Benchmark
+    public long wavlKeysParallelSum() {
+        return this.tree.keys().parallel().asLongStream().sum();
+    }
+
+    @Benchmark
+    public long wavlKeysToArrayParallelSum() {
+        return Arrays.stream(this.tree.keysToArray()).parallel().asLongStream().sum();
+    }
+
+    @Benchmark
+    public long wavlValuesParallelLength() {
+        return this.tree.values().parallel().mapToLong(String::length).sum();
+    }
+
+    @Benchmark
+    public long treeMapKeysParallelSum() {
+        return this.map.keySet().parallelStream().mapToLong(Integer::longValue).sum();
+    }
+}
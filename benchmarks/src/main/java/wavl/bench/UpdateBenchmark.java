@@ -0,0 +1,353 @@
+package wavl.bench;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import wavl.ArenaWAVLTree;
+import wavl.PersistentWAVLTree;
+import wavl.WAVLTree;
+
+/**
+ * UpdateBenchmark
+ * <p>
+ * insert and delete, both as whole-stream loads (one op = size inserts),
+ * drains that put every key back (one op = size deletes and size
+ * re-inserts, the load benchmarks give the re-insert half) and as
+ * steady-state churn on a loaded tree (one op = a delete and a re-insert
+ * of the same key). Every wavl* benchmark has a treeMap* baseline
+ * and an arena* variant on ArenaWAVLTree, persistent* run the same workload
+ * on PersistentWAVLTree.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpdateBenchmark {
+    // keys per insertAll/deleteAll call in the batched benchmarks
+    static final int BATCH = 10_000;
+    // items kept by the top-K benchmarks
+    static final int TOP_K = 100;
+
+    /**
+     * a tree loaded once per iteration for the drain benchmarks, which
+     * leave it as loaded: each deletes the keys and inserts them again
+     */
+    @State(Scope.Thread)
+    public static class LoadedTree {
+        WAVLTree tree;
+
+        @Setup(Level.Iteration)
+        public void load(Workload w) {
+            this.tree = w.loadTree();
+        }
+    }
+
+    /**
+     * the ArenaWAVLTree of arenaDeleteAll, loaded once per iteration like
+     * LoadedTree
+     */
+    @State(Scope.Thread)
+    public static class LoadedArena {
+        ArenaWAVLTree arena;
+
+        @Setup(Level.Iteration)
+        public void load(Workload w) {
+            this.arena = w.loadArena();
+        }
+    }
+
+    /**
+     * the TreeMap of treeMapRemoveAll, loaded once per iteration like
+     * LoadedTree
+     */
+    @State(Scope.Thread)
+    public static class LoadedMap {
+        TreeMap<Integer, String> map;
+
+        @Setup(Level.Iteration)
+        public void load(Workload w) {
+            this.map = w.loadMap();
+        }
+    }
+
+    /**
+     * one loaded tree and map reused across the churn invocations, churn
+     * puts back every key it removes so the size never drifts
+     */
+    @State(Scope.Thread)
+    public static class Steady {
+        WAVLTree tree;
+        ArenaWAVLTree arena;
+        PersistentWAVLTree persistent;
+        TreeMap<Integer, String> map;
+        int[] probes;
+        int next;
+
+        @Setup(Level.Trial)
+        public void load(Workload w) {
+            this.tree = w.loadTree();
+            this.arena = w.loadArena();
+            this.persistent = w.loadPersistent();
+            this.map = w.loadMap();
+            this.probes = w.probes;
+        }
+
+        int nextKey() {
+            int k = this.probes[this.next];
+            this.next = (this.next + 1) & (Workload.PROBES - 1);
+            return k;
+        }
+    }
+
+    /**
+     * the distinct keys of the load stream in ascending order with their
+     * values, the input of the bulk loads
+     */
+    @State(Scope.Thread)
+    public static class Sorted {
+        int[] keys;
+        String[] values;
+        TreeMap<Integer, String> source;
+
+        @Setup(Level.Trial)
+        public void sort(Workload w) {
+            this.source = w.loadMap();
+            this.keys = new int[this.source.size()];
+            this.values = new String[this.keys.length];
+            int i = 0;
+            for (int k : this.source.keySet()) {
+                this.keys[i] = k;
+                this.values[i++] = Workload.value(k);
+            }
+        }
+    }
+
+    /**
+     * keys 0..size-1 as a work queue: every invocation takes the head and
+     * appends a key past the tail. a queue's keys only ever arrive in order,
+     * so it takes the size but not the key stream of Workload
+     */
+    @State(Scope.Thread)
+    public static class Queue {
+        @Param({"1000", "100000", "1000000", "10000000", "50000000"})
+        public int size;
+
+        WAVLTree tree;
+        TreeMap<Integer, String> map;
+        int next;
+
+        @Setup(Level.Trial)
+        public void load() {
+            this.tree = new WAVLTree();
+            this.map = new TreeMap<>();
+            for (int k = 0; k < this.size; k++) {
+                this.tree.insert(k, Workload.value(k));
+                this.map.put(k, Workload.value(k));
+            }
+            this.next = this.size;
+        }
+    }
+
+    @Benchmark
+    public WAVLTree wavlFromSorted(Sorted s) {
+        return WAVLTree.fromSorted(s.keys, s.values);
+    }
+
+    @Benchmark
+    public TreeMap<Integer, String> treeMapFromSorted(Sorted s) {
+        // TreeMap's SortedMap constructor is its own linear-time build
+        return new TreeMap<>(s.source);
+    }
+
+    @Benchmark
+    public WAVLTree wavlInsertAll(Workload w) {
+        return w.loadTree();
+    }
+
+    @Benchmark
+    public ArenaWAVLTree arenaInsertAll(Workload w) {
+        return w.loadArena();
+    }
+
+    @Benchmark
+    public PersistentWAVLTree persistentInsertAll(Workload w) {
+        return w.loadPersistent();
+    }
+
+    @Benchmark
+    public TreeMap<Integer, String> treeMapPutAll(Workload w) {
+        return w.loadMap();
+    }
+
+    @Benchmark
+    public void wavlDeleteAll(Workload w, LoadedTree s, Blackhole bh) {
+        for (int k : w.keys) {
+            bh.consume(s.tree.delete(k));
+        }
+        w.fill(s.tree);
+    }
+
+    @Benchmark
+    public void arenaDeleteAll(Workload w, LoadedArena s, Blackhole bh) {
+        for (int k : w.keys) {
+            bh.consume(s.arena.delete(k));
+        }
+        w.fill(s.arena);
+    }
+
+    @Benchmark
+    public WAVLTree wavlInsertBatches(Workload w) {
+        WAVLTree tree = new WAVLTree();
+        for (int from = 0; from < w.keys.length; from += BATCH) {
+            int to = Math.min(from + BATCH, w.keys.length);
+            int[] batch = Arrays.copyOfRange(w.keys, from, to);
+            String[] values = new String[batch.length];
+            for (int j = 0; j < batch.length; j++) {
+                values[j] = Workload.value(batch[j]);
+            }
+            tree.insertAll(batch, values);
+        }
+        return tree;
+    }
+
+    @Benchmark
+    public void wavlDeleteBatches(Workload w, LoadedTree s, Blackhole bh) {
+        for (int from = 0; from < w.keys.length; from += BATCH) {
+            int to = Math.min(from + BATCH, w.keys.length);
+            bh.consume(s.tree.deleteAll(Arrays.copyOfRange(w.keys, from, to)));
+        }
+        w.fill(s.tree);
+    }
+
+    @Benchmark
+    public void treeMapRemoveAll(Workload w, LoadedMap s, Blackhole bh) {
+        for (int k : w.keys) {
+            bh.consume(s.map.remove(k));
+        }
+        w.fill(s.map);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int wavlChurn(Steady s) {
+        int k = s.nextKey();
+        return s.tree.delete(k) + s.tree.insert(k, Workload.value(k));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int arenaChurn(Steady s) {
+        int k = s.nextKey();
+        return s.arena.delete(k) + s.arena.insert(k, Workload.value(k));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int persistentChurn(Steady s) {
+        int k = s.nextKey();
+        return s.persistent.delete(k) + s.persistent.insert(k, Workload.value(k));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public PersistentWAVLTree persistentSnapshotChurn(Steady s) {
+        // a point-in-time view per write, each kept until the next one
+        int k = s.nextKey();
+        PersistentWAVLTree view = s.persistent.snapshot();
+        s.persistent.delete(k);
+        s.persistent.insert(k, Workload.value(k));
+        return view;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public WAVLTree wavlCopy(Steady s) {
+        // the point-in-time view WAVLTree can offer: an O(n) copy
+        return WAVLTree.fromSorted(s.tree.keysToArray(), s.tree.infoToArray());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public WAVLTree wavlSplitJoin(Steady s) {
+        // cut at a present key and glue the halves back with that key
+        int k = s.nextKey();
+        WAVLTree[] parts = s.tree.split(k);
+        parts[1].delete(k);
+        s.tree = WAVLTree.join(parts[0], k, Workload.value(k), parts[1]);
+        return s.tree;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void treeMapSplit(Steady s, Blackhole bh) {
+        // TreeMap can only hand off a range by copying it
+        int k = s.nextKey();
+        bh.consume(new TreeMap<>(s.map.headMap(k)));
+        bh.consume(new TreeMap<>(s.map.tailMap(k)));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String wavlPollMin(Queue q) {
+        String head = q.tree.pollMin();
+        q.tree.insert(q.next, Workload.value(q.next));
+        q.next++;
+        return head;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String treeMapPollFirst(Queue q) {
+        String head = q.map.pollFirstEntry().getValue();
+        q.map.put(q.next, Workload.value(q.next));
+        q.next++;
+        return head;
+    }
+
+    @Benchmark
+    public WAVLTree wavlTopK(Workload w) {
+        WAVLTree top = new WAVLTree(TOP_K, true);
+        for (int k : w.keys) {
+            top.insert(k, Workload.value(k));
+        }
+        return top;
+    }
+
+    @Benchmark
+    public TreeMap<Integer, String> treeMapTopK(Workload w) {
+        TreeMap<Integer, String> top = new TreeMap<>();
+        for (int k : w.keys) {
+            if (top.size() < TOP_K || k > top.firstKey()) {
+                top.putIfAbsent(k, Workload.value(k));
+                if (top.size() > TOP_K) {
+                    top.pollFirstEntry();
+                }
+            }
+        }
+        return top;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String treeMapChurn(Steady s) {
+        int k = s.nextKey();
+        s.map.remove(k);
+        return s.map.put(k, Workload.value(k));
+    }
+}
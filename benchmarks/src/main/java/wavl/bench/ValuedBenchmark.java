@@ -0,0 +1,101 @@
+package wavl.bench;
+
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wavl.IntValuedWAVLTree;
+import wavl.WAVLTree;
+
+/**
+ * ValuedBenchmark
+ * <p>
+ * a numeric payload (the key itself) kept three ways: formatted into the
+ * String value of a WAVLTree and parsed back on every read (wavl*), inline
+ * in an IntValuedWAVLTree (intValued*), and boxed in a
+ * TreeMap&lt;Integer,Integer&gt; (treeMap*). the loads are one op per
+ * stream, the searches one op per key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValuedBenchmark {
+    private WAVLTree tree;
+    private IntValuedWAVLTree valued;
+    private TreeMap<Integer, Integer> map;
+    private int[] probes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void load(Workload w) {
+        this.tree = wavlLoad(w);
+        this.valued = intValuedLoad(w);
+        this.map = treeMapLoad(w);
+        this.probes = w.probes;
+    }
+
+    private int nextKey() {
+        int k = this.probes[this.next];
+        this.next = (this.next + 1) & (Workload.PROBES - 1);
+        return k;
+    }
+
+    @Benchmark
+    public int wavlSearch() {
+        return Integer.parseInt(this.tree.search(nextKey()));
+    }
+
+    @Benchmark
+    public int intValuedSearch() {
+        return this.valued.search(nextKey(), -1);
+    }
+
+    @Benchmark
+    public int treeMapGet() {
+        return this.map.get(nextKey());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public WAVLTree wavlLoad(Workload w) {
+        WAVLTree tree = new WAVLTree();
+        for (int k : w.keys) {
+            tree.insert(k, Integer.toString(k));
+        }
+        return tree;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public IntValuedWAVLTree intValuedLoad(Workload w) {
+        IntValuedWAVLTree tree = new IntValuedWAVLTree(w.size);
+        for (int k : w.keys) {
+            tree.insert(k, k);
+        }
+        return tree;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public TreeMap<Integer, Integer> treeMapLoad(Workload w) {
+        TreeMap<Integer, Integer> map = new TreeMap<>();
+        for (int k : w.keys) {
+            map.putIfAbsent(k, k);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,107 @@
+package wavl.bench;
+
+import java.util.TreeMap;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import wavl.ArenaWAVLTree;
+import wavl.PersistentWAVLTree;
+import wavl.WAVLTree;
+
+/**
+ * Workload
+ * <p>
+ * The key stream and size shared by all the benchmarks. Sizes above 1M need
+ * a larger heap, run them with -jvmArgsAppend -Xmx16g (see README.md).
+ */
+@State(Scope.Benchmark)
+public class Workload {
+    // probe arrays are cycled, a power of two so the cursor is a mask
+    static final int PROBES = 1 << 16;
+
+    // a small pool of values, the benchmarks measure the tree, not Strings
+    private static final String[] VALUES = new String[1024];
+
+    static {
+        for (int i = 0; i < VALUES.length; i++) {
+            VALUES[i] = "v" + i;
+        }
+    }
+
+    @Param({"1000", "100000", "1000000", "10000000", "50000000"})
+    public int size;
+
+    @Param({"SEQUENTIAL", "RANDOM", "ZIPFIAN", "SAWTOOTH"})
+    public KeyStream stream;
+
+    @Param({"42"})
+    public long seed;
+
+    // the load stream, in insertion order
+    public int[] keys;
+    // keys present in the loaded tree, in lookup order
+    public int[] probes;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        this.keys = this.stream.load(this.size, this.seed);
+        this.probes = this.stream.probes(this.size, PROBES, this.seed);
+    }
+
+    static String value(int k) {
+        return VALUES[k & (VALUES.length - 1)];
+    }
+
+    WAVLTree loadTree() {
+        //O(nlogn)
+        WAVLTree tree = new WAVLTree();
+        fill(tree);
+        return tree;
+    }
+
+    ArenaWAVLTree loadArena() {
+        //O(nlogn)
+        ArenaWAVLTree tree = new ArenaWAVLTree(this.size);
+        fill(tree);
+        return tree;
+    }
+
+    // inserts the load stream, keys already there are skipped
+    void fill(WAVLTree tree) {
+        for (int k : this.keys) {
+            tree.insert(k, value(k));
+        }
+    }
+
+    void fill(ArenaWAVLTree tree) {
+        for (int k : this.keys) {
+            tree.insert(k, value(k));
+        }
+    }
+
+    PersistentWAVLTree loadPersistent() {
+        //O(nlogn)
+        PersistentWAVLTree tree = new PersistentWAVLTree();
+        for (int k : this.keys) {
+            tree.insert(k, value(k));
+        }
+        return tree;
+    }
+
+    TreeMap<Integer, String> loadMap() {
+        //O(nlogn)
+        TreeMap<Integer, String> map = new TreeMap<>();
+        fill(map);
+        return map;
+    }
+
+    void fill(TreeMap<Integer, String> map) {
+        for (int k : this.keys) {
+            map.putIfAbsent(k, value(k));
+        }
+    }
+}
@@ -0,0 +1,522 @@
+package wavl;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+/**
+ * ArenaTree
+ * <p>
+ * The shape of an arena tree: keys, links, ranks and subtree sizes as slots
+ * of parallel int arrays, with the same rebalancing (and the same rebalancing
+ * counts) as WAVLTree. One more array, indexed by slot too, holds the
+ * values: its element type is the subclass's choice (String[], int[],
+ * long[], double[]) and it is grown, copied and exported here, so a
+ * subclass only casts it to read and write single values. Slots released
+ * by delete() are recycled through a free list.
+ * <p>
+ * Rebalancing moves links, never items, so the slot an item was inserted
+ * into holds it until it is deleted (delete of an inner node moves the
+ * successor's item into the deleted slot).
+ */
+abstract class ArenaTree {
+    // slot 0 is the virtual node (key -1, rank -1, size 0), the same slot is
+    // used as the "null" parent of the root
+    static final int VIRTUAL = 0;
+    static final int DEFAULT_CAPACITY = 16;
+
+    int[] key;
+    int[] left;
+    int[] right;
+    int[] parent;
+    int[] rank;
+    int[] size;
+    // the value of each slot, an array of the value type
+    Object values;
+
+    int root = VIRTUAL;
+    int minimum = VIRTUAL;
+    // the slot of the last key insertKey added
+    int inserted = VIRTUAL;
+    // released slots, linked through right[]
+    private int free = VIRTUAL;
+    // slots handed out so far, the virtual one included
+    private int used = 1;
+
+    ArenaTree(int capacity, Class<?> valueType) {
+        int slots = Math.max(capacity, 1) + 1;
+        this.key = new int[slots];
+        this.left = new int[slots];
+        this.right = new int[slots];
+        this.parent = new int[slots];
+        this.rank = new int[slots];
+        this.size = new int[slots];
+        this.values = Array.newInstance(valueType, slots);
+        this.key[VIRTUAL] = -1;
+        this.rank[VIRTUAL] = -1;
+    }
+
+    // the length of every slot array
+    final int slots() {
+        return this.key.length;
+    }
+
+    /**
+     * public boolean empty()
+     * <p>
+     * returns true if and only if the tree is empty
+     */
+    public boolean empty() {
+        //O(1)
+        return this.root == VIRTUAL;
+    }
+
+    /**
+     * public boolean contains(int k)
+     * <p>
+     * returns true if and only if an item with key k is in the tree
+     */
+    public boolean contains(int k) {
+        //O(logn)
+        return find(k) != VIRTUAL;
+    }
+
+    /**
+     * public int size()
+     * <p>
+     * Returns the number of nodes in the tree.
+     */
+    public int size() {
+        return this.size[this.root];
+    }
+
+    // @post return the slot of k, the virtual slot if k is not in the tree
+    final int find(int k) {
+        //O(logn)
+        int temp = this.root;
+        while (temp != VIRTUAL) {
+            if (this.key[temp] == k) {
+                return temp;
+            }
+            if (this.key[temp] > k) {
+                temp = this.left[temp];
+            } else {
+                temp = this.right[temp];
+            }
+        }
+        return VIRTUAL;
+    }
+
+    // inserts k, the caller stores its value in slot inserted.
+    // @post return the number of rebalancing operations, -1 if k already exist
+    final int insertKey(int k) {
+        // O(logn) amortized, the arrays grow geometrically
+        if (this.empty()) {
+            this.root = allocate(k);
+            this.minimum = this.root;
+            this.inserted = this.root;
+            return 0;
+        }
+        int newParent = findInsertParent(k);
+        // if already exist
+        if (newParent == VIRTUAL) {
+            return -1;
+        }
+        int temp = allocate(k);
+        this.inserted = temp;
+        this.parent[temp] = newParent;
+        if (k < this.key[this.minimum]) {
+            this.minimum = temp;
+        }
+        boolean wasLeaf = isLeaf(newParent);
+        if (k > this.key[newParent]) {
+            this.right[newParent] = temp;
+        } else {
+            this.left[newParent] = temp;
+        }
+        for (int c = newParent; c != VIRTUAL; c = this.parent[c]) {
+            this.size[c]++;
+        }
+        // a unary parent becomes 1,1 and needs no balance
+        return wasLeaf ? balanceInsert(newParent, 0) : 0;
+    }
+
+    private int allocate(int k) {
+        int slot = this.free;
+        if (slot != VIRTUAL) {
+            this.free = this.right[slot];
+        } else {
+            if (this.used == this.key.length) {
+                grow();
+            }
+            slot = this.used++;
+        }
+        this.key[slot] = k;
+        this.left[slot] = VIRTUAL;
+        this.right[slot] = VIRTUAL;
+        this.parent[slot] = VIRTUAL;
+        this.rank[slot] = 0;
+        this.size[slot] = 1;
+        return slot;
+    }
+
+    private void release(int slot) {
+        if (this.values instanceof Object[]) {
+            // let the garbage collector have the value
+            ((Object[]) this.values)[slot] = null;
+        }
+        this.right[slot] = this.free;
+        this.free = slot;
+    }
+
+    private void grow() {
+        int length = this.key.length;
+        int slots = length + (length >> 1) + 1;
+        this.key = Arrays.copyOf(this.key, slots);
+        this.left = Arrays.copyOf(this.left, slots);
+        this.right = Arrays.copyOf(this.right, slots);
+        this.parent = Arrays.copyOf(this.parent, slots);
+        this.rank = Arrays.copyOf(this.rank, slots);
+        this.size = Arrays.copyOf(this.size, slots);
+        Object grown = Array.newInstance(this.values.getClass().getComponentType(), slots);
+        System.arraycopy(this.values, 0, grown, 0, length);
+        this.values = grown;
+    }
+
+    /*
+     * @pre x==left[y]||x==right[y]
+     */
+    private void rotate(int x, int y) {
+        //O(1)
+        int c;
+        int p = this.parent[y];
+        if (this.root == y) {
+            this.root = x;
+        } else if (this.right[p] == y) {
+            this.right[p] = x;
+        } else {
+            this.left[p] = x;
+        }
+        this.parent[x] = p;
+        this.parent[y] = x;
+
+        if (x == this.left[y]) {
+            c = this.left[x];
+            this.left[y] = this.right[x];
+            if (this.right[x] != VIRTUAL) {
+                this.parent[this.right[x]] = y;
+            }
+            this.right[x] = y;
+        } else {
+            c = this.right[x];
+            this.right[y] = this.left[x];
+            if (this.left[x] != VIRTUAL) {
+                this.parent[this.left[x]] = y;
+            }
+            this.left[x] = y;
+        }
+        this.size[y] = this.size[this.right[y]] + this.size[this.left[y]] + 1;
+        this.size[x] = this.size[y] + this.size[c] + 1;
+    }
+
+    private int balanceInsert(int node, int balancing) {
+        //w.c O(logn)
+        if (node == VIRTUAL) {
+            // we promoted root
+            return balancing;
+        }
+        int[] rank = this.rank;
+        int l = this.left[node];
+        int r = this.right[node];
+        if (rank[node] - rank[l] == 0) {
+            if (rank[node] - rank[r] == 1) {
+                // 0/1 need promote
+                rank[node]++;
+                return balanceInsert(this.parent[node], balancing) + 1;
+            }
+            // 0/2 node
+            if (rank[l] - rank[this.right[l]] == 2) {
+                // single rotation
+                rotate(l, node);
+                rank[node]--;
+                return balancing + 1;
+            }
+            // double rotation
+            int lr = this.right[l];
+            rank[lr]++;
+            rank[l]--;
+            rotate(lr, l);
+            rotate(lr, node);
+            rank[node]--;
+            return balancing + 2;
+        }
+        if (rank[node] - rank[r] == 0) {
+            if (rank[node] - rank[l] == 1) {
+                // 1/0 need promote
+                rank[node]++;
+                return balanceInsert(this.parent[node], balancing) + 1;
+            }
+            // 2/0 node
+            if (rank[r] - rank[this.left[r]] == 2) {
+                // single rotation
+                rotate(r, node);
+                rank[node]--;
+                return balancing + 1;
+            }
+            // double rotation
+            int rl = this.left[r];
+            rank[rl]++;
+            rank[r]--;
+            rotate(rl, r);
+            rotate(rl, node);
+            rank[node]--;
+            return balancing + 2;
+        }
+        return balancing;
+    }
+
+    private boolean isLeaf(int node) {
+        //O(1)
+        return this.left[node] == VIRTUAL && this.right[node] == VIRTUAL;
+    }
+
+    // @pre !this.empty()
+    // @post return new parent of k and the virtual slot if k already exist
+    private int findInsertParent(int k) {
+        //O(logn)
+        int temp = this.root;
+        while (true) {
+            if (k == this.key[temp]) {
+                return VIRTUAL;
+            }
+            int child = k > this.key[temp] ? this.right[temp] : this.left[temp];
+            if (child == VIRTUAL) {
+                return temp;
+            }
+            temp = child;
+        }
+    }
+
+    /**
+     * public int delete(int k)
+     * <p>
+     * deletes an item with key k from the binary tree, if it is there; the tree
+     * must remain valid (keep its invariants). returns the number of
+     * rebalancing operations, or 0 if no rebalancing operations were needed.
+     * returns -1 if an item with key k was not found in the tree.
+     */
+    public int delete(int k) {
+        //O(logn)
+        int deleteNode = find(k);
+        if (deleteNode == VIRTUAL) {
+            return -1;
+        }
+        if (this.minimum == deleteNode) {
+            // the minimum has no left child so it is never the binary case
+            // below, the successor slot stays where it is
+            this.minimum = this.size[this.root] == 1
+                    ? VIRTUAL : successor(deleteNode);
+        }
+        if (this.right[deleteNode] != VIRTUAL && this.left[deleteNode] != VIRTUAL) {
+            // inner node, move the successor's item here and unlink the
+            // successor's slot instead
+            int successor = successor(deleteNode);
+            this.key[deleteNode] = this.key[successor];
+            System.arraycopy(this.values, successor, this.values, deleteNode, 1);
+            deleteNode = successor;
+        }
+        return unlink(deleteNode);
+    }
+
+    // @pre node is a leaf or unary
+    private int unlink(int node) {
+        int p = this.parent[node];
+        int child = this.left[node] != VIRTUAL ? this.left[node] : this.right[node];
+        if (this.root == node) {
+            this.root = child;
+        } else if (this.right[p] == node) {
+            this.right[p] = child;
+        } else {
+            this.left[p] = child;
+        }
+        if (child != VIRTUAL) {
+            this.parent[child] = p;
+        }
+        for (int c = p; c != VIRTUAL; c = this.parent[c]) {
+            this.size[c]--;
+        }
+        release(node);
+        return balanceDelete(p, 0);
+    }
+
+    private int balanceDelete(int node, int balancing) {
+        //w.c O(logn)
+        if (node == VIRTUAL) {
+            // we demoted root
+            return balancing;
+        }
+        int[] rank = this.rank;
+        if (isLeaf(node)) {
+            if (rank[node] == 1) {
+                // 2,2 leaf need demote
+                rank[node]--;
+                balancing = balanceDelete(this.parent[node], balancing) + 1;
+            }
+        } else if (rank[node] - rank[this.left[node]] == 3) {
+            int r = this.right[node];
+            if (rank[node] - rank[r] == 2) {
+                // 3,2 node need demote
+                rank[node]--;
+                balancing = balanceDelete(this.parent[node], balancing) + 1;
+            } else if (rank[r] - rank[this.right[r]] == 2
+                    && rank[r] - rank[this.left[r]] == 2) {
+                // 3,1 node, double demote
+                rank[node]--;
+                rank[r]--;
+                balancing = balanceDelete(this.parent[node], balancing) + 2;
+            } else if (rank[r] - rank[this.right[r]] == 1) {
+                // rotate
+                rank[r]++;
+                rotate(r, node);
+                rank[node]--;
+                balancing += 1;
+                if (isLeaf(node) && rank[node] - rank[this.right[node]] == 2) {
+                    // 2,2 leaf after rotation
+                    rank[node]--;
+                    balancing += 1;
+                }
+            } else {
+                // double rotate
+                int rl = this.left[r];
+                rank[r]--;
+                rank[rl] += 2;
+                rotate(rl, r);
+                rotate(rl, node);
+                rank[node] -= 2;
+                balancing += 2;
+            }
+        }
+        if (rank[node] - rank[this.right[node]] == 3) {
+            int l = this.left[node];
+            if (rank[node] - rank[l] == 2) {
+                // 2,3 node demote
+                rank[node]--;
+                balancing = balanceDelete(this.parent[node], balancing) + 1;
+            } else if (rank[l] - rank[this.right[l]] == 2
+                    && rank[l] - rank[this.left[l]] == 2) {
+                // 1,3 node, double demote
+                rank[node]--;
+                rank[l]--;
+                balancing = balanceDelete(this.parent[node], balancing) + 2;
+            } else if (rank[l] - rank[this.left[l]] == 1) {
+                // rotate
+                rank[l]++;
+                rotate(l, node);
+                rank[node]--;
+                balancing += 1;
+                if (isLeaf(node) && rank[node] - rank[this.left[node]] == 2) {
+                    // 2,2 leaf after rotation
+                    rank[node]--;
+                    balancing += 1;
+                }
+            } else {
+                // double rotate
+                int lr = this.right[l];
+                rank[l]--;
+                rank[lr] += 2;
+                rotate(lr, l);
+                rotate(lr, node);
+                rank[node] -= 2;
+                balancing += 2;
+            }
+        }
+        return balancing;
+    }
+
+    // @post return successor, or the root if node is the maximum
+    final int successor(int node) {
+        //O(logn)
+        if (this.right[node] != VIRTUAL) {
+            node = this.right[node];
+            while (this.left[node] != VIRTUAL) {
+                node = this.left[node];
+            }
+            return node;
+        }
+        while (node != this.root) {
+            int p = this.parent[node];
+            if (this.left[p] == node) {
+                return p;
+            }
+            node = p;
+        }
+        return node;
+    }
+
+    // @post return the slot of the largest key, the virtual slot if empty
+    final int maxSlot() {
+        //O(logn)
+        int temp = this.root;
+        while (this.right[temp] != VIRTUAL) {
+            temp = this.right[temp];
+        }
+        return temp;
+    }
+
+    // @post return the slot of the i'th smallest key, the virtual slot if
+    // there is no such key
+    final int selectSlot(int i) {
+        //O(log i)
+        if (i < 1 || i > size()) {
+            return VIRTUAL;
+        }
+        // the minimum's ancestors are its left spine, the subtree of each
+        // holds exactly the ranks 1..size, climb to the first that holds i
+        int temp = this.minimum;
+        while (this.size[temp] < i && temp != this.root) {
+            temp = this.parent[temp];
+        }
+        while (true) {
+            int before = this.size[this.left[temp]] + 1;
+            if (before == i) {
+                return temp;
+            }
+            if (before > i) {
+                temp = this.left[temp];
+            } else {
+                i -= before;
+                temp = this.right[temp];
+            }
+        }
+    }
+
+    /**
+     * public int[] keysToArray()
+     * <p>
+     * Returns a sorted array which contains all keys in the tree, or an empty
+     * array if the tree is empty.
+     */
+    public int[] keysToArray() {
+        //O(n), every edge is walked at most twice
+        int[] arr = new int[size()];
+        int temp = this.minimum;
+        for (int i = 0; i < arr.length; i++) {
+            arr[i] = this.key[temp];
+            temp = successor(temp);
+        }
+        return arr;
+    }
+
+    // @post return a new array of the values sorted by key, of the same
+    // type as values
+    final Object valuesToArray() {
+        //O(n)
+        int n = size();
+        Object arr = Array.newInstance(this.values.getClass().getComponentType(), n);
+        int temp = this.minimum;
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(this.values, temp, arr, i, 1);
+            temp = successor(temp);
+        }
+        return arr;
+    }
+}
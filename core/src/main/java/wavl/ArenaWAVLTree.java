@@ -0,0 +1,157 @@
+package wavl;
+
+/**
+ * ArenaWAVLTree
+ * <p>
+ * The same WAVL tree as WAVLTree (same public API, same rebalancing and the
+ * same rebalancing counts) with the nodes stored as slots of parallel
+ * primitive arrays instead of one WAVLNode object per key. A tree of n keys
+ * is seven arrays instead of n objects, so the GC has almost nothing to
+ * trace. Slots released by delete() are recycled through a free list.
+ * <p>
+ * getRoot() and the IWAVLNode children are flyweights, a slot number and a
+ * reference to the tree. They are only valid until the next insert/delete.
+ */
+public class ArenaWAVLTree extends ArenaTree {
+    public ArenaWAVLTree() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * public ArenaWAVLTree(int capacity)
+     * <p>
+     * creates an empty tree that can hold capacity keys before it has to grow
+     * its arrays
+     */
+    public ArenaWAVLTree(int capacity) {
+        super(capacity, String.class);
+    }
+
+    // the virtual slot holds null
+    private String value(int slot) {
+        return ((String[]) this.values)[slot];
+    }
+
+    /**
+     * public String search(int k)
+     * <p>
+     * returns the info of an item with key k if it exists in the tree
+     * otherwise, returns null
+     */
+    public String search(int k) {
+        //O(logn)
+        return value(find(k));
+    }
+
+    /**
+     * public int insert(int k, String i)
+     * <p>
+     * inserts an item with key k and info i to the WAVL tree. the tree must
+     * remain valid (keep its invariants). returns the number of rebalancing
+     * operations, or 0 if no rebalancing operations were necessary. returns -1
+     * if an item with key k already exists in the tree.
+     */
+    public int insert(int k, String i) {
+        // O(logn) amortized, the arrays grow geometrically
+        int balancing = insertKey(k);
+        if (balancing != -1) {
+            ((String[]) this.values)[this.inserted] = i;
+        }
+        return balancing;
+    }
+
+    /**
+     * public String min()
+     * <p>
+     * Returns the info of the item with the smallest key in the tree, or null
+     * if the tree is empty
+     */
+    public String min() {
+        //O(1)
+        return value(this.minimum);
+    }
+
+    /**
+     * public String max()
+     * <p>
+     * Returns the info of the item with the largest key in the tree, or null if
+     * the tree is empty
+     */
+    public String max() {
+        //O(logn)
+        return value(maxSlot());
+    }
+
+    /**
+     * public String[] infoToArray()
+     * <p>
+     * Returns an array which contains all info in the tree, sorted by their
+     * respective keys, or an empty array if the tree is empty.
+     */
+    public String[] infoToArray() {
+        //O(n)
+        return (String[]) valuesToArray();
+    }
+
+    /**
+     * public IWAVLNode getRoot()
+     * <p>
+     * Returns a flyweight view of the root, or null if the tree is empty
+     */
+    public WAVLTree.IWAVLNode getRoot() {
+        if (this.empty()) {
+            return null;
+        }
+        return new ArenaNode(this.root);
+    }
+
+    /**
+     * public String select(int i)
+     * <p>
+     * Returns the value of the i'th smallest key (null if tree is empty)
+     * <p>
+     * precondition: size() >= i > 0 postcondition: none
+     */
+    public String select(int i) {
+        //O(log i)
+        return value(selectSlot(i));
+    }
+
+    /**
+     * public class ArenaNode
+     * <p>
+     * an IWAVLNode view of one slot. the virtual slot reads as the virtual
+     * node of WAVLTree: key -1, null value, not real, size 0.
+     */
+    public class ArenaNode implements WAVLTree.IWAVLNode {
+        private final int slot;
+
+        private ArenaNode(int slot) {
+            this.slot = slot;
+        }
+
+        public int getKey() {
+            return key[this.slot];
+        }
+
+        public String getValue() {
+            return value(this.slot);
+        }
+
+        public WAVLTree.IWAVLNode getLeft() {
+            return this.slot == VIRTUAL ? null : new ArenaNode(left[this.slot]);
+        }
+
+        public WAVLTree.IWAVLNode getRight() {
+            return this.slot == VIRTUAL ? null : new ArenaNode(right[this.slot]);
+        }
+
+        public boolean isRealNode() {
+            return this.slot != VIRTUAL;
+        }
+
+        public int getSubtreeSize() {
+            return size[this.slot];
+        }
+    }
+}
@@ -0,0 +1,437 @@
+package wavl;
+
+import java.util.ConcurrentModificationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * ConcurrentWAVLTree
+ * <p>
+ * A thread-safe WAVLTree for read-heavy use. insert and delete (and the
+ * rotations they run) hold the write lock of a StampedLock. search, select,
+ * min, max, size, empty, rank and countRange first run as optimistic reads
+ * of the live tree that are validated afterwards, so readers never block
+ * each other or a writer. A read that overlapped a write is retried, after
+ * OPTIMISTIC_TRIES failed tries it takes the read lock.
+ * <p>
+ * setRelaxed(true, periodMillis) takes rebalancing off the write path: the
+ * tree is put in relaxed mode and a daemon thread rebalances it every
+ * periodMillis, REBALANCE_SLICE nodes per write lock hold, so a writer
+ * waits for at most one slice.
+ * <p>
+ * The wrapped tree must not be used directly once it is handed over.
+ */
+public class ConcurrentWAVLTree {
+    private static final int OPTIMISTIC_TRIES = 3;
+    // a WAVL tree is at most 2log(n) high, a longer walk can only be
+    // following links a writer is changing under it
+    private static final int MAX_PATH = 2 * Integer.SIZE;
+    // nodes the background rebalancer repairs per hold of the write lock
+    private static final int REBALANCE_SLICE = 1 << 8;
+
+    private final WAVLTree tree;
+    private final StampedLock lock = new StampedLock();
+    // a relaxed tree can be taller than MAX_PATH, walks are then bounded by
+    // its size instead
+    private volatile boolean relaxed;
+    private ScheduledExecutorService rebalancer;
+
+    public ConcurrentWAVLTree() {
+        this(new WAVLTree());
+    }
+
+    /**
+     * public ConcurrentWAVLTree(WAVLTree tree)
+     * <p>
+     * wraps tree, which must not be used directly afterwards
+     */
+    public ConcurrentWAVLTree(WAVLTree tree) {
+        this.tree = tree;
+    }
+
+    /**
+     * public boolean empty()
+     * <p>
+     * returns true if and only if the tree is empty
+     */
+    public boolean empty() {
+        //O(1)
+        return size() == 0;
+    }
+
+    /**
+     * public String search(int k)
+     * <p>
+     * returns the info of an item with key k if it exists in the tree
+     * otherwise, returns null
+     */
+    public String search(int k) {
+        //O(logn)
+        return read(this::searchWalk, k);
+    }
+
+    /**
+     * public int insert(int k, String i)
+     * <p>
+     * WAVLTree.insert under the write lock
+     */
+    public int insert(int k, String i) {
+        //O(logn)
+        long stamp = this.lock.writeLock();
+        try {
+            return this.tree.insert(k, i);
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * public int delete(int k)
+     * <p>
+     * WAVLTree.delete under the write lock
+     */
+    public int delete(int k) {
+        //O(logn)
+        long stamp = this.lock.writeLock();
+        try {
+            return this.tree.delete(k);
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * public int insertAll(int[] keys, String[] values)
+     * <p>
+     * WAVLTree.insertAll under the write lock, readers see all of the batch
+     * or none of it
+     */
+    public int insertAll(int[] keys, String[] values) {
+        long stamp = this.lock.writeLock();
+        try {
+            return this.tree.insertAll(keys, values);
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * public int deleteAll(int[] keys)
+     * <p>
+     * WAVLTree.deleteAll under the write lock
+     */
+    public int deleteAll(int[] keys) {
+        long stamp = this.lock.writeLock();
+        try {
+            return this.tree.deleteAll(keys);
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * public String pollMin()
+     * <p>
+     * WAVLTree.pollMin under the write lock
+     */
+    public String pollMin() {
+        long stamp = this.lock.writeLock();
+        try {
+            return this.tree.pollMin();
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * public String pollMax()
+     * <p>
+     * WAVLTree.pollMax under the write lock
+     */
+    public String pollMax() {
+        long stamp = this.lock.writeLock();
+        try {
+            return this.tree.pollMax();
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * public void setRelaxed(boolean relaxed, long periodMillis)
+     * <p>
+     * WAVLTree.setRelaxed under the write lock. relaxed starts a daemon
+     * thread that rebalances every periodMillis, in slices, until it is
+     * switched off. switching off stops it and rebalances the rest.
+     */
+    public synchronized void setRelaxed(boolean relaxed, long periodMillis) {
+        if (relaxed && periodMillis < 1) {
+            throw new IllegalArgumentException("periodMillis must be positive, got " + periodMillis);
+        }
+        if (this.rebalancer != null) {
+            this.rebalancer.shutdown();
+            this.rebalancer = null;
+        }
+        long stamp = this.lock.writeLock();
+        try {
+            this.tree.setRelaxed(relaxed);
+            this.relaxed = relaxed;
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+        if (relaxed) {
+            this.rebalancer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "wavl-rebalancer");
+                t.setDaemon(true);
+                return t;
+            });
+            this.rebalancer.scheduleWithFixedDelay(this::rebalanceSlices, periodMillis,
+                    periodMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * public int rebalance()
+     * <p>
+     * WAVLTree.rebalance under the write lock
+     */
+    public int rebalance() {
+        long stamp = this.lock.writeLock();
+        try {
+            return this.tree.rebalance();
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    // rebalancer task: slices until nothing is left, letting writers in
+    // between slices
+    private void rebalanceSlices() {
+        boolean more = true;
+        while (more) {
+            long stamp = this.lock.writeLock();
+            try {
+                this.tree.rebalance(REBALANCE_SLICE);
+                more = this.tree.needsRebalance();
+            } finally {
+                this.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * public String min()
+     * <p>
+     * Returns the info of the item with the smallest key in the tree, or null
+     * if the tree is empty
+     */
+    public String min() {
+        //O(1)
+        return read(k -> this.tree.min(), 0);
+    }
+
+    /**
+     * public String max()
+     * <p>
+     * Returns the info of the item with the largest key in the tree, or null
+     * if the tree is empty
+     */
+    public String max() {
+        //O(1)
+        return read(k -> this.tree.max(), 0);
+    }
+
+    /**
+     * public int size()
+     * <p>
+     * Returns the number of nodes in the tree.
+     */
+    public int size() {
+        //O(1)
+        return readInt(k -> this.tree.size(), 0);
+    }
+
+    /**
+     * public String select(int i)
+     * <p>
+     * Returns the value of the i'th smallest key, or null if there is no
+     * such key
+     */
+    public String select(int i) {
+        //O(logn)
+        return read(this::selectWalk, i);
+    }
+
+    /**
+     * public int rank(int k)
+     * <p>
+     * Returns the number of keys in the tree smaller than or equal to k
+     */
+    public int rank(int k) {
+        //O(logn)
+        return readInt(this::rankWalk, k);
+    }
+
+    /**
+     * public int countRange(int lo, int hi)
+     * <p>
+     * Returns the number of keys k in the tree with lo <= k <= hi
+     */
+    public int countRange(int lo, int hi) {
+        //O(logn)
+        if (lo > hi) {
+            return 0;
+        }
+        return readInt(unused -> rankWalk(hi)
+                - (lo == Integer.MIN_VALUE ? 0 : rankWalk(lo - 1)), 0);
+    }
+
+    /**
+     * public int[] keysToArray()
+     * <p>
+     * WAVLTree.keysToArray under the read lock
+     */
+    public int[] keysToArray() {
+        //O(n)
+        long stamp = this.lock.readLock();
+        try {
+            return this.tree.keysToArray();
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * public String[] infoToArray()
+     * <p>
+     * WAVLTree.infoToArray under the read lock
+     */
+    public String[] infoToArray() {
+        //O(n)
+        long stamp = this.lock.readLock();
+        try {
+            return this.tree.infoToArray();
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    // run walk optimistically, under the read lock if it keeps overlapping
+    // writes. walk must only read, and must give up (return anything or
+    // throw) on a link that leads nowhere or a path longer than MAX_PATH
+    private <T> T read(IntFunction<T> walk, int arg) {
+        long stamp = this.lock.tryOptimisticRead();
+        for (int tries = 0; tries < OPTIMISTIC_TRIES; tries++) {
+            if (stamp != 0) {
+                try {
+                    T result = walk.apply(arg);
+                    if (this.lock.validate(stamp)) {
+                        return result;
+                    }
+                } catch (RuntimeException e) {
+                    failedRead(stamp, e);
+                }
+            }
+            stamp = this.lock.tryOptimisticRead();
+        }
+        stamp = this.lock.readLock();
+        try {
+            return walk.apply(arg);
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    // read for int results, without boxing
+    private int readInt(IntUnaryOperator walk, int arg) {
+        long stamp = this.lock.tryOptimisticRead();
+        for (int tries = 0; tries < OPTIMISTIC_TRIES; tries++) {
+            if (stamp != 0) {
+                try {
+                    int result = walk.applyAsInt(arg);
+                    if (this.lock.validate(stamp)) {
+                        return result;
+                    }
+                } catch (RuntimeException e) {
+                    failedRead(stamp, e);
+                }
+            }
+            stamp = this.lock.tryOptimisticRead();
+        }
+        stamp = this.lock.readLock();
+        try {
+            return walk.applyAsInt(arg);
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    // an optimistic walk threw: expected if a writer got in, a bug otherwise
+    private void failedRead(long stamp, RuntimeException e) {
+        if (this.lock.validate(stamp)) {
+            throw e;
+        }
+    }
+
+    // the walks below only go through IWAVLNode, a racing writer can show
+    // them half-linked nodes (null children) or, without the bound, cycles
+
+    private String searchWalk(int k) {
+        WAVLTree.IWAVLNode temp = this.tree.getRoot();
+        for (int steps = 0; temp != null && temp.isRealNode(); steps++) {
+            checkPath(steps);
+            if (temp.getKey() == k) {
+                return temp.getValue();
+            }
+            temp = temp.getKey() > k ? temp.getLeft() : temp.getRight();
+        }
+        return null;
+    }
+
+    private String selectWalk(int i) {
+        WAVLTree.IWAVLNode temp = this.tree.getRoot();
+        for (int steps = 0; temp != null && temp.isRealNode(); steps++) {
+            checkPath(steps);
+            WAVLTree.IWAVLNode left = temp.getLeft();
+            int before = (left == null ? 0 : left.getSubtreeSize()) + 1;
+            if (before == i) {
+                return temp.getValue();
+            }
+            if (before > i) {
+                temp = left;
+            } else {
+                i -= before;
+                temp = temp.getRight();
+            }
+        }
+        return null;
+    }
+
+    private int rankWalk(int k) {
+        int count = 0;
+        WAVLTree.IWAVLNode temp = this.tree.getRoot();
+        for (int steps = 0; temp != null && temp.isRealNode(); steps++) {
+            checkPath(steps);
+            if (temp.getKey() <= k) {
+                WAVLTree.IWAVLNode left = temp.getLeft();
+                count += (left == null ? 0 : left.getSubtreeSize()) + 1;
+                temp = temp.getRight();
+            } else {
+                temp = temp.getLeft();
+            }
+        }
+        return count;
+    }
+
+    private void checkPath(int steps) {
+        // the size read may be torn by a writer too, any value still ends
+        // the walk
+        if (steps > MAX_PATH && (!this.relaxed || steps > MAX_PATH + this.tree.size())) {
+            throw new ConcurrentModificationException("tree changed under an optimistic read");
+        }
+    }
+}
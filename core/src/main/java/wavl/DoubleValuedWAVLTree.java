@@ -0,0 +1,107 @@
+package wavl;
+
+/**
+ * DoubleValuedWAVLTree
+ * <p>
+ * An arena tree from int keys to double values, for measurements, prices
+ * and weights kept in key order. The values are a double[] indexed by slot,
+ * so infoToArray() hands back a double[] ready for the numeric code that
+ * consumes it, with nothing to unbox.
+ * <p>
+ * The reads that may find nothing take the double to return instead
+ * (missing). Double.NaN works when NaN is never stored, but test the
+ * result with Double.isNaN, NaN == NaN is false. Stored NaNs and signed
+ * zeros come back bit for bit.
+ */
+public class DoubleValuedWAVLTree extends ArenaTree {
+
+    public DoubleValuedWAVLTree() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * public DoubleValuedWAVLTree(int capacity)
+     * <p>
+     * creates an empty tree that can hold capacity keys before it has to grow
+     * its arrays
+     */
+    public DoubleValuedWAVLTree(int capacity) {
+        super(capacity, double.class);
+    }
+
+    // @post return the value of slot, missing for the virtual slot
+    private double value(int slot, double missing) {
+        return slot == VIRTUAL ? missing : ((double[]) this.values)[slot];
+    }
+
+    /**
+     * public double search(int k, double missing)
+     * <p>
+     * returns the value of the item with key k if it exists in the tree,
+     * otherwise returns missing
+     */
+    public double search(int k, double missing) {
+        //O(logn)
+        return value(find(k), missing);
+    }
+
+    /**
+     * public int insert(int k, double i)
+     * <p>
+     * inserts an item with key k and value i. returns the number of
+     * rebalancing operations, or -1 if an item with key k already exists in
+     * the tree, whose value is then left as it was.
+     */
+    public int insert(int k, double i) {
+        // O(logn) amortized, the arrays grow geometrically
+        int balancing = insertKey(k);
+        if (balancing != -1) {
+            ((double[]) this.values)[this.inserted] = i;
+        }
+        return balancing;
+    }
+
+    /**
+     * public double min(double missing)
+     * <p>
+     * Returns the value of the item with the smallest key, or missing if the
+     * tree is empty
+     */
+    public double min(double missing) {
+        //O(1)
+        return value(this.minimum, missing);
+    }
+
+    /**
+     * public double max(double missing)
+     * <p>
+     * Returns the value of the item with the largest key, or missing if the
+     * tree is empty
+     */
+    public double max(double missing) {
+        //O(logn)
+        return value(maxSlot(), missing);
+    }
+
+    /**
+     * public double select(int i, double missing)
+     * <p>
+     * Returns the value of the i'th smallest key, or missing if i is not in
+     * 1..size()
+     */
+    public double select(int i, double missing) {
+        //O(log i)
+        return value(selectSlot(i), missing);
+    }
+
+    /**
+     * public double[] infoToArray()
+     * <p>
+     * Returns the values sorted by their keys, or an empty array if the tree
+     * is empty.
+     */
+    public double[] infoToArray() {
+        //O(n)
+        return (double[]) valuesToArray();
+    }
+}
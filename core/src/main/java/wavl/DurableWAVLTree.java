@@ -0,0 +1,476 @@
+package wavl;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * DurableWAVLTree
+ * <p>
+ * A thread-safe WAVLTree that survives a crash. Every insert and delete
+ * that changes the tree is appended to a write-ahead log in a directory.
+ * Log records are committed (written and forced to disk) in groups: when
+ * groupSize records are pending, when the oldest pending record is
+ * groupMillis old, or on commit() and close(). A mutation is durable once
+ * its group commits. A crash loses at most the last uncommitted group.
+ * <p>
+ * Every checkpointMillis the whole tree is saved (WAVLTree.save, with
+ * ranks) and the log is truncated. open() recovers by loading the last
+ * checkpoint and replaying the log on top of it. The replay stops at the
+ * first torn or corrupt record. Replaying records a checkpoint already
+ * holds does not change the result, so a crash between the checkpoint and
+ * the truncate is safe.
+ * <p>
+ * A checkpoint holds the tree lock while it saves, so writers wait O(n)
+ * once per checkpoint. Commits force the log outside the tree lock.
+ */
+public class DurableWAVLTree implements Closeable {
+    private static final String CHECKPOINT = "checkpoint.wavl";
+    private static final String LOG = "wal.log";
+    private static final byte INSERT = 1;
+    private static final byte DELETE = 2;
+
+    private final WAVLTree tree;
+    private final Path dir;
+    private final FileChannel log;
+    private final int groupSize;
+    private final long groupNanos;
+    private final ScheduledExecutorService timer;
+    // orders commits and checkpoints, taken before the tree lock
+    private final Object commitLock = new Object();
+
+    // the records of the open group, guarded by this
+    private ByteBuffer pending = ByteBuffer.allocate(1 << 12);
+    private int pendingCount;
+    private long pendingSince;
+    private final CRC32 crc = new CRC32();
+    // the first commit that failed in the background, reported to writers
+    private volatile IOException failure;
+    private boolean closed;
+
+    private DurableWAVLTree(WAVLTree tree, Path dir, FileChannel log, int groupSize,
+            long groupMillis, long checkpointMillis) {
+        this.tree = tree;
+        this.dir = dir;
+        this.log = log;
+        this.groupSize = groupSize;
+        this.groupNanos = TimeUnit.MILLISECONDS.toNanos(groupMillis);
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "wavl-wal");
+            t.setDaemon(true);
+            return t;
+        });
+        this.timer.scheduleWithFixedDelay(this::commitIfDue, groupMillis, groupMillis,
+                TimeUnit.MILLISECONDS);
+        if (checkpointMillis > 0) {
+            this.timer.scheduleWithFixedDelay(this::checkpointQuietly, checkpointMillis,
+                    checkpointMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * public static DurableWAVLTree open(Path dir, int groupSize, long groupMillis,
+     * long checkpointMillis)
+     * <p>
+     * opens the tree kept in dir, creating dir if needed, and recovers it
+     * from the last checkpoint and the log. groupSize and groupMillis bound
+     * a commit group. checkpointMillis is the time between checkpoints, 0
+     * for checkpoints only on checkpoint().
+     */
+    public static DurableWAVLTree open(Path dir, int groupSize, long groupMillis,
+            long checkpointMillis) throws IOException {
+        //O(n) for the checkpoint, O(logn) per replayed record
+        if (groupSize < 1 || groupMillis < 1 || checkpointMillis < 0) {
+            throw new IllegalArgumentException("groupSize and groupMillis must be positive"
+                    + " and checkpointMillis not negative");
+        }
+        Files.createDirectories(dir);
+        Path checkpoint = dir.resolve(CHECKPOINT);
+        WAVLTree tree = Files.exists(checkpoint) ? WAVLTree.load(checkpoint) : new WAVLTree();
+        Path logFile = dir.resolve(LOG);
+        FileChannel log = FileChannel.open(logFile, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long good = replay(logFile, tree);
+            // drop a torn tail so new records follow the last good one
+            log.truncate(good);
+            log.position(good);
+            log.force(true);
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+        return new DurableWAVLTree(tree, dir, log, groupSize, groupMillis, checkpointMillis);
+    }
+
+    // apply the log to tree up to its first bad record
+    // @post return the length of the good part of the log
+    private static long replay(Path logFile, WAVLTree tree) throws IOException {
+        long good = 0;
+        long length = Files.size(logFile);
+        CRC32 crc = new CRC32();
+        ByteBuffer record = ByteBuffer.allocate(64);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(logFile), 1 << 16))) {
+            while (true) {
+                record.clear();
+                byte op;
+                try {
+                    op = in.readByte();
+                } catch (EOFException e) {
+                    return good;
+                }
+                try {
+                    int key = in.readInt();
+                    record.put(op).putInt(key);
+                    String value = null;
+                    if (op == INSERT) {
+                        int bytesLength = in.readInt();
+                        record.putInt(bytesLength);
+                        // a torn length could ask for more than the file holds
+                        if (bytesLength < -1 || bytesLength > length - good) {
+                            return good;
+                        }
+                        if (bytesLength >= 0) {
+                            byte[] bytes = new byte[bytesLength];
+                            in.readFully(bytes);
+                            record = ensure(record, bytesLength);
+                            record.put(bytes);
+                            value = new String(bytes, StandardCharsets.UTF_8);
+                        }
+                    } else if (op != DELETE) {
+                        return good;
+                    }
+                    int sum = in.readInt();
+                    crc.reset();
+                    crc.update(record.array(), 0, record.position());
+                    if ((int) crc.getValue() != sum) {
+                        return good;
+                    }
+                    if (op == INSERT) {
+                        tree.insert(key, value);
+                    } else {
+                        tree.delete(key);
+                    }
+                    good += record.position() + Integer.BYTES;
+                } catch (EOFException e) {
+                    return good;
+                }
+            }
+        }
+    }
+
+    private static ByteBuffer ensure(ByteBuffer buffer, int more) {
+        if (buffer.remaining() >= more) {
+            return buffer;
+        }
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(2 * buffer.capacity(),
+                buffer.position() + more));
+        buffer.flip();
+        return bigger.put(buffer);
+    }
+
+    /**
+     * public int insert(int k, String i)
+     * <p>
+     * WAVLTree.insert, logged if it inserted. throws UncheckedIOException if
+     * the log cannot be written.
+     */
+    public int insert(int k, String i) {
+        //O(logn), plus a commit every groupSize records
+        byte[] bytes = i == null ? null : i.getBytes(StandardCharsets.UTF_8);
+        boolean full;
+        int result;
+        synchronized (this) {
+            checkOpen();
+            result = this.tree.insert(k, i);
+            if (result == -1) {
+                return result;
+            }
+            int start = startRecord(INSERT, k, 4 + (bytes == null ? 0 : bytes.length));
+            this.pending.putInt(bytes == null ? -1 : bytes.length);
+            if (bytes != null) {
+                this.pending.put(bytes);
+            }
+            full = endRecord(start);
+        }
+        if (full) {
+            commitUnchecked();
+        }
+        return result;
+    }
+
+    /**
+     * public int delete(int k)
+     * <p>
+     * WAVLTree.delete, logged if it deleted. throws UncheckedIOException if
+     * the log cannot be written.
+     */
+    public int delete(int k) {
+        //O(logn), plus a commit every groupSize records
+        boolean full;
+        int result;
+        synchronized (this) {
+            checkOpen();
+            result = this.tree.delete(k);
+            if (result == -1) {
+                return result;
+            }
+            full = endRecord(startRecord(DELETE, k, 0));
+        }
+        if (full) {
+            commitUnchecked();
+        }
+        return result;
+    }
+
+    // @pre holds this
+    // @post return the offset of a new record in pending, op and key written
+    private int startRecord(byte op, int k, int extra) {
+        this.pending = ensure(this.pending, 1 + 4 + extra + 4);
+        int start = this.pending.position();
+        this.pending.put(op).putInt(k);
+        return start;
+    }
+
+    // @pre holds this
+    // @post return true if the group is full
+    private boolean endRecord(int start) {
+        this.crc.reset();
+        this.crc.update(this.pending.array(), start, this.pending.position() - start);
+        this.pending.putInt((int) this.crc.getValue());
+        if (this.pendingCount++ == 0) {
+            this.pendingSince = System.nanoTime();
+        }
+        return this.pendingCount >= this.groupSize;
+    }
+
+    private void checkOpen() {
+        if (this.closed) {
+            throw new IllegalStateException("closed");
+        }
+        if (this.failure != null) {
+            throw new UncheckedIOException("write-ahead log failed", this.failure);
+        }
+    }
+
+    /**
+     * public void commit()
+     * <p>
+     * writes and forces every pending record, all mutations so far are
+     * durable when it returns
+     */
+    public void commit() throws IOException {
+        synchronized (this.commitLock) {
+            ByteBuffer group;
+            synchronized (this) {
+                if (this.pendingCount == 0) {
+                    return;
+                }
+                group = this.pending;
+                group.flip();
+                this.pending = ByteBuffer.allocate(group.capacity());
+                this.pendingCount = 0;
+            }
+            try {
+                while (group.hasRemaining()) {
+                    this.log.write(group);
+                }
+                this.log.force(false);
+            } catch (IOException e) {
+                this.failure = e;
+                throw e;
+            }
+        }
+    }
+
+    private void commitUnchecked() {
+        try {
+            commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // timer task: commit a group that has waited groupMillis
+    private void commitIfDue() {
+        boolean due;
+        synchronized (this) {
+            due = this.pendingCount > 0 && System.nanoTime() - this.pendingSince >= this.groupNanos;
+        }
+        if (due) {
+            try {
+                commit();
+            } catch (IOException e) {
+                // kept in failure for the next writer
+            }
+        }
+    }
+
+    /**
+     * public void checkpoint()
+     * <p>
+     * saves the whole tree and empties the log. writers wait while the tree
+     * is saved.
+     */
+    public void checkpoint() throws IOException {
+        //O(n)
+        synchronized (this.commitLock) {
+            commit();
+            Path target = this.dir.resolve(CHECKPOINT);
+            Path temp = this.dir.resolve(CHECKPOINT + ".tmp");
+            synchronized (this) {
+                this.tree.save(temp);
+                try (FileChannel file = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    file.force(true);
+                }
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                forceDirectory(this.dir);
+                // the checkpoint holds every record so far, pending ones too
+                this.pending.clear();
+                this.pendingCount = 0;
+                this.log.truncate(0);
+                this.log.position(0);
+                this.log.force(true);
+            }
+        }
+    }
+
+    // makes the rename durable. not every platform can open a directory,
+    // those that cannot order it with the file data themselves
+    private static void forceDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // nothing more to do
+        }
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (IOException e) {
+            this.failure = e;
+        }
+    }
+
+    /**
+     * public void close()
+     * <p>
+     * stops new writes, commits the pending records and closes the log.
+     * closing again does nothing
+     */
+    @Override
+    public void close() throws IOException {
+        // closed first, so no writer can add a record after the last commit
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+        }
+        // not shutdownNow, an interrupt closes the log under a running commit
+        this.timer.shutdown();
+        try {
+            this.timer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            commit();
+        } finally {
+            // under commitLock, so a writer's own commit of a full group
+            // finishes first. later ones find nothing pending
+            synchronized (this.commitLock) {
+                this.log.close();
+            }
+        }
+    }
+
+    /**
+     * public String search(int k)
+     * <p>
+     * WAVLTree.search
+     */
+    public synchronized String search(int k) {
+        return this.tree.search(k);
+    }
+
+    /**
+     * public String min()
+     * <p>
+     * WAVLTree.min
+     */
+    public synchronized String min() {
+        return this.tree.min();
+    }
+
+    /**
+     * public String max()
+     * <p>
+     * WAVLTree.max
+     */
+    public synchronized String max() {
+        return this.tree.max();
+    }
+
+    /**
+     * public String select(int i)
+     * <p>
+     * WAVLTree.select
+     */
+    public synchronized String select(int i) {
+        return this.tree.select(i);
+    }
+
+    /**
+     * public int size()
+     * <p>
+     * WAVLTree.size
+     */
+    public synchronized int size() {
+        return this.tree.size();
+    }
+
+    /**
+     * public boolean empty()
+     * <p>
+     * WAVLTree.empty
+     */
+    public synchronized boolean empty() {
+        return this.tree.empty();
+    }
+
+    /**
+     * public int[] keysToArray()
+     * <p>
+     * WAVLTree.keysToArray
+     */
+    public synchronized int[] keysToArray() {
+        return this.tree.keysToArray();
+    }
+
+    /**
+     * public String[] infoToArray()
+     * <p>
+     * WAVLTree.infoToArray
+     */
+    public synchronized String[] infoToArray() {
+        return this.tree.infoToArray();
+    }
+}
@@ -0,0 +1,223 @@
+package wavl;
+
+/**
+ * FrozenWAVLIndex
+ * <p>
+ * An immutable copy of a WAVLTree for read-only phases, made by
+ * WAVLTree.freeze(). The keys are packed into one int[] in Eytzinger
+ * (breadth first) order: the children of slot j are slots 2j and 2j+1, so
+ * a search reads one array and the first levels, which every search
+ * visits, share a few cache lines. There are no nodes to chase, and the
+ * search loop has no data dependent branch: every step goes down one level
+ * whatever the comparison says, and the slot it ends on is worked out from
+ * the bits of the path afterwards.
+ * <p>
+ * The values sit in a parallel array. Each slot also keeps the rank of its
+ * key and a second array maps a rank back to its slot, for rank, select
+ * and countRange in O(logn) and O(1).
+ * <p>
+ * thaw() rebuilds a mutable WAVLTree in linear time.
+ */
+public final class FrozenWAVLIndex {
+    // the largest size whose last slot (2n + 1 on the way down) is an int
+    private static final int MAX_SIZE = (Integer.MAX_VALUE - 1) / 2;
+
+    private final int size;
+    // keys[j] is the key of slot j, 1 <= j <= size, keys[0] is unused
+    private final int[] keys;
+    // values[j] is the info of keys[j]
+    private final String[] values;
+    // ranks[j] is the rank of keys[j], from 1 to size
+    private final int[] ranks;
+    // slots[r - 1] is the slot of the key of rank r
+    private final int[] slots;
+
+    // @pre sortedKeys is strictly increasing and as long as sortedValues
+    FrozenWAVLIndex(int[] sortedKeys, String[] sortedValues) {
+        //O(n)
+        if (sortedKeys.length > MAX_SIZE) {
+            throw new IllegalArgumentException("too many keys to freeze: " + sortedKeys.length);
+        }
+        this.size = sortedKeys.length;
+        this.keys = new int[this.size + 1];
+        this.values = new String[this.size + 1];
+        this.ranks = new int[this.size + 1];
+        this.slots = new int[this.size];
+        fill(sortedKeys, sortedValues, 1, 0);
+    }
+
+    // fills the subtree of slot j in key order starting from sorted index
+    // next, returns the sorted index after it. the recursion is as deep as
+    // the implicit tree, at most 31 levels
+    private int fill(int[] sortedKeys, String[] sortedValues, int j, int next) {
+        if (j > this.size) {
+            return next;
+        }
+        next = fill(sortedKeys, sortedValues, 2 * j, next);
+        this.keys[j] = sortedKeys[next];
+        this.values[j] = sortedValues[next];
+        this.ranks[j] = next + 1;
+        this.slots[next] = j;
+        return fill(sortedKeys, sortedValues, 2 * j + 1, next + 1);
+    }
+
+    // the slot of the smallest key >= k (> k if above), 0 if there is none
+    private int lowerBound(int k, boolean above) {
+        //O(logn)
+        int[] keys = this.keys;
+        int n = this.size;
+        int j = 1;
+        if (above) {
+            while (j <= n) {
+                // a conditional move, not a jump
+                j = 2 * j + (keys[j] <= k ? 1 : 0);
+            }
+        } else {
+            while (j <= n) {
+                j = 2 * j + (keys[j] < k ? 1 : 0);
+            }
+        }
+        // j went right after the last slot whose key it stopped at, then
+        // left to the bottom: drop those left turns and that right turn
+        return j >>> (Integer.numberOfTrailingZeros(~j) + 1);
+    }
+
+    /**
+     * public boolean empty()
+     * <p>
+     * returns true if and only if the index is empty
+     */
+    public boolean empty() {
+        //O(1)
+        return this.size == 0;
+    }
+
+    /**
+     * public int size()
+     * <p>
+     * Returns the number of items in the index
+     */
+    public int size() {
+        //O(1)
+        return this.size;
+    }
+
+    /**
+     * public String search(int k)
+     * <p>
+     * returns the info of an item with key k if it exists in the index
+     * otherwise, returns null
+     */
+    public String search(int k) {
+        //O(logn)
+        int j = lowerBound(k, false);
+        return j != 0 && this.keys[j] == k ? this.values[j] : null;
+    }
+
+    /**
+     * public String select(int i)
+     * <p>
+     * Returns the info of the i'th smallest key, as WAVLTree.select
+     * <p>
+     * precondition: size() >= i > 0
+     */
+    public String select(int i) {
+        //O(1)
+        if (this.empty()) {
+            return null;
+        }
+        return this.values[this.slots[i - 1]];
+    }
+
+    /**
+     * public int rank(int k)
+     * <p>
+     * Returns the number of keys in the index smaller than or equal to k
+     */
+    public int rank(int k) {
+        //O(logn)
+        return countBelow(k, true);
+    }
+
+    /**
+     * public int countRange(int lo, int hi)
+     * <p>
+     * Returns the number of keys k in the index with lo <= k <= hi
+     */
+    public int countRange(int lo, int hi) {
+        //O(logn)
+        if (lo > hi) {
+            return 0;
+        }
+        return countBelow(hi, true) - countBelow(lo, false);
+    }
+
+    // the number of keys smaller than k, or smaller than or equal to k
+    private int countBelow(int k, boolean inclusive) {
+        //O(logn)
+        int j = lowerBound(k, inclusive);
+        return j == 0 ? this.size : this.ranks[j] - 1;
+    }
+
+    /**
+     * public String min()
+     * <p>
+     * Returns the info of the item with the smallest key, or null if the
+     * index is empty
+     */
+    public String min() {
+        //O(1)
+        return this.empty() ? null : this.values[this.slots[0]];
+    }
+
+    /**
+     * public String max()
+     * <p>
+     * Returns the info of the item with the largest key, or null if the
+     * index is empty
+     */
+    public String max() {
+        //O(1)
+        return this.empty() ? null : this.values[this.slots[this.size - 1]];
+    }
+
+    /**
+     * public int[] keysToArray()
+     * <p>
+     * Returns a sorted array which contains all keys in the index
+     */
+    public int[] keysToArray() {
+        //O(n)
+        int[] arr = new int[this.size];
+        for (int r = 0; r < this.size; r++) {
+            arr[r] = this.keys[this.slots[r]];
+        }
+        return arr;
+    }
+
+    /**
+     * public String[] infoToArray()
+     * <p>
+     * Returns an array which contains all info in the index, sorted by their
+     * respective keys
+     */
+    public String[] infoToArray() {
+        //O(n)
+        String[] arr = new String[this.size];
+        for (int r = 0; r < this.size; r++) {
+            arr[r] = this.values[this.slots[r]];
+        }
+        return arr;
+    }
+
+    /**
+     * public WAVLTree thaw()
+     * <p>
+     * Returns a new mutable WAVLTree with the items of this index, built
+     * with WAVLTree.fromSorted. the index itself stays usable
+     */
+    public WAVLTree thaw() {
+        //O(n)
+        return WAVLTree.fromSorted(keysToArray(), infoToArray());
+    }
+}
@@ -0,0 +1,106 @@
+package wavl;
+
+/**
+ * IntValuedWAVLTree
+ * <p>
+ * An arena tree from int keys to int values: counters, indexes into another
+ * array, ids of things kept elsewhere. Each value is one int in the slot of
+ * its key, so a count is updated by a delete and an insert of the same key
+ * and a read never boxes.
+ * <p>
+ * There is no null int. The reads that may find nothing take the value to
+ * return instead (missing), -1 is the usual choice for indexes and ids.
+ * When every int can be stored, ask contains() first.
+ */
+public class IntValuedWAVLTree extends ArenaTree {
+
+    public IntValuedWAVLTree() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * public IntValuedWAVLTree(int capacity)
+     * <p>
+     * creates an empty tree that can hold capacity keys before it has to grow
+     * its arrays
+     */
+    public IntValuedWAVLTree(int capacity) {
+        super(capacity, int.class);
+    }
+
+    // @post return the value of slot, missing for the virtual slot
+    private int value(int slot, int missing) {
+        return slot == VIRTUAL ? missing : ((int[]) this.values)[slot];
+    }
+
+    /**
+     * public int search(int k, int missing)
+     * <p>
+     * returns the value of the item with key k if it exists in the tree,
+     * otherwise returns missing
+     */
+    public int search(int k, int missing) {
+        //O(logn)
+        return value(find(k), missing);
+    }
+
+    /**
+     * public int insert(int k, int i)
+     * <p>
+     * inserts an item with key k and value i. returns the number of
+     * rebalancing operations, or -1 if an item with key k already exists in
+     * the tree, whose value is then left as it was.
+     */
+    public int insert(int k, int i) {
+        // O(logn) amortized, the arrays grow geometrically
+        int balancing = insertKey(k);
+        if (balancing != -1) {
+            ((int[]) this.values)[this.inserted] = i;
+        }
+        return balancing;
+    }
+
+    /**
+     * public int min(int missing)
+     * <p>
+     * Returns the value of the item with the smallest key, or missing if the
+     * tree is empty
+     */
+    public int min(int missing) {
+        //O(1)
+        return value(this.minimum, missing);
+    }
+
+    /**
+     * public int max(int missing)
+     * <p>
+     * Returns the value of the item with the largest key, or missing if the
+     * tree is empty
+     */
+    public int max(int missing) {
+        //O(logn)
+        return value(maxSlot(), missing);
+    }
+
+    /**
+     * public int select(int i, int missing)
+     * <p>
+     * Returns the value of the i'th smallest key, or missing if i is not in
+     * 1..size()
+     */
+    public int select(int i, int missing) {
+        //O(log i)
+        return value(selectSlot(i), missing);
+    }
+
+    /**
+     * public int[] infoToArray()
+     * <p>
+     * Returns the values sorted by their keys, or an empty array if the tree
+     * is empty.
+     */
+    public int[] infoToArray() {
+        //O(n)
+        return (int[]) valuesToArray();
+    }
+}
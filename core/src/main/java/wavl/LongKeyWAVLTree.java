@@ -0,0 +1,576 @@
+package wavl;
+
+/**
+ * LongKeyWAVLTree
+ * <p>
+ * WAVLTree with 64-bit keys. The nodes hold the key as a long field and
+ * every comparison (search, findInsertParent, findDeleteNode, the finger
+ * climb) is on that primitive, there is no Long anywhere on the way. The
+ * rebalancing, and its counts, are WAVLTree's, as are the minimum and
+ * maximum pointers, the search from the last insert and the key-order
+ * threads behind keysToArray and the successor of a delete.
+ * <p>
+ * IWAVLNode has int keys, so the nodes are not exposed. select, rank,
+ * countRange and the array exports match the int API.
+ */
+public class LongKeyWAVLTree {
+    private final LongNode virtualNode = new LongNode();
+    private LongNode root = this.virtualNode;
+    private LongNode minimum = this.virtualNode;
+    private LongNode maximum = this.virtualNode;
+    // the last node inserted, null once it is deleted
+    private LongNode finger;
+
+    /**
+     * public boolean empty()
+     * <p>
+     * returns true if and only if the tree is empty
+     */
+    public boolean empty() {
+        //O(1)
+        return !this.root.isReal;
+    }
+
+    /**
+     * public String search(long k)
+     * <p>
+     * returns the info of an item with key k if it exists in the tree
+     * otherwise, returns null
+     */
+    public String search(long k) {
+        //O(logn)
+        LongNode temp = this.root;
+        while (temp.isReal) {
+            if (temp.key == k) {
+                return temp.value;
+            }
+            if (temp.key > k) {
+                temp = temp.left;
+            } else {
+                temp = temp.right;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * public int insert(long k, String i)
+     * <p>
+     * inserts an item with key k and info i, as WAVLTree.insert. returns the
+     * number of rebalancing operations, or -1 if an item with key k already
+     * exists in the tree.
+     */
+    public int insert(long k, String i) {
+        // O(logn), O(1) search for appends and O(log d) for a key d away from the last insert
+        LongNode temp = new LongNode(k, i, this.virtualNode);
+        if (this.empty()) {
+            this.root = temp;
+            this.minimum = temp;
+            this.maximum = temp;
+            this.finger = temp;
+            return 0;
+        }
+        LongNode newParent;
+        if (k > this.maximum.key) {
+            newParent = this.maximum;
+        } else if (k < this.minimum.key) {
+            newParent = this.minimum;
+        } else {
+            newParent = findInsertParent(climb(this.finger, k), k);
+        }
+        // if already exist
+        if (!newParent.isReal) {
+            return -1;
+        }
+        this.finger = temp;
+        temp.parent = newParent;
+        if (k < this.minimum.key) {
+            this.minimum = temp;
+        }
+        if (k > this.maximum.key) {
+            this.maximum = temp;
+        }
+        boolean wasLeaf = isLeaf(newParent);
+        if (k > newParent.key) {
+            newParent.right = temp;
+            thread(temp, newParent.next);
+            thread(newParent, temp);
+        } else {
+            newParent.left = temp;
+            thread(newParent.prev, temp);
+            thread(temp, newParent);
+        }
+        for (LongNode c = newParent; c != null; c = c.parent) {
+            c.subTreeSize++;
+        }
+        // a unary parent becomes 1,1 and needs no balance
+        return wasLeaf ? balanceInsert(newParent, 0) : 0;
+    }
+
+    // links a and b as neighbours in key order, either may be null
+    private static void thread(LongNode a, LongNode b) {
+        if (a != null) {
+            a.next = b;
+        }
+        if (b != null) {
+            b.prev = a;
+        }
+    }
+
+    // @pre finger == null or finger is in the tree
+    // @post return an ancestor of finger whose subtree spans k, the root if
+    // there is no finger
+    private LongNode climb(LongNode finger, long k) {
+        //O(log d) where d is the rank distance between finger and k
+        if (finger == null) {
+            return this.root;
+        }
+        if (finger.key <= k) {
+            while (finger != this.root && finger.parent.key <= k) {
+                finger = finger.parent;
+            }
+        } else {
+            while (finger != this.root && finger.parent.key >= k) {
+                finger = finger.parent;
+            }
+        }
+        return finger;
+    }
+
+    // @pre from is a real node whose subtree spans k
+    // @post return new parent of k and virtual node if k already exist
+    private LongNode findInsertParent(LongNode from, long k) {
+        //O(logn)
+        LongNode temp = from;
+        while (true) {
+            if (k == temp.key) {
+                return this.virtualNode;
+            }
+            LongNode child = k > temp.key ? temp.right : temp.left;
+            if (!child.isReal) {
+                return temp;
+            }
+            temp = child;
+        }
+    }
+
+    /*
+     * @pre x==y.left||x==y.right
+     */
+    private void rotate(LongNode x, LongNode y) {
+        //O(1)
+        LongNode c;
+        if (this.root == y) {
+            this.root = x;
+        } else if (y.parent.right == y) {
+            y.parent.right = x;
+        } else {
+            y.parent.left = x;
+        }
+        x.parent = y.parent;
+        y.parent = x;
+
+        if (x == y.left) {
+            c = x.left;
+            y.left = x.right;
+            if (x.right.isReal) {
+                x.right.parent = y;
+            }
+            x.right = y;
+        } else {
+            c = x.right;
+            y.right = x.left;
+            if (x.left.isReal) {
+                x.left.parent = y;
+            }
+            x.left = y;
+        }
+        y.subTreeSize = y.right.subTreeSize + y.left.subTreeSize + 1;
+        x.subTreeSize = y.subTreeSize + c.subTreeSize + 1;
+    }
+
+    private int balanceInsert(LongNode node, int balancing) {
+        //w.c O(logn)
+        if (node == null) {
+            // we promoted root
+            return balancing;
+        }
+        LongNode l = node.left;
+        LongNode r = node.right;
+        if (node.rank - l.rank == 0) {
+            if (node.rank - r.rank == 1) {
+                // 0/1 need promote
+                node.rank++;
+                return balanceInsert(node.parent, balancing) + 1;
+            }
+            // 0/2 node
+            if (l.rank - l.right.rank == 2) {
+                // single rotation
+                rotate(l, node);
+                node.rank--;
+                return balancing + 1;
+            }
+            // double rotation
+            LongNode lr = l.right;
+            lr.rank++;
+            l.rank--;
+            rotate(lr, l);
+            rotate(lr, node);
+            node.rank--;
+            return balancing + 2;
+        }
+        if (node.rank - r.rank == 0) {
+            if (node.rank - l.rank == 1) {
+                // 1/0 need promote
+                node.rank++;
+                return balanceInsert(node.parent, balancing) + 1;
+            }
+            // 2/0 node
+            if (r.rank - r.left.rank == 2) {
+                // single rotation
+                rotate(r, node);
+                node.rank--;
+                return balancing + 1;
+            }
+            // double rotation
+            LongNode rl = r.left;
+            rl.rank++;
+            r.rank--;
+            rotate(rl, r);
+            rotate(rl, node);
+            node.rank--;
+            return balancing + 2;
+        }
+        return balancing;
+    }
+
+    private boolean isLeaf(LongNode temp) {
+        //O(1)
+        return !temp.right.isReal && !temp.left.isReal;
+    }
+
+    /**
+     * public int delete(long k)
+     * <p>
+     * deletes an item with key k, as WAVLTree.delete. returns the number of
+     * rebalancing operations, or -1 if an item with key k was not found in
+     * the tree.
+     */
+    public int delete(long k) {
+        //O(logn)
+        LongNode deleteNode = findDeleteNode(k);
+        if (!deleteNode.isReal) {
+            return -1;
+        }
+        LongNode before = deleteNode.prev;
+        LongNode after = deleteNode.next;
+        if (this.minimum == deleteNode) {
+            this.minimum = after != null ? after : this.virtualNode;
+        }
+        if (this.maximum == deleteNode) {
+            this.maximum = before != null ? before : this.virtualNode;
+        }
+        if (this.finger == deleteNode) {
+            this.finger = null;
+        }
+        int balancing = deleteThisNode(deleteNode);
+        thread(before, after);
+        deleteNode.prev = null;
+        deleteNode.next = null;
+        return balancing;
+    }
+
+    private int deleteThisNode(LongNode deleteNode) {
+        if (deleteNode.right.isReal && deleteNode.left.isReal) {
+            // inner node, unlink the successor and put it in deleteNode's place
+            LongNode successor = deleteNode.next;
+            int balancing = deleteThisNode(successor);
+            successor.rank = deleteNode.rank;
+            successor.right = deleteNode.right;
+            successor.left = deleteNode.left;
+            successor.parent = deleteNode.parent;
+            successor.subTreeSize = deleteNode.subTreeSize;
+            deleteNode.right.parent = successor;
+            deleteNode.left.parent = successor;
+            replaceChild(deleteNode, successor);
+            return balancing;
+        }
+        // leaf or unary
+        LongNode child = deleteNode.left.isReal ? deleteNode.left : deleteNode.right;
+        replaceChild(deleteNode, child);
+        if (child.isReal) {
+            child.parent = deleteNode.parent;
+        }
+        for (LongNode c = deleteNode.parent; c != null; c = c.parent) {
+            c.subTreeSize--;
+        }
+        return balanceDelete(deleteNode.parent, 0);
+    }
+
+    // puts node in old's place under old's parent
+    private void replaceChild(LongNode old, LongNode node) {
+        if (this.root == old) {
+            this.root = node;
+        } else if (old.parent.right == old) {
+            old.parent.right = node;
+        } else {
+            old.parent.left = node;
+        }
+    }
+
+    private int balanceDelete(LongNode node, int balancing) {
+        //w.c O(logn)
+        if (node == null) {
+            // we demoted root
+            return balancing;
+        }
+        if (isLeaf(node)) {
+            if (node.rank == 1) {
+                // 2,2 leaf need demote
+                node.rank--;
+                balancing = balanceDelete(node.parent, balancing) + 1;
+            }
+        } else if (node.rank - node.left.rank == 3) {
+            LongNode r = node.right;
+            if (node.rank - r.rank == 2) {
+                // 3,2 node need demote
+                node.rank--;
+                balancing = balanceDelete(node.parent, balancing) + 1;
+            } else if (r.rank - r.right.rank == 2 && r.rank - r.left.rank == 2) {
+                // 3,1 node, double demote
+                node.rank--;
+                r.rank--;
+                balancing = balanceDelete(node.parent, balancing) + 2;
+            } else if (r.rank - r.right.rank == 1) {
+                // rotate
+                r.rank++;
+                rotate(r, node);
+                node.rank--;
+                balancing += 1;
+                if (isLeaf(node) && node.rank - node.right.rank == 2) {
+                    // 2,2 leaf after rotation
+                    node.rank--;
+                    balancing += 1;
+                }
+            } else {
+                // double rotate
+                LongNode rl = r.left;
+                r.rank--;
+                rl.rank += 2;
+                rotate(rl, r);
+                rotate(rl, node);
+                node.rank -= 2;
+                balancing += 2;
+            }
+        }
+        if (node.rank - node.right.rank == 3) {
+            LongNode l = node.left;
+            if (node.rank - l.rank == 2) {
+                // 2,3 node demote
+                node.rank--;
+                balancing = balanceDelete(node.parent, balancing) + 1;
+            } else if (l.rank - l.right.rank == 2 && l.rank - l.left.rank == 2) {
+                // 1,3 node, double demote
+                node.rank--;
+                l.rank--;
+                balancing = balanceDelete(node.parent, balancing) + 2;
+            } else if (l.rank - l.left.rank == 1) {
+                // rotate
+                l.rank++;
+                rotate(l, node);
+                node.rank--;
+                balancing += 1;
+                if (isLeaf(node) && node.rank - node.left.rank == 2) {
+                    // 2,2 leaf after rotation
+                    node.rank--;
+                    balancing += 1;
+                }
+            } else {
+                // double rotate
+                LongNode lr = l.right;
+                l.rank--;
+                lr.rank += 2;
+                rotate(lr, l);
+                rotate(lr, node);
+                node.rank -= 2;
+                balancing += 2;
+            }
+        }
+        return balancing;
+    }
+
+    // return node to delete if not found return this virtual node
+    private LongNode findDeleteNode(long k) {
+        //O(logn)
+        LongNode temp = this.root;
+        while (temp.isReal && temp.key != k) {
+            temp = k > temp.key ? temp.right : temp.left;
+        }
+        return temp;
+    }
+
+    /**
+     * public String min()
+     * <p>
+     * Returns the info of the item with the smallest key in the tree, or null
+     * if the tree is empty
+     */
+    public String min() {
+        //O(1)
+        return this.minimum.value;
+    }
+
+    /**
+     * public String max()
+     * <p>
+     * Returns the info of the item with the largest key in the tree, or null
+     * if the tree is empty
+     */
+    public String max() {
+        //O(1)
+        return this.maximum.value;
+    }
+
+    /**
+     * public long[] keysToArray()
+     * <p>
+     * Returns a sorted array which contains all keys in the tree, or an empty
+     * array if the tree is empty.
+     */
+    public long[] keysToArray() {
+        //O(n)
+        long[] arr = new long[size()];
+        int index = 0;
+        for (LongNode temp = this.minimum; temp != null && temp.isReal; temp = temp.next) {
+            arr[index++] = temp.key;
+        }
+        return arr;
+    }
+
+    /**
+     * public String[] infoToArray()
+     * <p>
+     * Returns an array which contains all info in the tree, sorted by their
+     * respective keys, or an empty array if the tree is empty.
+     */
+    public String[] infoToArray() {
+        //O(n)
+        String[] arr = new String[size()];
+        int index = 0;
+        for (LongNode temp = this.minimum; temp != null && temp.isReal; temp = temp.next) {
+            arr[index++] = temp.value;
+        }
+        return arr;
+    }
+
+    /**
+     * public int size()
+     * <p>
+     * Returns the number of nodes in the tree.
+     */
+    public int size() {
+        return this.root.subTreeSize;
+    }
+
+    /**
+     * public String select(int i)
+     * <p>
+     * Returns the value of the i'th smallest key, or null if there is no
+     * such key
+     */
+    public String select(int i) {
+        //O(log i)
+        if (i < 1 || i > size()) {
+            return null;
+        }
+        // the minimum's ancestors are its left spine, the subtree of each
+        // holds exactly the ranks 1..size, climb to the first that holds i
+        LongNode temp = this.minimum;
+        while (temp.subTreeSize < i) {
+            temp = temp.parent;
+        }
+        while (true) {
+            int before = temp.left.subTreeSize + 1;
+            if (before == i) {
+                return temp.value;
+            }
+            if (before > i) {
+                temp = temp.left;
+            } else {
+                i -= before;
+                temp = temp.right;
+            }
+        }
+    }
+
+    /**
+     * public int rank(long k)
+     * <p>
+     * Returns the number of keys in the tree smaller than or equal to k, so
+     * select(rank(k)) is the info of k when k is in the tree
+     */
+    public int rank(long k) {
+        //O(logn)
+        return countBelow(k, true);
+    }
+
+    /**
+     * public int countRange(long lo, long hi)
+     * <p>
+     * Returns the number of keys k in the tree with lo <= k <= hi
+     */
+    public int countRange(long lo, long hi) {
+        //O(logn)
+        if (lo > hi) {
+            return 0;
+        }
+        return countBelow(hi, true) - countBelow(lo, false);
+    }
+
+    // the number of keys smaller than k, or smaller than or equal to k
+    private int countBelow(long k, boolean inclusive) {
+        //O(logn)
+        int count = 0;
+        LongNode temp = this.root;
+        while (temp.isReal) {
+            if (temp.key < k || inclusive && temp.key == k) {
+                // temp and its whole left subtree are below k
+                count += temp.left.subTreeSize + 1;
+                temp = temp.right;
+            } else {
+                temp = temp.left;
+            }
+        }
+        return count;
+    }
+
+    // a node of a long keyed tree, WAVLNode with a long key
+    private static final class LongNode {
+        private final boolean isReal;
+        private long key;
+        private String value;
+        private int rank;
+        private int subTreeSize;
+        private LongNode left;
+        private LongNode right;
+        private LongNode parent;
+        // neighbours in key order, null past the ends
+        private LongNode next;
+        private LongNode prev;
+
+        // the virtual node: rank -1, size 0
+        private LongNode() {
+            this.isReal = false;
+            this.rank = -1;
+        }
+
+        private LongNode(long key, String value, LongNode virtualNode) {
+            this.isReal = true;
+            this.key = key;
+            this.value = value;
+            this.subTreeSize = 1;
+            this.left = virtualNode;
+            this.right = virtualNode;
+        }
+    }
+}
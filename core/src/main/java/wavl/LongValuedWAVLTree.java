@@ -0,0 +1,106 @@
+package wavl;
+
+/**
+ * LongValuedWAVLTree
+ * <p>
+ * An arena tree from int keys to long values, for what does not fit an
+ * int: timestamps in milliseconds or nanoseconds, byte offsets into large
+ * files, running totals. The long[] of values grows with the key and link
+ * arrays, one long per key and no Long objects.
+ * <p>
+ * The reads that may find nothing take the long to return instead
+ * (missing). Long.MIN_VALUE is rarely a real timestamp or offset, when it
+ * can be one ask contains() first.
+ */
+public class LongValuedWAVLTree extends ArenaTree {
+
+    public LongValuedWAVLTree() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * public LongValuedWAVLTree(int capacity)
+     * <p>
+     * creates an empty tree that can hold capacity keys before it has to grow
+     * its arrays
+     */
+    public LongValuedWAVLTree(int capacity) {
+        super(capacity, long.class);
+    }
+
+    // @post return the value of slot, missing for the virtual slot
+    private long value(int slot, long missing) {
+        return slot == VIRTUAL ? missing : ((long[]) this.values)[slot];
+    }
+
+    /**
+     * public long search(int k, long missing)
+     * <p>
+     * returns the value of the item with key k if it exists in the tree,
+     * otherwise returns missing
+     */
+    public long search(int k, long missing) {
+        //O(logn)
+        return value(find(k), missing);
+    }
+
+    /**
+     * public int insert(int k, long i)
+     * <p>
+     * inserts an item with key k and value i. returns the number of
+     * rebalancing operations, or -1 if an item with key k already exists in
+     * the tree, whose value is then left as it was.
+     */
+    public int insert(int k, long i) {
+        // O(logn) amortized, the arrays grow geometrically
+        int balancing = insertKey(k);
+        if (balancing != -1) {
+            ((long[]) this.values)[this.inserted] = i;
+        }
+        return balancing;
+    }
+
+    /**
+     * public long min(long missing)
+     * <p>
+     * Returns the value of the item with the smallest key, or missing if the
+     * tree is empty
+     */
+    public long min(long missing) {
+        //O(1)
+        return value(this.minimum, missing);
+    }
+
+    /**
+     * public long max(long missing)
+     * <p>
+     * Returns the value of the item with the largest key, or missing if the
+     * tree is empty
+     */
+    public long max(long missing) {
+        //O(logn)
+        return value(maxSlot(), missing);
+    }
+
+    /**
+     * public long select(int i, long missing)
+     * <p>
+     * Returns the value of the i'th smallest key, or missing if i is not in
+     * 1..size()
+     */
+    public long select(int i, long missing) {
+        //O(log i)
+        return value(selectSlot(i), missing);
+    }
+
+    /**
+     * public long[] infoToArray()
+     * <p>
+     * Returns the values sorted by their keys, or an empty array if the tree
+     * is empty.
+     */
+    public long[] infoToArray() {
+        //O(n)
+        return (long[]) valuesToArray();
+    }
+}
@@ -0,0 +1,532 @@
+package wavl;
+
+/**
+ * PersistentWAVLTree
+ * <p>
+ * A WAVL tree with the WAVLTree API whose nodes never change once built.
+ * insert and delete copy the O(logn) nodes on the search path, and the
+ * nodes a rotation moves, and share everything else with the previous
+ * version. The rebalancing cases, and so the returned rebalancing counts,
+ * are the same as WAVLTree's.
+ * <p>
+ * snapshot() is O(1): it returns a read-only tree of the current version
+ * that later inserts and deletes do not affect. Snapshots can be read from
+ * any number of threads without locks. The tree itself has a single writer,
+ * like WAVLTree.
+ * <p>
+ * The nodes keep no parent links (a path copy would otherwise have to copy
+ * the whole tree), so insert and delete rebalance on the way back up the
+ * recursion instead of climbing parent pointers.
+ */
+public class PersistentWAVLTree {
+    private static final Node VIRTUAL = new Node();
+
+    // one volatile field, so a snapshot taken on another thread sees the root
+    // and the minimum of the same version
+    private volatile Version version;
+    private final boolean readOnly;
+    // rebalancing steps of the insert/delete in progress
+    private int balancing;
+
+    public PersistentWAVLTree() {
+        this(new Version(VIRTUAL, VIRTUAL), false);
+    }
+
+    private PersistentWAVLTree(Version version, boolean readOnly) {
+        this.version = version;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * public PersistentWAVLTree snapshot()
+     * <p>
+     * returns a read-only tree holding the current items, in O(1)
+     */
+    public PersistentWAVLTree snapshot() {
+        if (this.readOnly) {
+            return this;
+        }
+        return new PersistentWAVLTree(this.version, true);
+    }
+
+    /**
+     * public boolean isSnapshot()
+     * <p>
+     * returns true if this tree is a read-only snapshot
+     */
+    public boolean isSnapshot() {
+        return this.readOnly;
+    }
+
+    /**
+     * public boolean empty()
+     * <p>
+     * returns true if and only if the tree is empty
+     */
+    public boolean empty() {
+        //O(1)
+        return !this.version.root.isReal;
+    }
+
+    /**
+     * public String search(int k)
+     * <p>
+     * returns the info of an item with key k if it exists in the tree
+     * otherwise, returns null
+     */
+    public String search(int k) {
+        //O(logn)
+        Node temp = this.version.root;
+        while (temp.isReal) {
+            if (temp.key == k) {
+                return temp.value;
+            }
+            temp = temp.key > k ? temp.left : temp.right;
+        }
+        return null;
+    }
+
+    /**
+     * public int insert(int k, String i)
+     * <p>
+     * inserts an item with key k and info i. returns the number of
+     * rebalancing operations, or 0 if no rebalancing operations were
+     * necessary. returns -1 if an item with key k already exists in the tree.
+     * snapshots throw UnsupportedOperationException.
+     */
+    public int insert(int k, String i) {
+        //O(logn) time and new nodes
+        checkWritable();
+        this.balancing = 0;
+        Version current = this.version;
+        Node after = insert(current.root, k, i);
+        if (after == current.root) {
+            return -1;
+        }
+        Node minimum = current.minimum;
+        if (!minimum.isReal || k < minimum.key) {
+            minimum = leftmost(after);
+        }
+        this.version = new Version(after, minimum);
+        return this.balancing;
+    }
+
+    // @post return the new root of node's subtree with k in it, node itself
+    // if k already exist
+    private Node insert(Node node, int k, String i) {
+        if (!node.isReal) {
+            return new Node(k, i, VIRTUAL, VIRTUAL, 0);
+        }
+        if (k == node.key) {
+            return node;
+        }
+        if (k < node.key) {
+            Node left = insert(node.left, k, i);
+            return left == node.left ? node : leftGrew(node, left);
+        }
+        Node right = insert(node.right, k, i);
+        return right == node.right ? node : rightGrew(node, right);
+    }
+
+    // node's left subtree was replaced by left, whose rank may have grown
+    private Node leftGrew(Node node, Node left) {
+        int rank = node.rank;
+        if (rank - left.rank != 0) {
+            return new Node(node.key, node.value, left, node.right, rank);
+        }
+        if (rank - node.right.rank == 1) {
+            // 0/1 need promote, the parent checks the new rank
+            this.balancing++;
+            return new Node(node.key, node.value, left, node.right, rank + 1);
+        }
+        // 0/2 node
+        if (left.rank - left.right.rank == 2) {
+            // single rotation
+            this.balancing++;
+            Node down = new Node(node.key, node.value, left.right, node.right, rank - 1);
+            return new Node(left.key, left.value, left.left, down, left.rank);
+        }
+        // double rotation
+        this.balancing += 2;
+        Node mid = left.right;
+        Node a = new Node(left.key, left.value, left.left, mid.left, left.rank - 1);
+        Node b = new Node(node.key, node.value, mid.right, node.right, rank - 1);
+        return new Node(mid.key, mid.value, a, b, mid.rank + 1);
+    }
+
+    // node's right subtree was replaced by right, whose rank may have grown
+    private Node rightGrew(Node node, Node right) {
+        int rank = node.rank;
+        if (rank - right.rank != 0) {
+            return new Node(node.key, node.value, node.left, right, rank);
+        }
+        if (rank - node.left.rank == 1) {
+            // 1/0 need promote
+            this.balancing++;
+            return new Node(node.key, node.value, node.left, right, rank + 1);
+        }
+        // 2/0 node
+        if (right.rank - right.left.rank == 2) {
+            // single rotation
+            this.balancing++;
+            Node down = new Node(node.key, node.value, node.left, right.left, rank - 1);
+            return new Node(right.key, right.value, down, right.right, right.rank);
+        }
+        // double rotation
+        this.balancing += 2;
+        Node mid = right.left;
+        Node a = new Node(node.key, node.value, node.left, mid.left, rank - 1);
+        Node b = new Node(right.key, right.value, mid.right, right.right, right.rank - 1);
+        return new Node(mid.key, mid.value, a, b, mid.rank + 1);
+    }
+
+    /**
+     * public int delete(int k)
+     * <p>
+     * deletes an item with key k, if it is there. returns the number of
+     * rebalancing operations, or 0 if no rebalancing operations were needed.
+     * returns -1 if an item with key k was not found in the tree. snapshots
+     * throw UnsupportedOperationException.
+     */
+    public int delete(int k) {
+        //O(logn) time and new nodes
+        checkWritable();
+        this.balancing = 0;
+        Version current = this.version;
+        Node after = delete(current.root, k);
+        if (after == current.root) {
+            return -1;
+        }
+        Node minimum = current.minimum;
+        if (k == minimum.key) {
+            minimum = leftmost(after);
+        }
+        this.version = new Version(after, minimum);
+        return this.balancing;
+    }
+
+    // @post return the new root of node's subtree without k, node itself if
+    // k was not there
+    private Node delete(Node node, int k) {
+        if (!node.isReal) {
+            return node;
+        }
+        if (k < node.key) {
+            Node left = delete(node.left, k);
+            return left == node.left ? node : leftShrank(node, left);
+        }
+        if (k > node.key) {
+            Node right = delete(node.right, k);
+            return right == node.right ? node : rightShrank(node, right);
+        }
+        // found, a leaf or unary node is replaced by its child
+        if (!node.left.isReal) {
+            return node.right;
+        }
+        if (!node.right.isReal) {
+            return node.left;
+        }
+        // inner node, the successor's item takes its place
+        Node successor = leftmost(node.right);
+        Node right = delete(node.right, successor.key);
+        Node moved = new Node(successor.key, successor.value, node.left, node.right, node.rank);
+        return rightShrank(moved, right);
+    }
+
+    // node's left subtree was replaced by left, whose rank may have dropped
+    private Node leftShrank(Node node, Node left) {
+        int rank = node.rank;
+        Node right = node.right;
+        if (!left.isReal && !right.isReal) {
+            if (rank == 1) {
+                // 2,2 leaf need demote
+                this.balancing++;
+                rank--;
+            }
+            return new Node(node.key, node.value, left, right, rank);
+        }
+        if (rank - left.rank != 3) {
+            return new Node(node.key, node.value, left, right, rank);
+        }
+        if (rank - right.rank == 2) {
+            // 3,2 node need demote
+            this.balancing++;
+            return new Node(node.key, node.value, left, right, rank - 1);
+        }
+        // 3,1 node
+        if (right.rank - right.right.rank == 2 && right.rank - right.left.rank == 2) {
+            // double demote
+            this.balancing += 2;
+            Node sibling = new Node(right.key, right.value, right.left, right.right, right.rank - 1);
+            return new Node(node.key, node.value, left, sibling, rank - 1);
+        }
+        if (right.rank - right.right.rank == 1) {
+            // rotate, and demote node again if it is left a 2,2 leaf
+            this.balancing++;
+            int downRank = rank - 1;
+            if (!left.isReal && !right.left.isReal && downRank == 1) {
+                this.balancing++;
+                downRank = 0;
+            }
+            Node down = new Node(node.key, node.value, left, right.left, downRank);
+            return new Node(right.key, right.value, down, right.right, right.rank + 1);
+        }
+        // double rotate
+        this.balancing += 2;
+        Node mid = right.left;
+        Node a = new Node(node.key, node.value, left, mid.left, rank - 2);
+        Node b = new Node(right.key, right.value, mid.right, right.right, right.rank - 1);
+        return new Node(mid.key, mid.value, a, b, mid.rank + 2);
+    }
+
+    // node's right subtree was replaced by right, whose rank may have dropped
+    private Node rightShrank(Node node, Node right) {
+        int rank = node.rank;
+        Node left = node.left;
+        if (!left.isReal && !right.isReal) {
+            if (rank == 1) {
+                // 2,2 leaf need demote
+                this.balancing++;
+                rank--;
+            }
+            return new Node(node.key, node.value, left, right, rank);
+        }
+        if (rank - right.rank != 3) {
+            return new Node(node.key, node.value, left, right, rank);
+        }
+        if (rank - left.rank == 2) {
+            // 2,3 node demote
+            this.balancing++;
+            return new Node(node.key, node.value, left, right, rank - 1);
+        }
+        // 1,3 node
+        if (left.rank - left.left.rank == 2 && left.rank - left.right.rank == 2) {
+            // double demote
+            this.balancing += 2;
+            Node sibling = new Node(left.key, left.value, left.left, left.right, left.rank - 1);
+            return new Node(node.key, node.value, sibling, right, rank - 1);
+        }
+        if (left.rank - left.left.rank == 1) {
+            // rotate, and demote node again if it is left a 2,2 leaf
+            this.balancing++;
+            int downRank = rank - 1;
+            if (!right.isReal && !left.right.isReal && downRank == 1) {
+                this.balancing++;
+                downRank = 0;
+            }
+            Node down = new Node(node.key, node.value, left.right, right, downRank);
+            return new Node(left.key, left.value, left.left, down, left.rank + 1);
+        }
+        // double rotate
+        this.balancing += 2;
+        Node mid = left.right;
+        Node a = new Node(left.key, left.value, left.left, mid.left, left.rank - 1);
+        Node b = new Node(node.key, node.value, mid.right, right, rank - 2);
+        return new Node(mid.key, mid.value, a, b, mid.rank + 2);
+    }
+
+    private static Node leftmost(Node node) {
+        //O(logn)
+        if (!node.isReal) {
+            return node;
+        }
+        while (node.left.isReal) {
+            node = node.left;
+        }
+        return node;
+    }
+
+    private void checkWritable() {
+        if (this.readOnly) {
+            throw new UnsupportedOperationException("snapshots are read-only");
+        }
+    }
+
+    /**
+     * public String min()
+     * <p>
+     * Returns the info of the item with the smallest key in the tree, or null
+     * if the tree is empty
+     */
+    public String min() {
+        //O(1)
+        return this.version.minimum.value;
+    }
+
+    /**
+     * public String max()
+     * <p>
+     * Returns the info of the item with the largest key in the tree, or null if
+     * the tree is empty
+     */
+    public String max() {
+        //O(logn)
+        Node temp = this.version.root;
+        if (!temp.isReal) {
+            return null;
+        }
+        while (temp.right.isReal) {
+            temp = temp.right;
+        }
+        return temp.value;
+    }
+
+    /**
+     * public int[] keysToArray()
+     * <p>
+     * Returns a sorted array which contains all keys in the tree, or an empty
+     * array if the tree is empty.
+     */
+    public int[] keysToArray() {
+        //O(n)
+        Node top = this.version.root;
+        int[] arr = new int[top.size];
+        walkKeys(top, arr, 0);
+        return arr;
+    }
+
+    // @post return the index after the last key written
+    private static int walkKeys(Node node, int[] arr, int index) {
+        if (!node.isReal) {
+            return index;
+        }
+        index = walkKeys(node.left, arr, index);
+        arr[index++] = node.key;
+        return walkKeys(node.right, arr, index);
+    }
+
+    /**
+     * public String[] infoToArray()
+     * <p>
+     * Returns an array which contains all info in the tree, sorted by their
+     * respective keys, or an empty array if the tree is empty.
+     */
+    public String[] infoToArray() {
+        //O(n)
+        Node top = this.version.root;
+        String[] arr = new String[top.size];
+        walkInfo(top, arr, 0);
+        return arr;
+    }
+
+    private static int walkInfo(Node node, String[] arr, int index) {
+        if (!node.isReal) {
+            return index;
+        }
+        index = walkInfo(node.left, arr, index);
+        arr[index++] = node.value;
+        return walkInfo(node.right, arr, index);
+    }
+
+    /**
+     * public int size()
+     * <p>
+     * Returns the number of nodes in the tree.
+     */
+    public int size() {
+        return this.version.root.size;
+    }
+
+    /**
+     * public IWAVLNode getRoot()
+     * <p>
+     * Returns the root node, or null if the tree is empty. the nodes are
+     * immutable, a node read from a snapshot stays valid forever.
+     */
+    public WAVLTree.IWAVLNode getRoot() {
+        Node top = this.version.root;
+        return top.isReal ? top : null;
+    }
+
+    /**
+     * public String select(int i)
+     * <p>
+     * Returns the value of the i'th smallest key (null if tree is empty)
+     * <p>
+     * precondition: size() >= i > 0 postcondition: none
+     */
+    public String select(int i) {
+        //O(logn)
+        Node temp = this.version.root;
+        while (temp.isReal) {
+            int before = temp.left.size + 1;
+            if (before == i) {
+                return temp.value;
+            }
+            if (before > i) {
+                temp = temp.left;
+            } else {
+                i -= before;
+                temp = temp.right;
+            }
+        }
+        return null;
+    }
+
+    // the root and the minimum of one version, published together
+    private static final class Version {
+        private final Node root;
+        private final Node minimum;
+
+        private Version(Node root, Node minimum) {
+            this.root = root;
+            this.minimum = minimum;
+        }
+    }
+
+    // an immutable node, final fields make it safe to read from any thread
+    private static final class Node implements WAVLTree.IWAVLNode {
+        private final boolean isReal;
+        private final int key;
+        private final String value;
+        private final Node left;
+        private final Node right;
+        private final int rank;
+        private final int size;
+
+        // the virtual node
+        private Node() {
+            this.isReal = false;
+            this.key = -1;
+            this.value = null;
+            this.left = null;
+            this.right = null;
+            this.rank = -1;
+            this.size = 0;
+        }
+
+        private Node(int key, String value, Node left, Node right, int rank) {
+            this.isReal = true;
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.rank = rank;
+            this.size = left.size + right.size + 1;
+        }
+
+        public int getKey() {
+            return this.key;
+        }
+
+        public String getValue() {
+            return this.value;
+        }
+
+        public WAVLTree.IWAVLNode getLeft() {
+            return this.left;
+        }
+
+        public WAVLTree.IWAVLNode getRight() {
+            return this.right;
+        }
+
+        public boolean isRealNode() {
+            return this.isReal;
+        }
+
+        public int getSubtreeSize() {
+            return this.size;
+        }
+    }
+}
@@ -0,0 +1,476 @@
+package wavl;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * ShardedWAVLTree
+ * <p>
+ * A thread-safe tree for write-heavy use. The int key space is cut into
+ * ranges, and each range is a WAVLTree shard with its own lock, so writers
+ * to different shards run in parallel. Readers of a shard share its lock.
+ * <p>
+ * The boundaries move with the data. When an insert leaves a shard more than
+ * twice as big as a neighbour (plus MOVE_MIN), the shards are evened out:
+ * the keys at that end are split off and joined onto the neighbour, which
+ * takes O(logn). Routing reads the boundaries optimistically. A boundary
+ * move holds the layout write lock, so routes taken during the move are
+ * retried.
+ * <p>
+ * select, min, max, keysToArray and infoToArray read every shard under its
+ * read lock, so they see a single consistent state of the whole tree.
+ */
+public class ShardedWAVLTree {
+    // shards smaller than this apart are not worth a boundary move
+    private static final int MOVE_MIN = 1 << 10;
+
+    private final Shard[] shards;
+    // MOVE_MIN, smaller in tests so that boundaries move often
+    private final int moveMin;
+    // layout write lock is held while boundaries move
+    private final StampedLock layout = new StampedLock();
+    // lower[s] is the smallest key shard s may hold, lower[0] is MIN_VALUE.
+    // replaced, never written in place
+    private volatile int[] lower;
+
+    /**
+     * public ShardedWAVLTree()
+     * <p>
+     * a tree with one shard per available processor
+     */
+    public ShardedWAVLTree() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * public ShardedWAVLTree(int shards)
+     * <p>
+     * a tree with the given number of shards, at first each covering an
+     * equal slice of the int range
+     */
+    public ShardedWAVLTree(int shards) {
+        this(shards, MOVE_MIN);
+    }
+
+    // a tree whose shards move keys once one is more than twice a
+    // neighbour plus moveMin
+    ShardedWAVLTree(int shards, int moveMin) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("shards must be positive, got " + shards);
+        }
+        this.shards = new Shard[shards];
+        int[] bounds = new int[shards];
+        long width = (1L << Integer.SIZE) / shards;
+        for (int s = 0; s < shards; s++) {
+            bounds[s] = (int) (Integer.MIN_VALUE + s * width);
+            this.shards[s] = new Shard();
+        }
+        this.lower = bounds;
+        this.moveMin = moveMin;
+    }
+
+    /**
+     * public boolean empty()
+     * <p>
+     * returns true if and only if the tree is empty
+     */
+    public boolean empty() {
+        return size() == 0;
+    }
+
+    /**
+     * public String search(int k)
+     * <p>
+     * returns the info of an item with key k if it exists in the tree
+     * otherwise, returns null
+     */
+    public String search(int k) {
+        //O(logn)
+        Shard shard = this.shards[lock(k, false)];
+        try {
+            return shard.tree.search(k);
+        } finally {
+            shard.read.unlock();
+        }
+    }
+
+    /**
+     * public int insert(int k, String i)
+     * <p>
+     * WAVLTree.insert on the shard of k, under that shard's write lock
+     */
+    public int insert(int k, String i) {
+        //O(logn)
+        int s = lock(k, true);
+        Shard shard = this.shards[s];
+        int result;
+        try {
+            result = shard.tree.insert(k, i);
+            shard.size = shard.tree.size();
+        } finally {
+            shard.write.unlock();
+        }
+        if (result != -1) {
+            balance(s);
+        }
+        return result;
+    }
+
+    /**
+     * public int delete(int k)
+     * <p>
+     * WAVLTree.delete on the shard of k, under that shard's write lock
+     */
+    public int delete(int k) {
+        //O(logn)
+        Shard shard = this.shards[lock(k, true)];
+        try {
+            int result = shard.tree.delete(k);
+            shard.size = shard.tree.size();
+            return result;
+        } finally {
+            shard.write.unlock();
+        }
+    }
+
+    /**
+     * public int size()
+     * <p>
+     * Returns the number of nodes in the tree. the shard sizes are summed
+     * without locking, so with writes in progress the result may count some
+     * of them and not others.
+     */
+    public int size() {
+        //O(shards)
+        int size = 0;
+        for (Shard shard : this.shards) {
+            size += shard.size;
+        }
+        return size;
+    }
+
+    /**
+     * public String min()
+     * <p>
+     * Returns the info of the item with the smallest key in the tree, or null
+     * if the tree is empty
+     */
+    public String min() {
+        //O(shards)
+        long stamp = lockAll();
+        try {
+            for (Shard shard : this.shards) {
+                if (!shard.tree.empty()) {
+                    return shard.tree.min();
+                }
+            }
+            return null;
+        } finally {
+            unlockAll(stamp);
+        }
+    }
+
+    /**
+     * public String max()
+     * <p>
+     * Returns the info of the item with the largest key in the tree, or null
+     * if the tree is empty
+     */
+    public String max() {
+        //O(shards+logn)
+        long stamp = lockAll();
+        try {
+            for (int s = this.shards.length - 1; s >= 0; s--) {
+                if (!this.shards[s].tree.empty()) {
+                    return this.shards[s].tree.max();
+                }
+            }
+            return null;
+        } finally {
+            unlockAll(stamp);
+        }
+    }
+
+    /**
+     * public String select(int i)
+     * <p>
+     * Returns the value of the i'th smallest key, or null if there is no
+     * such key. shards are skipped by their sizes, then select runs in the
+     * shard holding the i'th key.
+     */
+    public String select(int i) {
+        //O(shards+logn)
+        long stamp = lockAll();
+        try {
+            for (Shard shard : this.shards) {
+                int size = shard.tree.size();
+                if (i <= size) {
+                    return i > 0 ? shard.tree.select(i) : null;
+                }
+                i -= size;
+            }
+            return null;
+        } finally {
+            unlockAll(stamp);
+        }
+    }
+
+    /**
+     * public int[] keysToArray()
+     * <p>
+     * Returns a sorted array which contains all keys in the tree, or an empty
+     * array if the tree is empty.
+     */
+    public int[] keysToArray() {
+        //O(n)
+        long stamp = lockAll();
+        try {
+            int[][] parts = new int[this.shards.length][];
+            int total = 0;
+            for (int s = 0; s < parts.length; s++) {
+                parts[s] = this.shards[s].tree.keysToArray();
+                total += parts[s].length;
+            }
+            int[] arr = new int[total];
+            int index = 0;
+            for (int[] part : parts) {
+                System.arraycopy(part, 0, arr, index, part.length);
+                index += part.length;
+            }
+            return arr;
+        } finally {
+            unlockAll(stamp);
+        }
+    }
+
+    /**
+     * public String[] infoToArray()
+     * <p>
+     * Returns an array which contains all info in the tree, sorted by their
+     * respective keys, or an empty array if the tree is empty.
+     */
+    public String[] infoToArray() {
+        //O(n)
+        long stamp = lockAll();
+        try {
+            String[][] parts = new String[this.shards.length][];
+            int total = 0;
+            for (int s = 0; s < parts.length; s++) {
+                parts[s] = this.shards[s].tree.infoToArray();
+                total += parts[s].length;
+            }
+            String[] arr = new String[total];
+            int index = 0;
+            for (String[] part : parts) {
+                System.arraycopy(part, 0, arr, index, part.length);
+                index += part.length;
+            }
+            return arr;
+        } finally {
+            unlockAll(stamp);
+        }
+    }
+
+    /**
+     * public int shards()
+     * <p>
+     * Returns the number of shards
+     */
+    public int shards() {
+        return this.shards.length;
+    }
+
+    // for tests, with no writes running: every shard is a valid tree that
+    // holds only keys of its range and publishes its size. throws
+    // IllegalStateException otherwise
+    void checkInvariants() {
+        int[] bounds = this.lower;
+        for (int s = 0; s < this.shards.length; s++) {
+            Shard shard = this.shards[s];
+            shard.tree.checkInvariants();
+            if (shard.size != shard.tree.size()) {
+                throw new IllegalStateException("shard " + s + " publishes size " + shard.size
+                        + " but holds " + shard.tree.size());
+            }
+            if (s > 0 && bounds[s] < bounds[s - 1]) {
+                throw new IllegalStateException("bounds out of order at shard " + s);
+            }
+            int[] keys = shard.tree.keysToArray();
+            if (keys.length > 0 && (keys[0] < bounds[s]
+                    || s + 1 < bounds.length && keys[keys.length - 1] >= bounds[s + 1])) {
+                throw new IllegalStateException("shard " + s + " holds a key out of its range");
+            }
+        }
+    }
+
+    // for tests: the smallest key each shard may hold
+    int[] lowerBounds() {
+        return this.lower.clone();
+    }
+
+    // @post return the index of k's shard, locked for write or read
+    private int lock(int k, boolean write) {
+        while (true) {
+            long stamp = this.layout.tryOptimisticRead();
+            if (stamp == 0) {
+                // boundaries are moving, wait it out
+                this.layout.unlockRead(this.layout.readLock());
+                continue;
+            }
+            int s = shardOf(this.lower, k);
+            Lock lock = write ? this.shards[s].write : this.shards[s].read;
+            lock.lock();
+            if (this.layout.validate(stamp)) {
+                return s;
+            }
+            lock.unlock();
+        }
+    }
+
+    private static int shardOf(int[] bounds, int k) {
+        int s = Arrays.binarySearch(bounds, k);
+        return s >= 0 ? s : -s - 2;
+    }
+
+    // read locks every shard, in shard order, and keeps the boundaries still
+    private long lockAll() {
+        long stamp = this.layout.readLock();
+        for (Shard shard : this.shards) {
+            shard.read.lock();
+        }
+        return stamp;
+    }
+
+    private void unlockAll(long stamp) {
+        for (int s = this.shards.length - 1; s >= 0; s--) {
+            this.shards[s].read.unlock();
+        }
+        this.layout.unlockRead(stamp);
+    }
+
+    // shard s just grew, even it out with its smaller neighbour if it is
+    // far bigger, then the neighbour with its own, so that keys spread past
+    // the shards next to a hot one. skipped if another move is in progress
+    private void balance(int s) {
+        if (neighbour(s) == -1) {
+            return;
+        }
+        long stamp = this.layout.tryWriteLock();
+        if (stamp == 0) {
+            return;
+        }
+        try {
+            int n = neighbour(s);
+            for (int moves = 0; n != -1 && moves < this.shards.length; moves++) {
+                // shard locks in shard order, as lockAll takes them
+                Shard first = this.shards[Math.min(s, n)];
+                Shard second = this.shards[Math.max(s, n)];
+                first.write.lock();
+                second.write.lock();
+                try {
+                    // sizes may have changed before the locks were taken
+                    if (neighbour(s) != n) {
+                        return;
+                    }
+                    move(s, n);
+                } finally {
+                    second.write.unlock();
+                    first.write.unlock();
+                }
+                s = n;
+                n = neighbour(s);
+            }
+        } finally {
+            this.layout.unlockWrite(stamp);
+        }
+    }
+
+    // @post return the smaller neighbour of shard s if shard s is more than
+    // twice its size plus moveMin, -1 otherwise
+    private int neighbour(int s) {
+        int size = this.shards[s].size;
+        int n = -1;
+        if (s > 0) {
+            n = s - 1;
+        }
+        if (s + 1 < this.shards.length
+                && (n == -1 || this.shards[s + 1].size < this.shards[n].size)) {
+            n = s + 1;
+        }
+        if (n == -1 || size <= 2 * this.shards[n].size + this.moveMin) {
+            return -1;
+        }
+        return n;
+    }
+
+    // moves half the difference in size from shard s to neighbour n, with
+    // the layout and both shards write locked
+    private void move(int s, int n) {
+        //O(logn)
+        Shard from = this.shards[s];
+        Shard to = this.shards[n];
+        int count = (from.size - to.size) / 2;
+        int[] bounds = this.lower.clone();
+        if (n == s + 1) {
+            // the top count keys of s go to the bottom of n
+            int m = keyAt(from.tree, from.size - count + 1);
+            WAVLTree[] parts = from.tree.split(m);
+            WAVLTree moved = parts[1];
+            int x = keyAt(moved, moved.size());
+            String info = moved.max();
+            moved.delete(x);
+            to.tree = WAVLTree.join(moved, x, info, to.tree);
+            from.tree = parts[0];
+            bounds[n] = m;
+        } else {
+            // the bottom count keys of s go to the top of n
+            int m = keyAt(from.tree, count + 1);
+            WAVLTree[] parts = from.tree.split(m);
+            WAVLTree moved = parts[0];
+            int x = keyAt(moved, 1);
+            String info = moved.min();
+            moved.delete(x);
+            to.tree = WAVLTree.join(to.tree, x, info, moved);
+            from.tree = parts[1];
+            bounds[s] = m;
+        }
+        from.size = from.tree.size();
+        to.size = to.tree.size();
+        this.lower = bounds;
+    }
+
+    // @pre size() >= i > 0
+    // @post return the i'th smallest key of tree
+    private static int keyAt(WAVLTree tree, int i) {
+        //O(logn)
+        WAVLTree.IWAVLNode temp = tree.getRoot();
+        while (true) {
+            int before = temp.getLeft().getSubtreeSize() + 1;
+            if (before == i) {
+                return temp.getKey();
+            }
+            if (before > i) {
+                temp = temp.getLeft();
+            } else {
+                i -= before;
+                temp = temp.getRight();
+            }
+        }
+    }
+
+    // a key range and its lock. tree is replaced by boundary moves
+    private static final class Shard {
+        private final Lock read;
+        private final Lock write;
+        private WAVLTree tree = new WAVLTree();
+        // tree.size() as of the last write, for unlocked reads
+        private volatile int size;
+
+        private Shard() {
+            StampedLock lock = new StampedLock();
+            this.read = lock.asReadLock();
+            this.write = lock.asWriteLock();
+        }
+    }
+}
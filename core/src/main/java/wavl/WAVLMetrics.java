@@ -0,0 +1,259 @@
+package wavl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * WAVLMetrics
+ * <p>
+ * Cumulative counters for a WAVLTree, attached with WAVLTree.setMetrics.
+ * They count the rebalancing steps behind the per-call counts insert and
+ * delete return (promotions, demotions, single and double rotations), the
+ * inserts, deletes and searches, and the length of every search path (the
+ * nodes it visits, at most MAX_PATH in a WAVL tree) as a histogram. a
+ * whole insertAll or deleteAll batch is one insert or delete, pollMin and
+ * pollMax are deletes.
+ * <p>
+ * An insert, delete or batch that takes slowNanos or more is counted as
+ * slow and emitted as a wavl.SlowOperation JFR event, when a recording has
+ * it enabled.
+ * <p>
+ * The counters can be read, and reset, from any thread while the tree is
+ * in use. A tree without metrics pays one null check per operation.
+ */
+public class WAVLMetrics {
+    /** the longest search path a WAVL tree of int keys can have */
+    public static final int MAX_PATH = 2 * Integer.SIZE;
+    private static final long DEFAULT_SLOW_NANOS = 1_000_000;
+
+    private final long slowNanos;
+    private final LongAdder promotions = new LongAdder();
+    private final LongAdder demotions = new LongAdder();
+    private final LongAdder rotations = new LongAdder();
+    private final LongAdder doubleRotations = new LongAdder();
+    private final LongAdder inserts = new LongAdder();
+    private final LongAdder deletes = new LongAdder();
+    private final LongAdder slow = new LongAdder();
+    // paths.get(d) is the number of searches that visited d nodes
+    private final AtomicLongArray paths = new AtomicLongArray(MAX_PATH + 1);
+
+    /**
+     * public WAVLMetrics()
+     * <p>
+     * metrics that count operations of 1ms or more as slow
+     */
+    public WAVLMetrics() {
+        this(DEFAULT_SLOW_NANOS);
+    }
+
+    /**
+     * public WAVLMetrics(long slowNanos)
+     * <p>
+     * metrics that count inserts, deletes and batches of slowNanos or more
+     * as slow
+     */
+    public WAVLMetrics(long slowNanos) {
+        if (slowNanos < 0) {
+            throw new IllegalArgumentException("slowNanos must not be negative, got " + slowNanos);
+        }
+        this.slowNanos = slowNanos;
+    }
+
+    void promoted() {
+        this.promotions.increment();
+    }
+
+    void demoted(int times) {
+        this.demotions.add(times);
+    }
+
+    void rotated() {
+        this.rotations.increment();
+    }
+
+    void rotatedTwice() {
+        this.doubleRotations.increment();
+    }
+
+    void searched(int path) {
+        this.paths.incrementAndGet(Math.min(path, MAX_PATH));
+    }
+
+    // an insert or delete of key k finished after elapsed nanoseconds
+    void operation(boolean insert, int k, int balancing, int size, long elapsed) {
+        finished(insert ? this.inserts : this.deletes, insert ? "insert" : "delete",
+                k, 1, balancing, size, elapsed);
+    }
+
+    // an insertAll or deleteAll of a batch of keys finished after elapsed
+    // nanoseconds
+    void batch(boolean insert, int keys, int balancing, int size, long elapsed) {
+        finished(insert ? this.inserts : this.deletes, insert ? "insertAll" : "deleteAll",
+                0, keys, balancing, size, elapsed);
+    }
+
+    // one finished call, counted in calls
+    private void finished(LongAdder calls, String operation, int k, int keys, int balancing, int size,
+            long elapsed) {
+        calls.increment();
+        if (elapsed < this.slowNanos) {
+            return;
+        }
+        this.slow.increment();
+        SlowOperation event = new SlowOperation();
+        if (event.isEnabled()) {
+            event.operation = operation;
+            event.key = k;
+            event.keys = keys;
+            event.rebalancing = balancing;
+            event.size = size;
+            event.elapsed = elapsed;
+            event.commit();
+        }
+    }
+
+    /**
+     * public long promotions()
+     * <p>
+     * Returns the number of rank promotions by insert rebalancing
+     */
+    public long promotions() {
+        return this.promotions.sum();
+    }
+
+    /**
+     * public long demotions()
+     * <p>
+     * Returns the number of rank demotions by delete rebalancing, a double
+     * demote counts as two
+     */
+    public long demotions() {
+        return this.demotions.sum();
+    }
+
+    /**
+     * public long rotations()
+     * <p>
+     * Returns the number of single rotations
+     */
+    public long rotations() {
+        return this.rotations.sum();
+    }
+
+    /**
+     * public long doubleRotations()
+     * <p>
+     * Returns the number of double rotations
+     */
+    public long doubleRotations() {
+        return this.doubleRotations.sum();
+    }
+
+    /**
+     * public long inserts()
+     * <p>
+     * Returns the number of insert and insertAll calls
+     */
+    public long inserts() {
+        return this.inserts.sum();
+    }
+
+    /**
+     * public long deletes()
+     * <p>
+     * Returns the number of delete, deleteAll, pollMin and pollMax calls
+     */
+    public long deletes() {
+        return this.deletes.sum();
+    }
+
+    /**
+     * public long slowOperations()
+     * <p>
+     * Returns the number of inserts, deletes and batches that took
+     * slowNanos or more
+     */
+    public long slowOperations() {
+        return this.slow.sum();
+    }
+
+    /**
+     * public long searches()
+     * <p>
+     * Returns the number of search calls
+     */
+    public long searches() {
+        long total = 0;
+        for (int d = 0; d <= MAX_PATH; d++) {
+            total += this.paths.get(d);
+        }
+        return total;
+    }
+
+    /**
+     * public long[] searchPaths()
+     * <p>
+     * Returns the search path histogram: element d is the number of searches
+     * that visited d nodes, for d from 0 to MAX_PATH
+     */
+    public long[] searchPaths() {
+        long[] arr = new long[MAX_PATH + 1];
+        for (int d = 0; d <= MAX_PATH; d++) {
+            arr[d] = this.paths.get(d);
+        }
+        return arr;
+    }
+
+    /**
+     * public void reset()
+     * <p>
+     * sets every counter back to zero. counts made while it runs may be
+     * kept or lost
+     */
+    public void reset() {
+        this.promotions.reset();
+        this.demotions.reset();
+        this.rotations.reset();
+        this.doubleRotations.reset();
+        this.inserts.reset();
+        this.deletes.reset();
+        this.slow.reset();
+        for (int d = 0; d <= MAX_PATH; d++) {
+            this.paths.set(d, 0);
+        }
+    }
+
+    @Name("wavl.SlowOperation")
+    @Label("Slow WAVL Operation")
+    @Description("An insert, delete or batch that took at least the slow threshold of its WAVLMetrics")
+    @Category("WAVL")
+    static final class SlowOperation extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Key")
+        @Description("The key of an insert or delete, 0 for a batch")
+        int key;
+
+        @Label("Keys")
+        @Description("The keys in the batch, 1 for an insert or delete")
+        int keys;
+
+        @Label("Rebalancing")
+        int rebalancing;
+
+        @Label("Tree Size")
+        int size;
+
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+    }
+}
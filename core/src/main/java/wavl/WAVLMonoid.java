@@ -0,0 +1,107 @@
+package wavl;
+
+import java.util.function.BinaryOperator;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * WAVLMonoid
+ * <p>
+ * An aggregate a WAVLTree keeps for every subtree, registered with
+ * WAVLTree.setAggregate and read with WAVLTree.aggregate(monoid, lo, hi).
+ * lift turns one item into an aggregate, combine joins the aggregates of
+ * two key ranges (left holds the smaller keys) and must be associative with
+ * identity as its neutral element. combine need not be commutative.
+ */
+public interface WAVLMonoid<A> {
+
+    /**
+     * public A identity()
+     * <p>
+     * Returns the aggregate of no items
+     */
+    A identity();
+
+    /**
+     * public A lift(int key, String value)
+     * <p>
+     * Returns the aggregate of the single item key, value
+     */
+    A lift(int key, String value);
+
+    /**
+     * public A combine(A left, A right)
+     * <p>
+     * Returns the aggregate of the items of left followed by those of right
+     */
+    A combine(A left, A right);
+
+    /**
+     * public static WAVLMonoid of(A identity, Lift lift, BinaryOperator combine)
+     * <p>
+     * Returns the monoid made of the three parts
+     */
+    static <A> WAVLMonoid<A> of(A identity, Lift<A> lift, BinaryOperator<A> combine) {
+        return new WAVLMonoid<A>() {
+            public A identity() {
+                return identity;
+            }
+
+            public A lift(int key, String value) {
+                return lift.apply(key, value);
+            }
+
+            public A combine(A left, A right) {
+                return combine.apply(left, right);
+            }
+        };
+    }
+
+    /**
+     * public static WAVLMonoid sum(ToLongFunction number)
+     * <p>
+     * Returns the sum of number(value) over the items, 0 for none
+     */
+    static WAVLMonoid<Long> sum(ToLongFunction<String> number) {
+        return of(0L, (k, v) -> number.applyAsLong(v), Long::sum);
+    }
+
+    /**
+     * public static WAVLMonoid min(ToLongFunction number)
+     * <p>
+     * Returns the smallest number(value) of the items, Long.MAX_VALUE for
+     * none
+     */
+    static WAVLMonoid<Long> min(ToLongFunction<String> number) {
+        return of(Long.MAX_VALUE, (k, v) -> number.applyAsLong(v), Math::min);
+    }
+
+    /**
+     * public static WAVLMonoid max(ToLongFunction number)
+     * <p>
+     * Returns the largest number(value) of the items, Long.MIN_VALUE for
+     * none
+     */
+    static WAVLMonoid<Long> max(ToLongFunction<String> number) {
+        return of(Long.MIN_VALUE, (k, v) -> number.applyAsLong(v), Math::max);
+    }
+
+    /**
+     * public static WAVLMonoid count(Predicate test)
+     * <p>
+     * Returns the number of items whose value passes test
+     */
+    static WAVLMonoid<Integer> count(Predicate<String> test) {
+        return of(0, (k, v) -> test.test(v) ? 1 : 0, Integer::sum);
+    }
+
+    /**
+     * public interface Lift
+     * <p>
+     * the aggregate of one item, with the key unboxed
+     */
+    @FunctionalInterface
+    interface Lift<A> {
+        A apply(int key, String value);
+    }
+}
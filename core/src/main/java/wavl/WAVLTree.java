@@ -0,0 +1,3102 @@
+package wavl;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * WAVLTree
+ * <p>
+ * An implementation of a WAVL Tree with distinct integer keys and info
+ */
+//students and id:
+//username: eyalkazula ID:209133693 name: Eyal Kazula
+//username: yuvalyehudab ID:203769609 name: Yuval_barak
+
+public class WAVLTree {
+    // below this many keys fromSorted builds a subtree on the calling thread
+    private static final int PARALLEL_BUILD_THRESHOLD = 1 << 14;
+    // below this many keys in both operands a set operation runs sequentially
+    private static final int PARALLEL_SET_THRESHOLD = 1 << 13;
+    // below this many keys searchAll runs on the calling thread
+    private static final int PARALLEL_SEARCH_THRESHOLD = 1 << 12;
+    // searches searchAll walks down the tree side by side
+    private static final int SEARCH_LANES = 8;
+    // set operations, see setNodes
+    private static final int UNION = 0;
+    private static final int INTERSECTION = 1;
+    private static final int DIFFERENCE = 2;
+    // subTreeSize of a node whose size is out of date during a batch
+    private static final int STALE_SIZE = -1;
+    // save/load file format: "WAVL", version, flags, count, then the keys,
+    // the ranks if FILE_RANKS (one byte each) and the values, every section
+    // in key order. a value is its UTF-8 length, -1 for null, and its bytes
+    private static final int FILE_MAGIC = 0x5741564C;
+    private static final int FILE_VERSION = 1;
+    private static final int FILE_RANKS = 1;
+    // a WAVL tree of at most 2^31 keys has ranks below this
+    private static final int MAX_RANK = 64;
+
+    // there is one virtual Node in all the tree - all linked to him
+    private final WAVLNode virtualNode = new WAVLNode(-1, null, false, -1);
+    private WAVLNode root;
+    private WAVLNode minimum;
+    private WAVLNode maximum;
+    // the last node insert placed, insert searches from it. null when unset
+    private WAVLNode finger;
+    // true while insertAll/deleteAll run, sizes are only marked stale then
+    private boolean batching;
+    // insert evicts an item past capacity items, see WAVLTree(int, boolean)
+    private final int capacity;
+    private final boolean keepLargest;
+    // null unless metrics were attached, checked once per operation
+    private WAVLMetrics metrics;
+    // writes skip rebalancing and mark the nodes above them dirty
+    private boolean relaxed;
+    // kept per subtree next to subTreeSize, null if none is registered
+    private WAVLMonoid<Object> monoid;
+
+    public WAVLTree() {
+        //empty tree
+        this(Integer.MAX_VALUE, true);
+    }
+
+    /**
+     * public WAVLTree(int capacity, boolean keepLargest)
+     * <p>
+     * an empty tree that holds at most capacity items, for top-K tracking.
+     * an insert into a full tree evicts the smallest item if keepLargest,
+     * the largest otherwise, and an item that would be evicted right away is
+     * not inserted at all. the trees split, join and the set operations
+     * return are not bounded.
+     */
+    public WAVLTree(int capacity, boolean keepLargest) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive, got " + capacity);
+        }
+        this.root = this.virtualNode;
+        minimum=this.virtualNode;
+        maximum=this.virtualNode;
+        this.capacity = capacity;
+        this.keepLargest = keepLargest;
+    }
+
+    /**
+     * public static WAVLTree fromSorted(int[] keys, String[] values)
+     * <p>
+     * builds a tree holding keys[i] with info values[i] in linear time,
+     * without any insert or rebalancing. the keys must be strictly
+     * increasing. inputs of PARALLEL_BUILD_THRESHOLD keys or more are built
+     * with the two halves of every subtree running in parallel on the common
+     * fork-join pool.
+     */
+    public static WAVLTree fromSorted(int[] keys, String[] values) {
+        //O(n) work, O(logn) span
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("keys and values differ in length");
+        }
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i - 1] >= keys[i]) {
+                throw new IllegalArgumentException(
+                        "keys are not strictly increasing at index " + i);
+            }
+        }
+        WAVLTree tree = new WAVLTree();
+        if (keys.length == 0) {
+            return tree;
+        }
+        if (keys.length < PARALLEL_BUILD_THRESHOLD) {
+            tree.root = tree.buildSorted(keys, values, 0, keys.length);
+        } else {
+            tree.root = ForkJoinPool.commonPool().invoke(
+                    tree.new SortedBuild(keys, values, 0, keys.length));
+        }
+        WAVLNode temp = tree.root;
+        while (temp.left.isReal) {
+            temp = temp.left;
+        }
+        tree.minimum = temp;
+        temp = tree.root;
+        while (temp.right.isReal) {
+            temp = temp.right;
+        }
+        tree.maximum = temp;
+        return tree;
+    }
+
+    // @pre lo < hi
+    // @post return the root of a subtree holding keys[lo..hi), its parent is null
+    private WAVLNode buildSorted(int[] keys, String[] values, int lo, int hi) {
+        //O(hi-lo)
+        int mid = (lo + hi) >>> 1;
+        WAVLNode node = new WAVLNode(keys[mid], values[mid]);
+        node.left = lo < mid ? buildSorted(keys, values, lo, mid) : this.virtualNode;
+        node.right = mid + 1 < hi ? buildSorted(keys, values, mid + 1, hi) : this.virtualNode;
+        linkChildren(node);
+        threadChildren(node);
+        return node;
+    }
+
+    // set the parent of node's children and node's size and rank from them.
+    // both halves of a middle split differ in height by at most one, so
+    // rank = height keeps every rank difference 1 or 2
+    private void linkChildren(WAVLNode node) {
+        //O(1)
+        if (node.left.isReal) {
+            node.left.parent = node;
+        }
+        if (node.right.isReal) {
+            node.right.parent = node;
+        }
+        node.subTreeSize = node.left.subTreeSize + node.right.subTreeSize + 1;
+        node.rank = Math.max(node.left.rank, node.right.rank) + 1;
+        if (this.monoid != null) {
+            aggregateOf(node);
+        }
+    }
+
+    // thread node between the last node of its left subtree and the first of
+    // its right subtree, whose own threads are already in place
+    private void threadChildren(WAVLNode node) {
+        //O(rank(node)), O(n) summed over a whole build
+        thread(lastNode(node.left), node);
+        thread(node, firstNode(node.right));
+    }
+
+    // make b the next node of a in key order, either may be virtual
+    private static void thread(WAVLNode a, WAVLNode b) {
+        //O(1)
+        if (a.isReal) {
+            a.next = b.isReal ? b : null;
+        }
+        if (b.isReal) {
+            b.prev = a.isReal ? a : null;
+        }
+    }
+
+    // @post return the smallest node under node, virtual if node is
+    private static WAVLNode firstNode(WAVLNode node) {
+        //O(rank(node))
+        if (node.isReal) {
+            while (node.left.isReal) {
+                node = node.left;
+            }
+        }
+        return node;
+    }
+
+    // @post return the largest node under node, virtual if node is
+    private static WAVLNode lastNode(WAVLNode node) {
+        //O(rank(node))
+        if (node.isReal) {
+            while (node.right.isReal) {
+                node = node.right;
+            }
+        }
+        return node;
+    }
+
+    // fromSorted on the fork-join pool, small ranges fall back to buildSorted
+    private class SortedBuild extends RecursiveTask<WAVLNode> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] keys;
+        private final String[] values;
+        private final int lo;
+        private final int hi;
+
+        SortedBuild(int[] keys, String[] values, int lo, int hi) {
+            this.keys = keys;
+            this.values = values;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected WAVLNode compute() {
+            if (this.hi - this.lo < PARALLEL_BUILD_THRESHOLD) {
+                return buildSorted(this.keys, this.values, this.lo, this.hi);
+            }
+            int mid = (this.lo + this.hi) >>> 1;
+            SortedBuild leftHalf = new SortedBuild(this.keys, this.values, this.lo, mid);
+            leftHalf.fork();
+            WAVLNode node = new WAVLNode(this.keys[mid], this.values[mid]);
+            node.right = new SortedBuild(this.keys, this.values, mid + 1, this.hi).compute();
+            node.left = leftHalf.join();
+            linkChildren(node);
+            threadChildren(node);
+            return node;
+        }
+    }
+
+    /**
+     * public boolean empty()
+     * <p>
+     * returns true if and only if the tree is empty
+     */
+    public boolean empty() {
+        //O(1)
+        //if the root is virtaul its means the tree is empty
+        return !this.root.isReal;
+    }
+
+    /**
+     * public String search(int k)
+     * <p>
+     * returns the info of an item with key k if it exists in the tree
+     * otherwise, returns null
+     */
+    public String search(int k) {
+        //O(logn)
+        if (this.metrics != null) {
+            return searchMeasured(k);
+        }
+        //simple bst search
+        WAVLNode temp = this.root;
+        while (temp.isReal) {
+            if (temp.key == k) {
+                return temp.value;
+            }
+            if (temp.key > k) {
+                temp = temp.left;
+            } else {
+                temp = temp.right;
+            }
+
+        }
+        return null;
+    }
+
+    // search that records its path length
+    private String searchMeasured(int k) {
+        //O(logn)
+        int path = 0;
+        WAVLNode temp = this.root;
+        while (temp.isReal) {
+            path++;
+            if (temp.key == k) {
+                break;
+            }
+            temp = temp.key > k ? temp.left : temp.right;
+        }
+        this.metrics.searched(path);
+        return temp.value;
+    }
+
+    /**
+     * public int searchAll(int[] keys, String[] out)
+     * <p>
+     * searches every key of keys and sets out[j] to the info of keys[j], or
+     * null if it is not in the tree, like calling search on each in turn.
+     * SEARCH_LANES searches walk down the tree side by side, one level each
+     * per round, so the memory loads of different keys overlap instead of
+     * each waiting for the one before it. batches of
+     * PARALLEL_SEARCH_THRESHOLD keys or more are split over the common
+     * fork-join pool. a tree with metrics searches one key at a time, so
+     * every path is counted. returns the number of keys found.
+     */
+    public int searchAll(int[] keys, String[] out) {
+        //O(m logn) work for m keys, O(logn + m/p logn) span on p threads
+        if (out.length < keys.length) {
+            throw new IllegalArgumentException("out is shorter than keys");
+        }
+        if (this.metrics != null) {
+            int found = 0;
+            for (int j = 0; j < keys.length; j++) {
+                out[j] = searchMeasured(keys[j]);
+                found += out[j] != null ? 1 : 0;
+            }
+            return found;
+        }
+        if (keys.length < PARALLEL_SEARCH_THRESHOLD) {
+            return searchLanes(keys, out, 0, keys.length);
+        }
+        return ForkJoinPool.commonPool().invoke(new SearchAll(keys, out, 0, keys.length));
+    }
+
+    // searchAll of keys[from..to), SEARCH_LANES keys at a time
+    private int searchLanes(int[] keys, String[] out, int from, int to) {
+        //O((to - from) logn)
+        WAVLNode[] lanes = new WAVLNode[SEARCH_LANES];
+        int found = 0;
+        for (int base = from; base < to; base += SEARCH_LANES) {
+            int width = Math.min(SEARCH_LANES, to - base);
+            Arrays.fill(lanes, 0, width, this.root);
+            // a lane stops on its key or on the virtual node, the round in
+            // which no lane moves is the last
+            boolean moved = true;
+            while (moved) {
+                moved = false;
+                for (int l = 0; l < width; l++) {
+                    WAVLNode temp = lanes[l];
+                    int k = keys[base + l];
+                    if (temp.isReal && temp.key != k) {
+                        lanes[l] = temp.key > k ? temp.left : temp.right;
+                        moved = true;
+                    }
+                }
+            }
+            for (int l = 0; l < width; l++) {
+                out[base + l] = lanes[l].value;
+                found += lanes[l].isReal ? 1 : 0;
+            }
+        }
+        return found;
+    }
+
+    // searchAll of keys[lo..hi), halved until it is below
+    // PARALLEL_SEARCH_THRESHOLD. the tree is only read
+    private class SearchAll extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] keys;
+        private final String[] out;
+        private final int lo;
+        private final int hi;
+
+        SearchAll(int[] keys, String[] out, int lo, int hi) {
+            this.keys = keys;
+            this.out = out;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (this.hi - this.lo < PARALLEL_SEARCH_THRESHOLD) {
+                return searchLanes(this.keys, this.out, this.lo, this.hi);
+            }
+            int mid = (this.lo + this.hi) >>> 1;
+            SearchAll leftHalf = new SearchAll(this.keys, this.out, this.lo, mid);
+            leftHalf.fork();
+            int found = new SearchAll(this.keys, this.out, mid, this.hi).compute();
+            return found + leftHalf.join();
+        }
+    }
+
+    /**
+     * public IWAVLNode floor(int k)
+     * <p>
+     * returns the node with the largest key <= k, or null if there is none
+     */
+    public IWAVLNode floor(int k) {
+        //O(logn) to locate k, O(1) from there
+        WAVLNode temp = locate(k);
+        if (!temp.isReal) {
+            return null;
+        }
+        return temp.key <= k ? temp : temp.prev;
+    }
+
+    /**
+     * public IWAVLNode ceiling(int k)
+     * <p>
+     * returns the node with the smallest key >= k, or null if there is none
+     */
+    public IWAVLNode ceiling(int k) {
+        //O(logn) to locate k, O(1) from there
+        WAVLNode temp = locate(k);
+        if (!temp.isReal) {
+            return null;
+        }
+        return temp.key >= k ? temp : temp.next;
+    }
+
+    /**
+     * public IWAVLNode successor(int k)
+     * <p>
+     * returns the node with the smallest key > k, or null if there is none.
+     * k does not have to be in the tree.
+     */
+    public IWAVLNode successor(int k) {
+        //O(logn) to locate k, O(1) from there
+        WAVLNode temp = locate(k);
+        if (!temp.isReal) {
+            return null;
+        }
+        return temp.key > k ? temp : temp.next;
+    }
+
+    /**
+     * public IWAVLNode predecessor(int k)
+     * <p>
+     * returns the node with the largest key < k, or null if there is none.
+     * k does not have to be in the tree.
+     */
+    public IWAVLNode predecessor(int k) {
+        //O(logn) to locate k, O(1) from there
+        WAVLNode temp = locate(k);
+        if (!temp.isReal) {
+            return null;
+        }
+        return temp.key < k ? temp : temp.prev;
+    }
+
+    // @post return the node with key k, or else the last real node on the
+    // search path of k (k's floor or ceiling), virtual if the tree is empty
+    private WAVLNode locate(int k) {
+        //O(logn)
+        WAVLNode last = this.virtualNode;
+        WAVLNode temp = this.root;
+        while (temp.isReal) {
+            last = temp;
+            if (temp.key == k) {
+                return temp;
+            }
+            temp = temp.key > k ? temp.left : temp.right;
+        }
+        return last;
+    }
+
+    /**
+     * public int insert(int k, String i)
+     * <p>
+     * inserts an item with key k and info i to the WAVL tree. the tree must
+     * remain valid (keep its invariants). returns the number of rebalancing
+     * operations, or 0 if no rebalancing operations were necessary. returns -1
+     * if an item with key k already exists in the tree.
+     * <p>
+     * a key above the maximum or below the minimum is hung under it without
+     * a search. any other key is searched from the previously inserted node
+     * rather than from the root, so runs of nearby keys (near-sorted
+     * timestamps) only walk the part of the tree between them.
+     * <p>
+     * in a bounded tree the count includes the rebalancing of the eviction
+     * an insert causes, and an item that is not kept returns 0.
+     */
+    public int insert(int k, String i) {
+        // O(logn), O(1) search for appends and O(log d) for a key d away from the last insert
+        if (this.metrics == null) {
+            return insertBounded(k, i);
+        }
+        long start = System.nanoTime();
+        int balancing = insertBounded(k, i);
+        this.metrics.operation(true, k, balancing, size(), System.nanoTime() - start);
+        return balancing;
+    }
+
+    // insert with the capacity check
+    private int insertBounded(int k, String i) {
+        if (this.size() >= this.capacity
+                && (this.keepLargest ? k < this.minimum.key : k > this.maximum.key)) {
+            return 0;
+        }
+        int balancing = place(k, i);
+        if (balancing != -1 && this.size() > this.capacity) {
+            balancing += deleteFound(this.keepLargest ? this.minimum : this.maximum);
+        }
+        return balancing;
+    }
+
+    // insert without the capacity check
+    private int place(int k, String i) {
+        WAVLNode temp = new WAVLNode(k, i);// rank temp=0
+        temp.right = this.virtualNode;
+        temp.left = this.virtualNode;
+        // empty tree
+        if (this.empty()) {
+            if (this.monoid != null) {
+                aggregateOf(temp);
+            }
+            this.root = temp;
+            this.minimum=temp;
+            this.maximum=temp;
+            this.finger=temp;
+            return 0;
+        }
+        WAVLNode newParent;
+        if (k > this.maximum.key) {
+            newParent = this.maximum;
+        } else if (k < this.minimum.key) {
+            newParent = this.minimum;
+        } else {
+            newParent = findInsertParent(climb(this.finger, k), k);
+        }
+        // if already exist
+        if (!newParent.isReal) {
+            return -1;
+        }
+        this.finger = temp;
+        return insertUnder(newParent, temp);
+    }
+
+    // @pre newParent is the real parent findInsertParent returned for temp.key
+    private int insertUnder(WAVLNode newParent, WAVLNode temp) {
+        // O(logn)
+        int balancing = 0;
+        int k = temp.key;
+        temp.parent = newParent;
+        if (this.monoid != null) {
+            aggregateOf(temp);
+        }
+        if(temp.key<this.minimum.getKey()){
+            this.minimum=temp;
+        }
+        if(temp.key>this.maximum.getKey()){
+            this.maximum=temp;
+        }
+        if (this.relaxed) {
+            // link only, newParent may now have a 0 child
+            if (k > newParent.key) {
+                newParent.right = temp;
+            } else {
+                newParent.left = temp;
+            }
+            threadNew(temp);
+            growSizes(newParent);
+            markDirty(newParent);
+            if (!this.batching) {
+                boundDepth(temp);
+            }
+            return 0;
+        }
+
+        // case 1 parent is leaf
+
+        if (isLeaf(newParent)) {
+            if (k > newParent.key) {
+                newParent.right = temp;
+            } else {
+                newParent.left = temp;
+            }
+            threadNew(temp);
+            growSizes(newParent);
+            // do balance if need
+            balancing = balanceInsert(newParent, 0);
+
+        } else {
+            // case 2 parent is unary no need to balance
+            if (!newParent.left.isReal) {
+                newParent.left = temp;
+            } else {
+                newParent.right = temp;
+            }
+            threadNew(temp);
+            // update size
+            growSizes(newParent);
+        }
+
+        return balancing;
+    }
+
+    // thread a new leaf in next to its parent
+    private void threadNew(WAVLNode temp) {
+        //O(1)
+        WAVLNode parent = temp.parent;
+        if (parent.left == temp) {
+            thread(parent.prev != null ? parent.prev : this.virtualNode, temp);
+            thread(temp, parent);
+        } else {
+            thread(temp, parent.next != null ? parent.next : this.virtualNode);
+            thread(parent, temp);
+        }
+    }
+
+    // add one to the size of c and all its ancestors, while a batch is
+    // running only mark them stale
+    private void growSizes(WAVLNode c) {
+        //O(logn)
+        if (this.batching) {
+            markSizes(c);
+            return;
+        }
+        for (WAVLNode a = c; a != null; a = a.parent) {
+            a.subTreeSize++;
+        }
+        refreshAggregates(c);
+    }
+
+    // subtract one from the size of c and all its ancestors, while a batch
+    // is running only mark them stale
+    private void shrinkSizes(WAVLNode c) {
+        //O(logn)
+        if (this.batching) {
+            markSizes(c);
+            return;
+        }
+        for (WAVLNode a = c; a != null; a = a.parent) {
+            a.subTreeSize--;
+        }
+        refreshAggregates(c);
+    }
+
+    // stale sizes are closed upwards (every ancestor of a stale node is
+    // stale) so the walk stops at the first stale ancestor and every node is
+    // marked at most once per batch
+    private void markSizes(WAVLNode c) {
+        //O(1) amortized over a batch
+        while (c != null && c.subTreeSize != STALE_SIZE) {
+            c.subTreeSize = STALE_SIZE;
+            c = c.parent;
+        }
+    }
+
+    // recompute the stale sizes in node's subtree, only stale nodes are visited.
+    // a post-order walk over the parent links, not a recursion: a relaxed
+    // tree can be as deep as it is large. a child is fixed once its size is
+    // no longer stale, so the walk needs no stack
+    private int fixSizes(WAVLNode node) {
+        //O(number of stale nodes)
+        WAVLNode c = node;
+        while (node.subTreeSize == STALE_SIZE) {
+            if (c.left.subTreeSize == STALE_SIZE) {
+                c = c.left;
+            } else if (c.right.subTreeSize == STALE_SIZE) {
+                c = c.right;
+            } else {
+                c.subTreeSize = c.left.subTreeSize + c.right.subTreeSize + 1;
+                if (this.monoid != null) {
+                    aggregateOf(c);
+                }
+                c = c.parent;
+            }
+        }
+        return node.subTreeSize;
+    }
+
+    // recompute the aggregates of c and all its ancestors, after a change
+    // under c. while a batch is running fixSizes does it for the stale nodes
+    private void refreshAggregates(WAVLNode c) {
+        //O(logn)
+        if (this.monoid == null || this.batching) {
+            return;
+        }
+        for (; c != null; c = c.parent) {
+            aggregateOf(c);
+        }
+    }
+
+    // @pre the aggregates of node's children are up to date
+    private void aggregateOf(WAVLNode node) {
+        //O(1)
+        node.aggregate = this.monoid.combine(this.monoid.combine(aggregate(node.left),
+                this.monoid.lift(node.key, node.value)), aggregate(node.right));
+    }
+
+    // the aggregate of node's subtree, the identity for a virtual node
+    private Object aggregate(WAVLNode node) {
+        return node.isReal ? node.aggregate : this.monoid.identity();
+    }
+
+    /**
+     * public int insertAll(int[] keys, String[] values)
+     * <p>
+     * inserts keys[j] with info values[j] for every j, like calling insert
+     * on each pair in turn: a key already in the tree, or repeated in the
+     * batch, keeps its first info. the batch is sorted and every key is
+     * searched from the previous one instead of from the root, and the
+     * subtree sizes are brought up to date once for the whole batch. returns
+     * the total number of rebalancing operations of the inserted keys
+     * (duplicates add nothing). a bounded tree evicts down to its capacity
+     * after the batch, the evictions count too.
+     */
+    public int insertAll(int[] keys, String[] values) {
+        //O(m logm + m log(n/m+1)) for m keys, rebalancing O(1) amortized per key
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("keys and values differ in length");
+        }
+        if (this.metrics == null) {
+            return insertBatch(keys, values);
+        }
+        long start = System.nanoTime();
+        int balancing = insertBatch(keys, values);
+        this.metrics.batch(true, keys.length, balancing, size(), System.nanoTime() - start);
+        return balancing;
+    }
+
+    // insertAll of a checked batch, without the metrics
+    private int insertBatch(int[] keys, String[] values) {
+        // key in the high bits, index in the low bits: equal keys keep
+        // their batch order so the first one wins, like repeated inserts
+        long[] order = new long[keys.length];
+        for (int j = 0; j < keys.length; j++) {
+            order[j] = ((long) keys[j] << 32) | j;
+        }
+        Arrays.sort(order);
+        int balancing = 0;
+        WAVLNode finger = null;
+        // a relaxed batch bounds the depth of its nodes once the sizes are
+        // fixed, boundDepth needs them
+        WAVLNode[] added = this.relaxed ? new WAVLNode[order.length] : null;
+        int count = 0;
+        this.batching = true;
+        try {
+            for (long o : order) {
+                int j = (int) o;
+                if (this.empty()) {
+                    place(keys[j], values[j]);
+                    finger = this.root;
+                    continue;
+                }
+                WAVLNode newParent = findInsertParent(climb(finger, keys[j]), keys[j]);
+                if (!newParent.isReal) {
+                    continue;
+                }
+                WAVLNode temp = new WAVLNode(keys[j], values[j]);
+                temp.right = this.virtualNode;
+                temp.left = this.virtualNode;
+                balancing += insertUnder(newParent, temp);
+                finger = temp;
+                if (added != null) {
+                    added[count++] = temp;
+                }
+            }
+        } finally {
+            this.batching = false;
+            fixSizes(this.root);
+        }
+        for (int j = 0; j < count; j++) {
+            boundDepth(added[j]);
+        }
+        while (this.size() > this.capacity) {
+            balancing += deleteFound(this.keepLargest ? this.minimum : this.maximum);
+        }
+        return balancing;
+    }
+
+    /**
+     * public int deleteAll(int[] keys)
+     * <p>
+     * deletes every key of keys that is in the tree, like calling delete on
+     * each in turn. the batch is sorted and every key is searched from the
+     * previous one instead of from the root, and the subtree sizes are
+     * brought up to date once for the whole batch. returns the total number
+     * of rebalancing operations of the deleted keys (missing keys add
+     * nothing).
+     */
+    public int deleteAll(int[] keys) {
+        //O(m logm + m log(n/m+1)) for m keys, rebalancing O(1) amortized per key
+        if (this.metrics == null) {
+            return deleteBatch(keys);
+        }
+        long start = System.nanoTime();
+        int balancing = deleteBatch(keys);
+        this.metrics.batch(false, keys.length, balancing, size(), System.nanoTime() - start);
+        return balancing;
+    }
+
+    // deleteAll without the metrics
+    private int deleteBatch(int[] keys) {
+        int[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        int balancing = 0;
+        WAVLNode finger = null;
+        this.batching = true;
+        try {
+            for (int j = 0; j < sorted.length && !this.empty(); j++) {
+                int k = sorted[j];
+                if (j > 0 && sorted[j - 1] == k) {
+                    continue;
+                }
+                // the next finger is the last node left of k on the way
+                // down, it is never the node that gets deleted
+                WAVLNode temp = climb(finger, k);
+                while (temp.isReal && temp.key != k) {
+                    if (temp.key < k) {
+                        finger = temp;
+                        temp = temp.right;
+                    } else {
+                        temp = temp.left;
+                    }
+                }
+                if (temp.isReal) {
+                    balancing += deleteFound(temp);
+                }
+            }
+        } finally {
+            this.batching = false;
+            fixSizes(this.root);
+        }
+        return balancing;
+    }
+
+    // @pre finger == null or finger is in the tree
+    // @post return an ancestor of finger whose subtree spans k, the root if
+    // there is no finger
+    private WAVLNode climb(WAVLNode finger, int k) {
+        //O(log d) where d is the rank distance between finger and k
+        if (finger == null) {
+            return this.root;
+        }
+        // stopping below a parent with a bigger key means finger is a left
+        // child and k lies between finger.key and that parent
+        if (finger.key <= k) {
+            while (finger != this.root && finger.parent.key <= k) {
+                finger = finger.parent;
+            }
+        } else {
+            while (finger != this.root && finger.parent.key >= k) {
+                finger = finger.parent;
+            }
+        }
+        return finger;
+    }
+
+    /*
+     * @pre x==y.left||x==y.right
+     */
+    private void rotate(WAVLNode x, WAVLNode y) {
+        //O(1)
+        WAVLNode c;
+        if (this.root == y) {
+            this.root = x;
+        } else {
+
+            if (y.parent.right == y) {
+                y.parent.right = x;
+            } else {
+                y.parent.left = x;
+            }
+        }
+        x.parent = y.parent;
+        y.parent = x;
+
+        if (x == y.left) {
+            c = x.left;
+            y.left = x.right;
+            if (x.right.isReal) {
+                x.right.parent = y;
+            }
+            x.right = y;
+        } else {
+            c = x.right;
+            y.right = x.left;
+            if (x.left.isReal) {
+                x.left.parent = y;
+            }
+            x.left = y;
+        }
+        if (this.batching) {
+            // both stay stale, x took y's place so its parent is stale too
+            y.subTreeSize = STALE_SIZE;
+            x.subTreeSize = STALE_SIZE;
+            return;
+        }
+        y.subTreeSize = y.right.subTreeSize + y.left.subTreeSize + 1;
+        x.subTreeSize = y.subTreeSize + c.subTreeSize + 1;
+        if (this.monoid != null) {
+            aggregateOf(y);
+            aggregateOf(x);
+        }
+
+    }
+
+    private int balanceInsert(WAVLNode newParent, int balancing) {
+        //w.c O(logn)
+        WAVLNode temp;
+        if (newParent != null) {
+            // we didnt promoted root
+
+            if (newParent.rank - newParent.left.rank == 0) {
+                if (newParent.rank - newParent.right.rank == 1) {
+                    // newParent is 0/1 need promote
+                    newParent.rank++;
+                    promoted();
+                    balancing = balanceInsert(newParent.parent, balancing)+1;
+                } else {
+                    // newParent is 0/2 node
+                    if (newParent.left.rank - newParent.left.left.rank == 1
+                            && newParent.left.rank - newParent.left.right.rank == 1) {
+                        // 1,1 child, only made by joinNodes: rotate and
+                        // promote the child, it may be a 0 child itself now
+                        temp = newParent.left;
+                        rotate(temp, newParent);
+                        temp.rank++;
+                        rotated();
+                        promoted();
+                        balancing = balanceInsert(temp.parent, balancing) + 2;
+                    } else if (newParent.left.rank - newParent.left.right.rank == 2) {
+                        // case 2 in presentation need single rotation
+                        rotate(newParent.left, newParent);
+                        newParent.rank--;
+                        rotated();
+                        balancing += 1;
+                    } else {
+                        // case 3 presentation double rotation
+                        newParent.left.right.rank++;
+                        newParent.left.rank--;
+                        rotate(newParent.left.right, newParent.left);
+                        rotate(newParent.left, newParent);
+                        newParent.rank--;
+                        rotatedTwice();
+                        balancing += 2;
+
+                    }
+
+                }
+            } else {
+                if (newParent.rank - newParent.right.rank == 0) {
+                    if (newParent.rank - newParent.left.rank == 1) {
+                        // new parent is 1/0 need promote
+                        newParent.rank++;
+                        promoted();
+                        balancing = balanceInsert(newParent.parent,
+                                balancing )+1;
+                    } else {
+                        // new parent is 2/0 node
+                        if (newParent.right.rank - newParent.right.right.rank == 1
+                                && newParent.right.rank - newParent.right.left.rank == 1) {
+                            // 1,1 child, only made by joinNodes
+                            temp = newParent.right;
+                            rotate(temp, newParent);
+                            temp.rank++;
+                            rotated();
+                            promoted();
+                            balancing = balanceInsert(temp.parent, balancing) + 2;
+                        } else if (newParent.right.rank - newParent.right.left.rank == 2) {
+                            // one roteation
+                            rotate(newParent.right, newParent);
+                            newParent.rank--;
+                            rotated();
+                            balancing += 1;
+
+                        } else {
+                            // double rotate
+                            newParent.right.left.rank++;
+                            newParent.right.rank--;
+                            rotate(newParent.right.left, newParent.right);
+                            rotate(newParent.right, newParent);
+                            newParent.rank--;
+                            rotatedTwice();
+                            balancing += 2;
+                        }
+
+                    }
+                }
+
+            }
+        }
+        return balancing;
+
+    }
+
+    // rebalancing steps for the metrics, if any are attached
+    private void promoted() {
+        if (this.metrics != null) {
+            this.metrics.promoted();
+        }
+    }
+
+    private void demoted(int times) {
+        if (this.metrics != null) {
+            this.metrics.demoted(times);
+        }
+    }
+
+    private void rotated() {
+        if (this.metrics != null) {
+            this.metrics.rotated();
+        }
+    }
+
+    private void rotatedTwice() {
+        if (this.metrics != null) {
+            this.metrics.rotatedTwice();
+        }
+    }
+
+    private boolean isLeaf(WAVLNode temp) {
+        //O(1)
+        //check if temp is leaf
+        if (!temp.right.isReal && !temp.left.isReal) {
+            return true;
+        }
+        return false;
+    }
+
+    // @pre from is a real node whose subtree spans k
+    // @post return new parent of k and virtual node if k already exist
+    private WAVLNode findInsertParent(WAVLNode from, int k) {
+        //O(logn)
+        WAVLNode temp = from;
+        WAVLNode child;
+        if (k == temp.key) {
+            return this.virtualNode;
+        }
+        if (k > temp.key) {
+            child = temp.right;
+        } else {
+            child = temp.left;
+        }
+        while (child.isReal) {
+            temp = child;
+            if (k == child.key) {
+                return this.virtualNode;
+            }
+            if (k > child.key) {
+                child = child.right;
+            } else {
+                child = child.left;
+            }
+
+        }
+        return temp;
+    }
+
+    /**
+     * public int delete(int k)
+     * <p>
+     * deletes an item with key k from the binary tree, if it is there; the tree
+     * must remain valid (keep its invariants). returns the number of
+     * rebalancing operations, or 0 if no rebalancing operations were needed.
+     * returns -1 if an item with key k was not found in the tree.
+     */
+    public int delete(int k) {
+        //O(logn)
+        if (this.metrics == null) {
+            WAVLNode deleteNode = findDeleteNode(k);
+            return deleteNode.isReal ? deleteFound(deleteNode) : -1;
+        }
+        long start = System.nanoTime();
+        WAVLNode deleteNode = findDeleteNode(k);
+        int balancing = deleteNode.isReal ? deleteFound(deleteNode) : -1;
+        this.metrics.operation(false, k, balancing, size(), System.nanoTime() - start);
+        return balancing;
+    }
+
+    // @pre deleteNode is a real node of this tree
+    private int deleteFound(WAVLNode deleteNode) {
+        //O(logn)
+        int balancing = 0;
+        WAVLNode before = deleteNode.prev != null ? deleteNode.prev : this.virtualNode;
+        WAVLNode after = deleteNode.next != null ? deleteNode.next : this.virtualNode;
+        if(this.minimum==deleteNode){
+            this.minimum=after;
+        }
+        if(this.maximum==deleteNode){
+            this.maximum=before;
+        }
+        if(this.finger==deleteNode){
+            this.finger=null;
+        }
+        balancing = deleteThisNode(deleteNode);
+        thread(before, after);
+        deleteNode.prev = null;
+        deleteNode.next = null;
+        return balancing;
+    }
+
+    private int deleteThisNode(WAVLNode deleteNode) {
+        WAVLNode successor;
+        int balancing = 0;
+
+        if (deleteNode.right.isReal && deleteNode.left.isReal) {
+            // inner node
+            // replace with succsessor and delete succsessor
+
+            successor = deleteNode.next;
+            balancing += deleteThisNode(successor);
+            successor.rank = deleteNode.rank;
+            successor.right = deleteNode.right;
+            successor.left = deleteNode.left;
+            successor.parent = deleteNode.parent;
+            successor.subTreeSize = deleteNode.subTreeSize;
+            successor.dirty = deleteNode.dirty;
+            deleteNode.right.parent = successor;
+            deleteNode.left.parent = successor;
+            if (this.root == deleteNode) {
+                this.root = successor;
+            } else {
+                if (deleteNode.parent.right == deleteNode) {
+                    deleteNode.parent.right = successor;
+                } else {
+                    deleteNode.parent.left = successor;
+                }
+            }
+            // the aggregates from here up still hold deleteNode's item
+            refreshAggregates(successor);
+
+
+        } else {
+            // leaf or unary
+
+            if (isLeaf(deleteNode)) {
+                // leaf
+                if (this.root == deleteNode) {
+                    this.root = this.virtualNode;
+                } else {
+                    if (deleteNode.parent.right == deleteNode) {
+                        // right leaf
+                        deleteNode.parent.right = this.virtualNode;
+                    } else {
+                        // left leaf
+                        deleteNode.parent.left = this.virtualNode;
+                    }
+                }
+            } else {
+                // unary
+                WAVLNode child = null;
+                if (this.root == deleteNode) {
+                    // delete the root
+                    if (deleteNode.right.isReal) {
+                        child = deleteNode.right;
+                    } else {
+                        child = deleteNode.left;
+                    }
+
+                    this.root = child;
+                } else {
+                    // not root connect child to parent and balance parent
+
+                    if (deleteNode.parent.right == deleteNode) {
+                        // deletedNode > deletedNode.parent
+
+                        if (deleteNode.right.isReal) {
+                            // right child unary
+                            deleteNode.parent.right = deleteNode.right;
+                            child = deleteNode.right;
+
+                        } else {
+                            // left child unary
+                            deleteNode.parent.right = deleteNode.left;
+                            child = deleteNode.left;
+                        }
+
+                    } else {
+                        // deletedNode < deletedNode.parent
+                        if (deleteNode.right.isReal) {
+                            // right child unary
+                            deleteNode.parent.left = deleteNode.right;
+                            child = deleteNode.right;
+
+                        } else {
+                            // left child unary
+                            deleteNode.parent.left = deleteNode.left;
+                            child = deleteNode.left;
+                        }
+
+                    }
+
+                }
+                child.parent = deleteNode.parent;
+            }
+            shrinkSizes(deleteNode.parent);
+            if (!this.relaxed) {
+                balancing = balanceDelete(deleteNode.parent, balancing);
+            } else if (deleteNode.parent != null) {
+                // unlink only, the parent may now have a 3 child or more
+                markDirty(deleteNode.parent);
+            }
+        }
+
+        return balancing;
+
+    }
+
+    private int balanceDelete(WAVLNode node, int balancing) {
+        //w.c O(logn)
+        if (node == null) {
+            // we promoted root
+            return balancing;
+        }
+        if (isLeaf(node)) {
+            if (node.rank == 1) {
+                // 2,2 leaf need demote
+                node.rank--;
+                demoted(1);
+                balancing = balanceDelete(node.parent, balancing )+1;
+            }
+        } else {
+            if (node.rank - node.left.rank == 3) {
+                if (node.rank - node.right.rank == 2) {
+                    // 3,2 node need demote
+                    node.rank--;
+                    demoted(1);
+                    balancing = balanceDelete(node.parent, balancing )+1;
+                } else {
+                    // 3,1 node
+                    if (node.right.rank - node.right.right.rank == 2
+                            && node.right.rank - node.right.left.rank == 2) {
+                        // case 2 presentation double demote
+                        node.rank--;
+                        node.right.rank--;
+                        demoted(2);
+                        balancing = balanceDelete(node.parent, balancing )+2;
+
+                    } else {
+                        if (node.right.rank - node.right.right.rank == 1) {
+                            // case 3 rotate
+                            node.right.rank++;
+                            rotate(node.right, node);
+                            node.rank--;
+                            rotated();
+                            balancing += 1;
+                            if (isLeaf(node)
+                                    && node.rank - node.right.rank == 2) {
+                                // 2,2 leaf after roteation
+                                node.rank--;
+                                demoted(1);
+                                balancing += 1;
+
+                            }
+
+                        } else {
+                            // case 4 double rotate
+                            node.right.rank--;
+                            node.right.left.rank += 2;
+                            rotate(node.right.left, node.right);
+                            rotate(node.right, node);
+                            node.rank -= 2;
+                            rotatedTwice();
+                            balancing += 2;
+
+                        }
+                    }
+                }
+            }
+
+        }
+        if (node.rank - node.right.rank == 3) {
+            if (node.rank - node.left.rank == 2) {
+                // 2,3 node demote
+                node.rank--;
+                demoted(1);
+                balancing = balanceDelete(node.parent, balancing )+1;
+            } else {
+                // 1,3 node
+                if (node.left.rank - node.left.right.rank == 2
+                        && node.left.rank - node.left.left.rank == 2) {
+                    // case 2 presentation double demote
+                    node.rank--;
+                    node.left.rank--;
+                    demoted(2);
+                    balancing = balanceDelete(node.parent, balancing )+2;
+                } else {
+                    if (node.left.rank - node.left.left.rank == 1) {
+                        // case 3 rotate
+                        node.left.rank++;
+                        rotate(node.left, node);
+                        node.rank--;
+                        rotated();
+
+                        balancing += 1;
+                        if (isLeaf(node) && node.rank - node.left.rank == 2) {
+                            // 2,2 leaf after roteation
+                            node.rank--;
+                            demoted(1);
+                            balancing += 1;
+
+                        }
+                    } else {
+                        // case 4 double rotate
+                        node.left.rank--;
+                        node.left.right.rank += 2;
+                        rotate(node.left.right, node.left);
+                        rotate(node.left, node);
+                        node.rank -= 2;
+                        rotatedTwice();
+
+                        balancing += 2;
+
+                    }
+                }
+            }
+        }
+        return balancing;
+    }
+
+    // return node to delete if not found return this virtual node
+    private WAVLNode findDeleteNode(int k) {
+        //o(logn)
+        WAVLNode temp = this.root;
+        while (temp.isReal) {
+            if (k == temp.key) {
+                return temp;
+            }
+            if (k > temp.key) {
+                temp = temp.right;
+            } else {
+                temp = temp.left;
+            }
+        }
+        return temp;
+    }
+
+
+    /**
+     * public static WAVLTree join(WAVLTree left, int k, String i, WAVLTree right)
+     * <p>
+     * returns a tree holding every item of left, an item with key k and info
+     * i, and every item of right. every key of left must be smaller than k
+     * and every key of right bigger than k. left and right are left empty,
+     * their nodes now belong to the returned tree.
+     */
+    public static WAVLTree join(WAVLTree left, int k, String i, WAVLTree right) {
+        //O(|rank(left)-rank(right)|+1)
+        left.rebalance();
+        right.rebalance();
+        if (!left.empty() && left.maximum.key >= k
+                || !right.empty() && right.minimum.key <= k) {
+            throw new IllegalArgumentException(
+                    "left keys must be smaller than " + k + " and right keys bigger");
+        }
+        WAVLTree tree = new WAVLTree();
+        WAVLNode x = tree.new WAVLNode(k, i);
+        tree.root = tree.joinNodes(left.root, x, right.root);
+        tree.minimum = left.empty() ? x : left.minimum;
+        tree.maximum = right.empty() ? x : right.maximum;
+        thread(left.maximum, x);
+        thread(x, right.minimum);
+        left.clear();
+        right.clear();
+        return tree;
+    }
+
+    /**
+     * public WAVLTree[] split(int k)
+     * <p>
+     * splits the tree at k: returns {a tree of every item with key smaller
+     * than k, a tree of every item with key k or bigger}. this tree is left
+     * empty, its nodes now belong to the returned trees.
+     */
+    public WAVLTree[] split(int k) {
+        //O(logn)
+        rebalance();
+        WAVLNode[] parts = splitNodes(this.root, k);
+        WAVLTree less = new WAVLTree();
+        WAVLTree atLeast = new WAVLTree();
+        less.adopt(parts[0]);
+        if (parts[1] != null) {
+            // k itself goes back as the smallest item of the right part
+            atLeast.adopt(atLeast.joinNodes(atLeast.virtualNode, parts[1], parts[2]));
+        } else {
+            atLeast.adopt(parts[2]);
+        }
+        this.clear();
+        return new WAVLTree[]{less, atLeast};
+    }
+
+    /**
+     * public int deleteRange(int lo, int hi)
+     * <p>
+     * deletes every item with lo <= key <= hi and returns how many there
+     * were. the tree is split at lo and at hi and the outer parts are joined
+     * again, so the items in between are cut out as whole subtrees and the
+     * rank rules are restored along the two split paths only, however many
+     * items go. the tree keeps its settings (metrics, aggregate, capacity).
+     * a relaxed tree is rebalanced first.
+     */
+    public int deleteRange(int lo, int hi) {
+        //O(logn), the cut out items are left to the garbage collector
+        if (lo > hi || this.empty()) {
+            return 0;
+        }
+        rebalance();
+        int before = size();
+        WAVLNode[] low = splitNodes(this.root, lo);
+        WAVLNode[] high = splitNodes(low[2], hi);
+        WAVLNode last = low[0];
+        while (last.isReal && last.right.isReal) {
+            last = last.right;
+        }
+        WAVLNode first = high[2];
+        while (first.isReal && first.left.isReal) {
+            first = first.left;
+        }
+        adopt(join2Nodes(low[0], high[2]));
+        if (last.isReal && first.isReal) {
+            thread(last, first);
+        }
+        return before - size();
+    }
+
+    /**
+     * public int retainRange(int lo, int hi)
+     * <p>
+     * deletes every item whose key is smaller than lo or bigger than hi, all
+     * of them if lo > hi, and returns how many there were. like deleteRange
+     * the tree is split at lo and at hi, and the middle part is kept.
+     */
+    public int retainRange(int lo, int hi) {
+        //O(logn), the cut out items are left to the garbage collector
+        int before = size();
+        if (lo > hi) {
+            this.clear();
+            return before;
+        }
+        if (this.empty()) {
+            return 0;
+        }
+        rebalance();
+        WAVLNode[] low = splitNodes(this.root, lo);
+        WAVLNode atLeast = low[1] != null ? joinNodes(this.virtualNode, low[1], low[2]) : low[2];
+        WAVLNode[] high = splitNodes(atLeast, hi);
+        adopt(high[1] != null ? joinNodes(high[0], high[1], this.virtualNode) : high[0]);
+        return before - size();
+    }
+
+    // @post return {root of the keys < k, the node with key k or null,
+    // root of the keys > k}, empty parts are a virtual node. node's subtree
+    // is taken apart, this.root is used as scratch by the joins
+    private WAVLNode[] splitNodes(WAVLNode node, int k) {
+        //O(rank(node)), the join costs telescope along the search path
+        if (!node.isReal) {
+            return new WAVLNode[]{node, null, node};
+        }
+        WAVLNode l = node.left;
+        WAVLNode r = node.right;
+        detachChildren(node);
+        WAVLNode[] parts;
+        if (k == node.key) {
+            parts = new WAVLNode[]{l, node, r};
+        } else if (k < node.key) {
+            parts = splitNodes(l, k);
+            parts[2] = joinNodes(parts[2], node, r);
+        } else {
+            parts = splitNodes(r, k);
+            parts[0] = joinNodes(l, node, parts[0]);
+        }
+        return parts;
+    }
+
+    // make node's children roots of their own, node's fields are left as is
+    private void detachChildren(WAVLNode node) {
+        //O(1)
+        if (node.left.isReal) {
+            node.left.parent = null;
+        }
+        if (node.right.isReal) {
+            node.right.parent = null;
+        }
+    }
+
+    // @pre every key under l < every key under r, l and r are roots or virtual
+    // @post return the root of a valid tree of l and r
+    private WAVLNode join2Nodes(WAVLNode l, WAVLNode r) {
+        //O(logn)
+        if (!r.isReal) {
+            return l;
+        }
+        // r's smallest node becomes the middle of a regular join
+        WAVLNode first = r;
+        while (first.left.isReal) {
+            first = first.left;
+        }
+        WAVLNode[] parts = splitNodes(r, first.key);
+        return joinNodes(l, parts[1], parts[2]);
+    }
+
+    /**
+     * public static WAVLTree union(WAVLTree a, WAVLTree b)
+     * <p>
+     * returns a tree of every item of a and every item of b, a key in both
+     * keeps its info from a. a and b are left empty.
+     */
+    public static WAVLTree union(WAVLTree a, WAVLTree b) {
+        //O(m log(n/m+1)) work for m <= n, O(log^2 n) span
+        return setOperation(UNION, a, b);
+    }
+
+    /**
+     * public static WAVLTree intersection(WAVLTree a, WAVLTree b)
+     * <p>
+     * returns a tree of the items of a whose key is also in b, with their
+     * info from a. a and b are left empty.
+     */
+    public static WAVLTree intersection(WAVLTree a, WAVLTree b) {
+        //O(m log(n/m+1)) work for m <= n, O(log^2 n) span
+        return setOperation(INTERSECTION, a, b);
+    }
+
+    /**
+     * public static WAVLTree difference(WAVLTree a, WAVLTree b)
+     * <p>
+     * returns a tree of the items of a whose key is not in b. a and b are
+     * left empty.
+     */
+    public static WAVLTree difference(WAVLTree a, WAVLTree b) {
+        //O(m log(n/m+1)) work for m <= n, O(log^2 n) span
+        return setOperation(DIFFERENCE, a, b);
+    }
+
+    // operands of PARALLEL_SET_THRESHOLD keys or more run their two halves
+    // in parallel on the common fork-join pool
+    private static WAVLTree setOperation(int op, WAVLTree a, WAVLTree b) {
+        a.rebalance();
+        b.rebalance();
+        WAVLTree tree = new WAVLTree();
+        if (a == b) {
+            // the same nodes cannot be split against themselves
+            if (op != DIFFERENCE) {
+                tree.adopt(a.root);
+            }
+            a.clear();
+            return tree;
+        }
+        WAVLNode ra = a.root;
+        WAVLNode rb = b.root;
+        a.clear();
+        b.clear();
+        if (ra.subTreeSize + rb.subTreeSize < PARALLEL_SET_THRESHOLD) {
+            tree.adopt(tree.setNodes(op, ra, rb));
+        } else {
+            tree.adopt(ForkJoinPool.commonPool().invoke(tree.new SetOperation(op, ra, rb)));
+        }
+        return tree;
+    }
+
+    // @pre a and b are roots or virtual
+    // @post return the root of op(a, b). b is split at a's key, both halves
+    // recurse and a's node goes back in the middle if op keeps it
+    private WAVLNode setNodes(int op, WAVLNode a, WAVLNode b) {
+        //O(m log(n/m+1))
+        if (!a.isReal) {
+            return op == UNION ? b : a;
+        }
+        if (!b.isReal) {
+            return op == INTERSECTION ? b : a;
+        }
+        WAVLNode l = a.left;
+        WAVLNode r = a.right;
+        detachChildren(a);
+        WAVLNode[] parts = splitNodes(b, a.key);
+        WAVLNode left = setNodes(op, l, parts[0]);
+        WAVLNode right = setNodes(op, r, parts[2]);
+        return combine(op, left, a, parts[1] != null, right);
+    }
+
+    // join the results of both halves, with a's node if op keeps it
+    private WAVLNode combine(int op, WAVLNode left, WAVLNode a, boolean inB, WAVLNode right) {
+        //O(logn)
+        boolean keep = op == UNION || (op == INTERSECTION) == inB;
+        // the halves are threaded inside, thread their ends to each other
+        WAVLNode last = lastNode(left);
+        WAVLNode first = firstNode(right);
+        if (keep) {
+            thread(last, a);
+            thread(a, first);
+            return joinNodes(left, a, right);
+        }
+        thread(last, first);
+        return join2Nodes(left, right);
+    }
+
+    // setNodes on the fork-join pool. the joins use the enclosing tree's
+    // root as scratch, so every forked half gets a fresh enclosing tree
+    private class SetOperation extends RecursiveTask<WAVLNode> {
+        private static final long serialVersionUID = 1L;
+
+        private final int op;
+        private final WAVLNode a;
+        private final WAVLNode b;
+
+        SetOperation(int op, WAVLNode a, WAVLNode b) {
+            this.op = op;
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        protected WAVLNode compute() {
+            if (!this.a.isReal || !this.b.isReal
+                    || this.a.subTreeSize + this.b.subTreeSize < PARALLEL_SET_THRESHOLD) {
+                return setNodes(this.op, this.a, this.b);
+            }
+            WAVLNode l = this.a.left;
+            WAVLNode r = this.a.right;
+            detachChildren(this.a);
+            WAVLNode[] parts = splitNodes(this.b, this.a.key);
+            SetOperation leftHalf = new WAVLTree().new SetOperation(this.op, l, parts[0]);
+            leftHalf.fork();
+            WAVLNode right = new SetOperation(this.op, r, parts[2]).compute();
+            WAVLNode left = leftHalf.join();
+            return combine(this.op, left, this.a, parts[1] != null, right);
+        }
+    }
+
+    // @pre every key under l < x.key < every key under r, l and r are roots
+    // (null parent) or virtual, x is detached
+    // @post return the root of a valid tree of l, x and r, this.root is
+    // left pointing to it
+    private WAVLNode joinNodes(WAVLNode l, WAVLNode x, WAVLNode r) {
+        //O(|rank(l)-rank(r)|+1)
+        WAVLNode p = null;
+        WAVLNode c = null;
+        if (l.rank > r.rank + 1) {
+            // hang x and r on the right spine of l, where it drops to r's rank
+            this.root = l;
+            c = l;
+            while (c.rank > r.rank + 1) {
+                p = c;
+                c = c.right;
+            }
+            p.right = x;
+            x.left = c;
+            x.right = r;
+        } else if (r.rank > l.rank + 1) {
+            // hang l and x on the left spine of r
+            this.root = r;
+            c = r;
+            while (c.rank > l.rank + 1) {
+                p = c;
+                c = c.left;
+            }
+            p.left = x;
+            x.left = l;
+            x.right = c;
+        } else {
+            // ranks within one, x is the new root
+            this.root = x;
+            x.left = l;
+            x.right = r;
+        }
+        x.parent = p;
+        // both children are within one rank of each other, so x is 1,1 or 1,2
+        linkChildren(x);
+        if (p == null) {
+            return x;
+        }
+        // x is at most a 0 child of p, fix sizes above it and rebalance as
+        // after an insert
+        int added = x.subTreeSize - c.subTreeSize;
+        for (WAVLNode a = p; a != null; a = a.parent) {
+            a.subTreeSize += added;
+        }
+        refreshAggregates(p);
+        balanceInsert(p, 0);
+        return this.root;
+    }
+
+    // make root (a detached root or a virtual node) the root of this tree
+    private void adopt(WAVLNode root) {
+        //O(logn)
+        this.root = root;
+        this.finger = null;
+        WAVLNode temp = root;
+        if (temp.isReal) {
+            temp.parent = null;
+            while (temp.left.isReal) {
+                temp = temp.left;
+            }
+        }
+        this.minimum = temp;
+        temp = root;
+        if (temp.isReal) {
+            while (temp.right.isReal) {
+                temp = temp.right;
+            }
+        }
+        this.maximum = temp;
+        // the ends may still be threaded to nodes that went elsewhere
+        if (root.isReal) {
+            this.minimum.prev = null;
+            this.maximum.next = null;
+        }
+    }
+
+    // empty the tree without touching its nodes, used after they moved
+    private void clear() {
+        //O(1)
+        this.root = this.virtualNode;
+        this.minimum = this.virtualNode;
+        this.maximum = this.virtualNode;
+        this.finger = null;
+    }
+
+    /**
+     * public String pollMin()
+     * <p>
+     * deletes the item with the smallest key and returns its info, or
+     * returns null if the tree is empty. the item is unlinked at the
+     * minimum pointer, which moves to its successor, without a search.
+     */
+    public String pollMin() {
+        //O(1) amortized rebalancing, O(logn) to update the sizes
+        if (this.empty()) {
+            return null;
+        }
+        return poll(this.minimum);
+    }
+
+    /**
+     * public String pollMax()
+     * <p>
+     * deletes the item with the largest key and returns its info, or returns
+     * null if the tree is empty, like pollMin.
+     */
+    public String pollMax() {
+        //O(1) amortized rebalancing, O(logn) to update the sizes
+        if (this.empty()) {
+            return null;
+        }
+        return poll(this.maximum);
+    }
+
+    // deletes node, which is the minimum or the maximum, as a delete of its key
+    private String poll(WAVLNode node) {
+        if (this.metrics == null) {
+            deleteFound(node);
+            return node.value;
+        }
+        long start = System.nanoTime();
+        int balancing = deleteFound(node);
+        this.metrics.operation(false, node.key, balancing, size(), System.nanoTime() - start);
+        return node.value;
+    }
+
+    /**
+     * public String min()
+     * <p>
+     * Returns the info of the item with the smallest key in the tree, or null
+     * if the tree is empty
+     */
+    public String min() {
+        //O(1)
+        if (this.empty()) {
+            return null;
+
+        }
+     return this.minimum.value;
+    }
+
+    /**
+     * public String max()
+     * <p>
+     * Returns the info of the item with the largest key in the tree, or null if
+     * the tree is empty
+     */
+    public String max() {
+        //O(1)
+        if (this.empty()) {
+            return null;
+
+        }
+     return this.maximum.value;
+    }
+
+    /**
+     * public int[] keysToArray()
+     * <p>
+     * Returns a sorted array which contains all keys in the tree, or an empty
+     * array if the tree is empty.
+     */
+    public int[] keysToArray() {
+        //O(n)
+        int[] arr = new int[this.root.subTreeSize];
+        if (this.empty()) {
+            return arr;
+        }
+        // follow the threads, no recursion
+        int index = 0;
+        for (WAVLNode temp = this.minimum; temp != null; temp = temp.next) {
+            arr[index++] = temp.key;
+        }
+        return arr;
+    }
+
+    /**
+     * public String[] infoToArray()
+     * <p>
+     * Returns an array which contains all info in the tree, sorted by their
+     * respective keys, or an empty array if the tree is empty.
+     */
+    public String[] infoToArray() {
+        //O(n)
+        String[] arr = new String[this.root.subTreeSize];
+        if (this.empty()) {
+            return arr;
+        }
+        int index = 0;
+        for (WAVLNode temp = this.minimum; temp != null; temp = temp.next) {
+            arr[index++] = temp.value;
+        }
+        return arr;
+    }
+
+    /**
+     * public FrozenWAVLIndex freeze()
+     * <p>
+     * Returns an immutable copy of the tree laid out for fast searches, see
+     * FrozenWAVLIndex. the tree itself is left as it is, FrozenWAVLIndex.thaw
+     * goes back.
+     */
+    public FrozenWAVLIndex freeze() {
+        //O(n)
+        return new FrozenWAVLIndex(keysToArray(), infoToArray());
+    }
+
+    /**
+     * public void save(Path file)
+     * <p>
+     * writes the tree to file, ranks included, see save(Path, boolean)
+     */
+    public void save(Path file) throws IOException {
+        save(file, true);
+    }
+
+    /**
+     * public void save(Path file, boolean withRanks)
+     * <p>
+     * writes the items to file in a compact binary format: the keys as
+     * packed ints and the values as length-prefixed UTF-8. withRanks adds one
+     * byte per item so that load rebuilds this exact shape, without them
+     * load builds a perfectly balanced tree. a relaxed tree is rebalanced
+     * first when the ranks are saved.
+     */
+    public void save(Path file, boolean withRanks) throws IOException {
+        //O(n)
+        if (withRanks) {
+            rebalance();
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(withRanks ? FILE_RANKS : 0);
+            out.writeInt(size());
+            for (WAVLNode temp = this.minimum; temp != null; temp = temp.next) {
+                out.writeInt(temp.key);
+            }
+            if (withRanks) {
+                for (WAVLNode temp = this.minimum; temp != null; temp = temp.next) {
+                    out.writeByte(temp.rank);
+                }
+            }
+            for (WAVLNode temp = this.minimum; temp != null; temp = temp.next) {
+                if (temp.value == null) {
+                    out.writeInt(-1);
+                } else {
+                    byte[] bytes = temp.value.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+        }
+    }
+
+    /**
+     * public static WAVLTree load(Path file)
+     * <p>
+     * reads a tree written by save. the file is memory mapped and the tree
+     * is built in linear time, with the saved shape if the ranks were saved
+     * and with fromSorted otherwise. a file that is not a valid save throws
+     * IOException.
+     */
+    public static WAVLTree load(Path file) throws IOException {
+        //O(n)
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedInput in = new MappedInput(channel);
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                throw new IOException(file + " is not a saved WAVLTree");
+            }
+            int flags = in.readInt();
+            int n = in.readInt();
+            // every item takes its key, its value length and maybe a rank,
+            // so a corrupt count fails here and not in the allocations
+            long itemBytes = 2L * Integer.BYTES + ((flags & FILE_RANKS) != 0 ? 1 : 0);
+            if (n < 0 || n > in.remaining() / itemBytes) {
+                throw new IOException("bad item count " + n + " for " + in.remaining()
+                        + " bytes of items");
+            }
+            int[] keys = new int[n];
+            in.readInts(keys);
+            byte[] ranks = null;
+            if ((flags & FILE_RANKS) != 0) {
+                ranks = new byte[n];
+                in.readBytes(ranks, n);
+            }
+            String[] values = new String[n];
+            byte[] scratch = new byte[64];
+            for (int i = 0; i < n; i++) {
+                int length = in.readInt();
+                if (length < -1 || length > in.remaining()) {
+                    throw new IOException("bad value length " + length);
+                }
+                if (length >= 0) {
+                    if (length > scratch.length) {
+                        scratch = new byte[Math.max(length, 2 * scratch.length)];
+                    }
+                    in.readBytes(scratch, length);
+                    values[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+                }
+            }
+            try {
+                if (ranks == null) {
+                    return fromSorted(keys, values);
+                }
+                WAVLTree tree = new WAVLTree();
+                tree.buildRanked(keys, values, ranks);
+                return tree;
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+    }
+
+    // rebuild the saved shape: a parent outranks its whole subtree, so every
+    // subtree's root is the top rank of its key range (a Cartesian tree,
+    // built left to right on a stack of the right spine)
+    private void buildRanked(int[] keys, String[] values, byte[] ranks) {
+        //O(n)
+        if (keys.length == 0) {
+            return;
+        }
+        // ranks fall strictly up the stack, so it is at most MAX_RANK deep
+        WAVLNode[] stack = new WAVLNode[MAX_RANK + 1];
+        // index of the first key under each stacked node
+        int[] first = new int[MAX_RANK + 1];
+        int top = 0;
+        WAVLNode prev = this.virtualNode;
+        for (int i = 0; i < keys.length; i++) {
+            int rank = ranks[i];
+            if (rank < 0 || rank > MAX_RANK) {
+                throw new IllegalArgumentException("bad rank " + rank + " at index " + i);
+            }
+            if (i > 0 && keys[i - 1] >= keys[i]) {
+                throw new IllegalArgumentException(
+                        "keys are not strictly increasing at index " + i);
+            }
+            WAVLNode node = new WAVLNode(keys[i], values[i]);
+            node.rank = rank;
+            node.right = this.virtualNode;
+            thread(prev, node);
+            prev = node;
+            // the lower ranks on the stack end here and become node's left
+            WAVLNode left = this.virtualNode;
+            int lo = i;
+            while (top > 0 && stack[top - 1].rank < rank) {
+                top--;
+                left = stack[top];
+                lo = first[top];
+                closeRanked(left, first[top], i);
+            }
+            if (top > 0 && stack[top - 1].rank == rank) {
+                throw new IllegalArgumentException("bad rank " + rank + " at index " + i);
+            }
+            node.left = left;
+            if (left.isReal) {
+                left.parent = node;
+            }
+            if (top > 0) {
+                stack[top - 1].right = node;
+                node.parent = stack[top - 1];
+            }
+            stack[top] = node;
+            first[top] = lo;
+            top++;
+        }
+        while (top > 0) {
+            top--;
+            closeRanked(stack[top], first[top], keys.length);
+        }
+        adopt(stack[0]);
+    }
+
+    // node's subtree is complete and spans keys [lo, hi): set its size and
+    // check its rank differences
+    private void closeRanked(WAVLNode node, int lo, int hi) {
+        //O(1)
+        node.subTreeSize = hi - lo;
+        int leftDiff = node.rank - node.left.rank;
+        int rightDiff = node.rank - node.right.rank;
+        if (leftDiff < 1 || leftDiff > 2 || rightDiff < 1 || rightDiff > 2
+                || isLeaf(node) && node.rank != 0) {
+            throw new IllegalArgumentException("bad rank " + node.rank + " at key " + node.key);
+        }
+    }
+
+    // sequential reads from a file through memory mapped windows of WINDOW
+    // bytes, files bigger than one window are remapped as the reads move on
+    private static final class MappedInput {
+        // 1GiB, well under the 2GiB limit of one MappedByteBuffer
+        private static final long WINDOW = 1L << 30;
+
+        private final FileChannel channel;
+        private final long size;
+        private long offset;
+        private MappedByteBuffer buffer;
+
+        MappedInput(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            map(0);
+        }
+
+        private void map(long offset) throws IOException {
+            this.offset = offset;
+            this.buffer = this.channel.map(FileChannel.MapMode.READ_ONLY,
+                    offset, Math.min(WINDOW, this.size - offset));
+        }
+
+        // @post at least bytes bytes are left in the buffer, bytes <= WINDOW
+        private void need(int bytes) throws IOException {
+            if (this.buffer.remaining() < bytes) {
+                long position = this.offset + this.buffer.position();
+                if (this.size - position < bytes) {
+                    throw new IOException("file ends early");
+                }
+                map(position);
+            }
+        }
+
+        // the bytes after the read position
+        long remaining() {
+            return this.size - this.offset - this.buffer.position();
+        }
+
+        int readInt() throws IOException {
+            need(Integer.BYTES);
+            return this.buffer.getInt();
+        }
+
+        void readInts(int[] dst) throws IOException {
+            for (int i = 0; i < dst.length; ) {
+                need(Integer.BYTES);
+                int count = Math.min(dst.length - i, this.buffer.remaining() / Integer.BYTES);
+                this.buffer.asIntBuffer().get(dst, i, count);
+                this.buffer.position(this.buffer.position() + count * Integer.BYTES);
+                i += count;
+            }
+        }
+
+        void readBytes(byte[] dst, int length) throws IOException {
+            for (int i = 0; i < length; ) {
+                need(1);
+                int count = Math.min(length - i, this.buffer.remaining());
+                this.buffer.get(dst, i, count);
+                i += count;
+            }
+        }
+    }
+
+    /**
+     * public int size()
+     * <p>
+     * Returns the number of nodes in the tree.
+     * <p>
+     * precondition: none postcondition: none
+     */
+    public int size() {
+        return this.root.subTreeSize;
+    }
+
+    /**
+     * public void setRelaxed(boolean relaxed)
+     * <p>
+     * in relaxed mode insert and delete only link and unlink nodes and
+     * return 0, the rank rules are restored later by rebalance(). sizes,
+     * min, max and the key order stay exact, so every read is still correct.
+     * an insert that would leave its node deeper than 2log(n+1) repairs the
+     * smallest part of the tree above it that brings it back under, so a
+     * run of adjacent keys (timestamps) costs O(logn) a write, not a path
+     * as long as the run. deletes leave the depths alone.
+     * join, split, the set operations and save with ranks rebalance first.
+     * leaving relaxed mode rebalances the whole tree.
+     */
+    public void setRelaxed(boolean relaxed) {
+        this.relaxed = relaxed;
+        if (!relaxed) {
+            rebalance();
+        }
+    }
+
+    /**
+     * public boolean isRelaxed()
+     * <p>
+     * returns true if and only if the tree is in relaxed mode
+     */
+    public boolean isRelaxed() {
+        return this.relaxed;
+    }
+
+    /**
+     * public boolean needsRebalance()
+     * <p>
+     * returns true if and only if relaxed writes left nodes to rebalance
+     */
+    public boolean needsRebalance() {
+        //O(1)
+        return this.root.dirty;
+    }
+
+    /**
+     * public int rebalance()
+     * <p>
+     * restores the rank rules after relaxed writes, returns the number of
+     * nodes that had to be repaired
+     */
+    public int rebalance() {
+        return rebalance(Integer.MAX_VALUE);
+    }
+
+    /**
+     * public int rebalance(int limit)
+     * <p>
+     * rebalance() in steps: visits at most limit of the nodes relaxed writes
+     * marked, deepest first, and repairs those that break the rank rules.
+     * returns the number of nodes repaired. the tree is balanced once
+     * needsRebalance() is false.
+     */
+    public int rebalance(int limit) {
+        //O(limit + rank changes) amortized, plus one walk down from the root
+        int repaired = 0;
+        WAVLNode node = this.root;
+        for (int visited = 0; node.dirty && visited < limit; visited++) {
+            // marks are closed upwards, so a marked node whose children
+            // are clean has valid subtrees under it
+            while (node.left.dirty || node.right.dirty) {
+                node = node.left.dirty ? node.left : node.right;
+            }
+            WAVLNode p = node.parent;
+            node.dirty = false;
+            if (breaksRanks(node)) {
+                repair(node);
+                repaired++;
+            }
+            node = p != null ? p : this.root;
+        }
+        return repaired;
+    }
+
+    // the height a valid tree of size items can reach: its rank r leaves
+    // at least 2^(r/2+1)-1 items under the root, so r < 2log(size+1)
+    private static int maxHeight(int size) {
+        //O(1)
+        return 2 * (Integer.SIZE - Integer.numberOfLeadingZeros(size));
+    }
+
+    // relaxed inserts never promote, so a run of adjacent keys would hang
+    // in a path as long as the run and every write would walk it. once node
+    // sits deeper than a valid tree of this size can reach, the lowest
+    // subtree above it that fits under that depth when valid is repaired.
+    // the root always fits, so no insert leaves a node deeper than
+    // maxHeight(size())
+    private void boundDepth(WAVLNode node) {
+        //O(logn), plus the repairs
+        int bound = maxHeight(this.root.subTreeSize);
+        int depth = 0;
+        for (WAVLNode a = node; a.parent != null; a = a.parent) {
+            depth++;
+        }
+        if (depth <= bound) {
+            return;
+        }
+        WAVLNode top = node;
+        while (depth + maxHeight(top.subTreeSize) > bound) {
+            top = top.parent;
+            depth--;
+        }
+        rebalanceUnder(top);
+    }
+
+    // rebalance restricted to the subtree of top: every marked node in it
+    // is repaired, deepest first. the marks above top stay
+    private void rebalanceUnder(WAVLNode top) {
+        //O(marked nodes under top + rank changes)
+        WAVLNode above = top.parent;
+        WAVLNode node = top;
+        while (node.dirty) {
+            while (node.left.dirty || node.right.dirty) {
+                node = node.left.dirty ? node.left : node.right;
+            }
+            WAVLNode p = node.parent;
+            node.dirty = false;
+            if (breaksRanks(node)) {
+                repair(node);
+            }
+            if (p == above) {
+                // node was the top of the subtree, now valid as a whole
+                return;
+            }
+            node = p;
+        }
+    }
+
+    // mark c and its ancestors dirty, the walk stops at the first marked one
+    private static void markDirty(WAVLNode c) {
+        //O(1) amortized
+        while (c != null && !c.dirty) {
+            c.dirty = true;
+            c = c.parent;
+        }
+    }
+
+    private static boolean breaksRanks(WAVLNode node) {
+        //O(1)
+        if (!node.left.isReal && !node.right.isReal) {
+            return node.rank != 0;
+        }
+        int l = node.rank - node.left.rank;
+        int r = node.rank - node.right.rank;
+        return l < 1 || l > 2 || r < 1 || r > 2;
+    }
+
+    // @pre both subtrees of node are valid WAVL trees
+    // joins them back through node as joinNodes joins two trees, with the
+    // insert cases, and hangs the result where node was
+    private void repair(WAVLNode node) {
+        //O(|rank(node.left)-rank(node.right)|+1)
+        WAVLNode whole = this.root;
+        WAVLNode g = node.parent;
+        boolean wasLeft = g != null && g.left == node;
+        WAVLNode l = node.left;
+        WAVLNode r = node.right;
+        if (l.isReal) {
+            l.parent = null;
+        }
+        if (r.isReal) {
+            r.parent = null;
+        }
+        node.parent = null;
+        // joinNodes works on this.root, the joined subtree is a whole tree
+        // until it is hung back
+        WAVLNode joined = joinNodes(l, node, r);
+        joined.parent = g;
+        if (g == null) {
+            this.root = joined;
+        } else {
+            this.root = whole;
+            if (wasLeft) {
+                g.left = joined;
+            } else {
+                g.right = joined;
+            }
+        }
+    }
+
+    /**
+     * public void setAggregate(WAVLMonoid monoid)
+     * <p>
+     * registers monoid, replacing any registered before, and computes it for
+     * every subtree. from then on it is kept up to date by every change to
+     * the tree, like the subtree sizes, and aggregate(monoid, lo, hi) reads
+     * it. null unregisters. trees made from this one (split, join, the set
+     * operations, load) start without one.
+     */
+    @SuppressWarnings("unchecked")
+    public <A> void setAggregate(WAVLMonoid<A> monoid) {
+        //O(n)
+        this.monoid = (WAVLMonoid<Object>) monoid;
+        if (monoid == null || this.empty()) {
+            return;
+        }
+        // parents before children, so children first in reverse. a relaxed
+        // tree may be too deep to recurse
+        ArrayList<WAVLNode> order = new ArrayList<>(size());
+        order.add(this.root);
+        for (int j = 0; j < order.size(); j++) {
+            WAVLNode node = order.get(j);
+            if (node.left.isReal) {
+                order.add(node.left);
+            }
+            if (node.right.isReal) {
+                order.add(node.right);
+            }
+        }
+        for (int j = order.size() - 1; j >= 0; j--) {
+            aggregateOf(order.get(j));
+        }
+    }
+
+    /**
+     * public A aggregate(WAVLMonoid monoid, int lo, int hi)
+     * <p>
+     * Returns the registered monoid over the items with lo <= key <= hi, in
+     * key order, the identity if there are none. throws
+     * IllegalArgumentException if monoid is not the registered one.
+     */
+    @SuppressWarnings("unchecked")
+    public <A> A aggregate(WAVLMonoid<A> monoid, int lo, int hi) {
+        //O(logn)
+        if (monoid == null || monoid != this.monoid) {
+            throw new IllegalArgumentException("monoid is not the registered aggregate");
+        }
+        // the highest node in [lo, hi], the range splits around it
+        WAVLNode node = this.root;
+        while (node.isReal && (node.key < lo || node.key > hi)) {
+            node = node.key < lo ? node.right : node.left;
+        }
+        if (!node.isReal || lo > hi) {
+            return monoid.identity();
+        }
+        // keys >= lo in the left subtree, collected right to left
+        Object left = this.monoid.identity();
+        for (WAVLNode t = node.left; t.isReal;) {
+            if (t.key >= lo) {
+                left = this.monoid.combine(this.monoid.combine(
+                        this.monoid.lift(t.key, t.value), aggregate(t.right)), left);
+                t = t.left;
+            } else {
+                t = t.right;
+            }
+        }
+        // keys <= hi in the right subtree, collected left to right
+        Object right = this.monoid.identity();
+        for (WAVLNode t = node.right; t.isReal;) {
+            if (t.key <= hi) {
+                right = this.monoid.combine(right, this.monoid.combine(
+                        aggregate(t.left), this.monoid.lift(t.key, t.value)));
+                t = t.right;
+            } else {
+                t = t.left;
+            }
+        }
+        return (A) this.monoid.combine(this.monoid.combine(left,
+                this.monoid.lift(node.key, node.value)), right);
+    }
+
+    /**
+     * public void setMetrics(WAVLMetrics metrics)
+     * <p>
+     * attaches metrics that count this tree's operations from now on, or
+     * detaches them if metrics is null. insert, delete, pollMin and pollMax
+     * count as one operation each and insertAll and deleteAll as one per
+     * batch, with every rebalancing step they take. search and searchAll
+     * count one search path per key. join, split, deleteRange, retainRange,
+     * the set operations and rebalance() of a relaxed tree are not counted
+     * as operations, and their rank changes only partly show in the step
+     * counters.
+     */
+    public void setMetrics(WAVLMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * public WAVLMetrics getMetrics()
+     * <p>
+     * Returns the attached metrics, or null if there are none
+     */
+    public WAVLMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * public int height()
+     * <p>
+     * Returns the number of edges on the longest root to leaf path, -1 if
+     * the tree is empty. at most 2log(n), and at most rootRank(). it visits
+     * every node, so poll rootRank() instead where the bound will do
+     */
+    public int height() {
+        //O(n)
+        if (!this.root.isReal) {
+            return -1;
+        }
+        // a walk over the parent links, not a recursion: a relaxed tree can
+        // be as deep as it is large. from is the node the walk came from
+        int height = 0;
+        int depth = 0;
+        WAVLNode from = null;
+        WAVLNode c = this.root;
+        while (c != null) {
+            WAVLNode next;
+            if (from == c.parent) {
+                height = Math.max(height, depth);
+                next = c.left.isReal ? c.left : c.right.isReal ? c.right : c.parent;
+            } else if (from == c.left && c.right.isReal) {
+                next = c.right;
+            } else {
+                next = c.parent;
+            }
+            depth += next == c.parent ? -1 : 1;
+            from = c;
+            c = next;
+        }
+        return height;
+    }
+
+    /**
+     * public int rootRank()
+     * <p>
+     * Returns the rank of the root, -1 if the tree is empty. the rank rules
+     * keep it between height() and 2log(n), so it is the O(1) gauge of the
+     * shape. a relaxed tree that needs a rebalance can be deeper
+     */
+    public int rootRank() {
+        //O(1)
+        return this.root.rank;
+    }
+
+    // for the tests: throws IllegalStateException unless the links, sizes,
+    // key order, threads, minimum and maximum are consistent, and the rank
+    // rules hold wherever the subtree is not marked dirty. iterative, a
+    // relaxed tree may be as deep as it is large
+    void checkInvariants() {
+        //O(n)
+        if (!this.root.isReal) {
+            if (this.minimum.isReal || this.maximum.isReal) {
+                throw new IllegalStateException("empty tree with a minimum or maximum");
+            }
+            return;
+        }
+        if (this.root.parent != null) {
+            throw new IllegalStateException("root has a parent");
+        }
+        // in key order with an explicit stack, checked against the threads
+        ArrayList<WAVLNode> order = new ArrayList<>();
+        ArrayList<WAVLNode> stack = new ArrayList<>();
+        for (WAVLNode node = this.root; node.isReal || !stack.isEmpty();) {
+            if (node.isReal) {
+                stack.add(node);
+                node = node.left;
+                continue;
+            }
+            node = stack.remove(stack.size() - 1);
+            order.add(node);
+            node = node.right;
+        }
+        WAVLNode expected = this.minimum;
+        for (int j = 0; j < order.size(); j++) {
+            WAVLNode node = order.get(j);
+            if (node != expected) {
+                throw new IllegalStateException("threads or minimum disagree with the tree at key " + node.key);
+            }
+            if (j > 0 && (order.get(j - 1).key >= node.key || node.prev != order.get(j - 1))) {
+                throw new IllegalStateException("keys out of order at key " + node.key);
+            }
+            expected = node.next;
+        }
+        if (expected != null || order.get(0).prev != null || this.maximum != order.get(order.size() - 1)) {
+            throw new IllegalStateException("threads or maximum disagree with the tree");
+        }
+        // sizes, parents and ranks are local to each node
+        for (WAVLNode node : order) {
+            for (WAVLNode child : new WAVLNode[]{node.left, node.right}) {
+                if (child.isReal && child.parent != node) {
+                    throw new IllegalStateException("wrong parent under key " + node.key);
+                }
+            }
+            if (node.subTreeSize != node.left.subTreeSize + node.right.subTreeSize + 1) {
+                throw new IllegalStateException("wrong size at key " + node.key);
+            }
+            if (!node.dirty && breaksRanks(node)) {
+                throw new IllegalStateException("rank rule broken at key " + node.key);
+            }
+        }
+    }
+
+    /**
+     * public int getRoot()
+     * <p>
+     * Returns the root WAVL node, or null if the tree is empty
+     * <p>
+     * precondition: none postcondition: none
+     */
+    public IWAVLNode getRoot() {
+        if (this.empty()) {
+            return null;
+        }
+        return this.root;
+    }
+
+    /**
+     * public int select(int i)
+     * <p>
+     * Returns the value of the i'th smallest key (return -1 if tree is empty)
+     * Example 1: select(1) returns the value of the node with minimal key
+     * Example 2: select(size()) returns the value of the node with maximal key
+     * Example 3: select(2) returns the value 2nd smallest minimal node, i.e the
+     * value of the node minimal node's successor
+     * <p>
+     * precondition: size() >= i > 0 postcondition: none
+     */
+    public String select(int i) {
+    	//o(log i)
+    	if(this.empty()){
+    		return null;
+    	}
+    	return selectNode(i).getValue();
+    }
+
+	/**
+	 * @param i
+	 */
+	private WAVLNode selectNode(int i) {
+		WAVLNode tmpRoot = this.minimum;
+		if (i == 1){
+			return tmpRoot;
+		}
+		// the minimum's ancestors are its left spine and the subtree of each
+		// holds exactly the ranks 1..size, climb to the first that holds i
+		// (the root at the latest, so the minimum may be the root itself)
+		while (tmpRoot.getSubtreeSize() < i){
+			tmpRoot = tmpRoot.parent;
+		}
+		while (true){
+    		int numOfElementsBefore = tmpRoot.getLeft().getSubtreeSize() + 1;
+    		if (numOfElementsBefore == i){ //we need this element
+    			return tmpRoot;
+    		}
+    		else if(numOfElementsBefore > i){ //its in the left 
+    			tmpRoot = tmpRoot.left;
+    		}
+    		else if (numOfElementsBefore < i) {
+    			i = i - numOfElementsBefore;
+    			tmpRoot = tmpRoot.right;
+    		}
+		}
+	}
+   
+
+    /**
+     * public int rank(int k)
+     * <p>
+     * Returns the number of keys in the tree smaller than or equal to k, so
+     * select(rank(k)) is the info of k when k is in the tree
+     */
+    public int rank(int k) {
+        //O(logn)
+        return countBelow(k, true);
+    }
+
+    /**
+     * public int countRange(int lo, int hi)
+     * <p>
+     * Returns the number of keys k in the tree with lo <= k <= hi
+     */
+    public int countRange(int lo, int hi) {
+        //O(logn)
+        if (lo > hi) {
+            return 0;
+        }
+        return countBelow(hi, true) - countBelow(lo, false);
+    }
+
+    // the number of keys smaller than k, or smaller than or equal to k
+    private int countBelow(int k, boolean inclusive) {
+        //O(logn)
+        int count = 0;
+        WAVLNode temp = this.root;
+        while (temp.isReal) {
+            if (temp.key < k || inclusive && temp.key == k) {
+                // temp and its whole left subtree are below k
+                count += temp.left.subTreeSize + 1;
+                temp = temp.right;
+            } else {
+                temp = temp.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * public String[] selectAll(int[] ranks)
+     * <p>
+     * Returns the info of the ranks[j]'th smallest key at index j, like
+     * calling select on each rank. the ranks may come in any order, they are
+     * sorted and answered in one walk down the tree that splits them at
+     * every node, so each node is visited once for the whole batch. a
+     * relaxed tree is rebalanced first. throws IllegalArgumentException if
+     * a rank is not between 1 and size().
+     */
+    public String[] selectAll(int[] ranks) {
+        //O(m logm + m log(n/m+1)) for m ranks
+        WAVLNode[] nodes = selectNodes(ranks);
+        String[] arr = new String[ranks.length];
+        for (int j = 0; j < ranks.length; j++) {
+            arr[j] = nodes[j].value;
+        }
+        return arr;
+    }
+
+    /**
+     * public int[] rankAll(int[] keys)
+     * <p>
+     * Returns rank(keys[j]) at index j. the keys may come in any order, they
+     * are sorted and answered in one walk down the tree, like selectAll. a
+     * relaxed tree is rebalanced first.
+     */
+    public int[] rankAll(int[] keys) {
+        //O(m logm + m log(n/m+1)) for m keys
+        rebalance();
+        // key in the high bits, index in the low bits, as in insertAll
+        long[] order = new long[keys.length];
+        for (int j = 0; j < keys.length; j++) {
+            order[j] = ((long) keys[j] << 32) | j;
+        }
+        Arrays.sort(order);
+        int[] arr = new int[keys.length];
+        rankWalk(this.root, order, 0, order.length, 0, arr);
+        return arr;
+    }
+
+    /**
+     * public int[] quantiles(double... qs)
+     * <p>
+     * Returns the key at quantile qs[j] at index j, by nearest rank: the
+     * key of rank max(1, ceil(qs[j] * size())), so 0.5 is the median, 0.99
+     * the 99th percentile and 1 the largest key. all of them come from one
+     * selectAll walk. throws IllegalArgumentException if the tree is empty
+     * or a quantile is not between 0 and 1.
+     */
+    public int[] quantiles(double... qs) {
+        //O(m logm + m log(n/m+1)) for m quantiles
+        if (this.empty() && qs.length > 0) {
+            throw new IllegalArgumentException("an empty tree has no quantiles");
+        }
+        int n = size();
+        int[] ranks = new int[qs.length];
+        for (int j = 0; j < qs.length; j++) {
+            if (!(qs[j] >= 0 && qs[j] <= 1)) {
+                throw new IllegalArgumentException("quantile must be between 0 and 1, got " + qs[j]);
+            }
+            ranks[j] = Math.max(1, (int) Math.ceil(qs[j] * n));
+        }
+        WAVLNode[] nodes = selectNodes(ranks);
+        int[] arr = new int[qs.length];
+        for (int j = 0; j < qs.length; j++) {
+            arr[j] = nodes[j].key;
+        }
+        return arr;
+    }
+
+    // the node of rank ranks[j] at index j
+    private WAVLNode[] selectNodes(int[] ranks) {
+        //O(m logm + m log(n/m+1)) for m ranks
+        rebalance();
+        int n = size();
+        long[] order = new long[ranks.length];
+        for (int j = 0; j < ranks.length; j++) {
+            if (ranks[j] < 1 || ranks[j] > n) {
+                throw new IllegalArgumentException(
+                        "rank must be between 1 and " + n + ", got " + ranks[j]);
+            }
+            order[j] = ((long) ranks[j] << 32) | j;
+        }
+        Arrays.sort(order);
+        WAVLNode[] nodes = new WAVLNode[ranks.length];
+        selectWalk(this.root, order, 0, order.length, 0, nodes);
+        return nodes;
+    }
+
+    // @pre the ranks of order[lo..hi) are in node's subtree, offset keys
+    // come before it. recurses left and loops right, so the stack is only
+    // as deep as the tree
+    private void selectWalk(WAVLNode node, long[] order, int lo, int hi, int offset,
+            WAVLNode[] nodes) {
+        while (lo < hi) {
+            int r = offset + node.left.subTreeSize + 1;
+            int mid = firstAtLeast(order, lo, hi, r);
+            int end = firstAtLeast(order, mid, hi, r + 1);
+            if (lo < mid) {
+                selectWalk(node.left, order, lo, mid, offset, nodes);
+            }
+            for (int j = mid; j < end; j++) {
+                nodes[(int) order[j]] = node;
+            }
+            lo = end;
+            offset = r;
+            node = node.right;
+        }
+    }
+
+    // @pre offset keys come before node's subtree and are smaller than the
+    // keys of order[lo..hi), which are smaller than the keys after it
+    private void rankWalk(WAVLNode node, long[] order, int lo, int hi, int offset, int[] arr) {
+        while (lo < hi) {
+            if (!node.isReal) {
+                for (int j = lo; j < hi; j++) {
+                    arr[(int) order[j]] = offset;
+                }
+                return;
+            }
+            int mid = firstAtLeast(order, lo, hi, node.key);
+            if (lo < mid) {
+                rankWalk(node.left, order, lo, mid, offset, arr);
+            }
+            lo = mid;
+            offset += node.left.subTreeSize + 1;
+            node = node.right;
+        }
+    }
+
+    // the first index in [lo, hi) whose high half is at least v, hi if none
+    private static int firstAtLeast(long[] order, int lo, int hi, int v) {
+        //O(log(hi - lo))
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if ((int) (order[mid] >> 32) < v) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * public Cursor cursor()
+     * <p>
+     * Returns a cursor over this tree, positioned after the last key until
+     * it is seeked. one cursor can be seeked again and again.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * public class Cursor
+     * <p>
+     * Walks the keys of a range in ascending order without allocating:
+     * <pre>
+     * for (c.seek(lo, hi); c.valid(); c.next()) { c.getKey() ... }
+     * </pre>
+     * A cursor is invalidated by any change to the tree, seek it again after
+     * an insert or delete.
+     */
+    public class Cursor {
+        private WAVLNode node = virtualNode;
+        private int hi;
+
+        private Cursor() {
+        }
+
+        /**
+         * positions the cursor on the smallest key >= lo, with no upper bound
+         */
+        public Cursor seek(int lo) {
+            return seek(lo, Integer.MAX_VALUE);
+        }
+
+        /**
+         * positions the cursor on the smallest key >= lo, the cursor stops
+         * being valid after the last key <= hi
+         */
+        public Cursor seek(int lo, int hi) {
+            //O(logn)
+            this.hi = hi;
+            this.node = virtualNode;
+            WAVLNode temp = root;
+            while (temp.isReal) {
+                if (temp.key >= lo) {
+                    // candidate, a smaller one can only be on the left
+                    this.node = temp;
+                    temp = temp.left;
+                } else {
+                    temp = temp.right;
+                }
+            }
+            return this;
+        }
+
+        /**
+         * returns true if the cursor is on a key of the range
+         */
+        public boolean valid() {
+            return this.node.isReal && this.node.key <= this.hi;
+        }
+
+        /**
+         * moves to the next key, O(1)
+         * <p>
+         * precondition: valid()
+         */
+        public void next() {
+            WAVLNode temp = this.node.next;
+            this.node = temp != null ? temp : virtualNode;
+        }
+
+        /**
+         * precondition: valid()
+         */
+        public int getKey() {
+            return this.node.key;
+        }
+
+        /**
+         * precondition: valid()
+         */
+        public String getValue() {
+            return this.node.value;
+        }
+    }
+
+    /**
+     * public IntStream keys()
+     * <p>
+     * Returns the keys in ascending order as a stream. the stream splits by
+     * rank using the subtree sizes, so .parallel() divides the keys evenly
+     * without copying the tree. the tree must not change while it runs.
+     */
+    public IntStream keys() {
+        return StreamSupport.intStream(new KeySpliterator(0, size(), null), false);
+    }
+
+    /**
+     * public Stream&lt;String&gt; values()
+     * <p>
+     * Returns the info of every item sorted by key, splits like keys()
+     */
+    public Stream<String> values() {
+        return StreamSupport.stream(new ValueSpliterator(0, size(), null), false);
+    }
+
+    /**
+     * public Stream&lt;Map.Entry&lt;Integer, String&gt;&gt; entries()
+     * <p>
+     * Returns the items as key/info entries sorted by key, splits like keys()
+     */
+    public Stream<Map.Entry<Integer, String>> entries() {
+        return StreamSupport.stream(new EntrySpliterator(0, size(), null), false);
+    }
+
+    // the items of rank lo+1..hi. a split hands out the lower half of the
+    // ranks, both halves find their first node with selectNode and walk on
+    // along the threads
+    private abstract class RankSpliterator {
+        protected int lo;
+        protected final int hi;
+        // the node of rank lo+1, null until it is needed
+        private WAVLNode node;
+
+        RankSpliterator(int lo, int hi, WAVLNode node) {
+            this.lo = lo;
+            this.hi = hi;
+            this.node = node;
+        }
+
+        // @pre lo < hi
+        protected WAVLNode take() {
+            //O(1), O(logn) for the first one
+            WAVLNode temp = this.node != null ? this.node : selectNode(this.lo + 1);
+            this.lo++;
+            this.node = this.lo < this.hi ? temp.next : null;
+            return temp;
+        }
+
+        // @post return the first half of the ranks left, or -1 if too few
+        protected int splitAt() {
+            int mid = (this.lo + this.hi) >>> 1;
+            return mid == this.lo ? -1 : mid;
+        }
+
+        // the node of rank lo+1 if already found, and forget it: lo is
+        // about to move to the split point
+        protected WAVLNode handOff() {
+            WAVLNode temp = this.node;
+            this.node = null;
+            return temp;
+        }
+
+        public long estimateSize() {
+            return this.hi - this.lo;
+        }
+    }
+
+    private class KeySpliterator extends RankSpliterator implements Spliterator.OfInt {
+        KeySpliterator(int lo, int hi, WAVLNode node) {
+            super(lo, hi, node);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (this.lo >= this.hi) {
+                return false;
+            }
+            action.accept(take().key);
+            return true;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            int mid = splitAt();
+            if (mid < 0) {
+                return null;
+            }
+            KeySpliterator prefix = new KeySpliterator(this.lo, mid, handOff());
+            this.lo = mid;
+            return prefix;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | DISTINCT | NONNULL | SIZED | SUBSIZED;
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            // natural order
+            return null;
+        }
+    }
+
+    private class ValueSpliterator extends RankSpliterator implements Spliterator<String> {
+        ValueSpliterator(int lo, int hi, WAVLNode node) {
+            super(lo, hi, node);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            if (this.lo >= this.hi) {
+                return false;
+            }
+            action.accept(take().value);
+            return true;
+        }
+
+        @Override
+        public Spliterator<String> trySplit() {
+            int mid = splitAt();
+            if (mid < 0) {
+                return null;
+            }
+            ValueSpliterator prefix = new ValueSpliterator(this.lo, mid, handOff());
+            this.lo = mid;
+            return prefix;
+        }
+
+        @Override
+        public int characteristics() {
+            // ordered by key, the info itself is not sorted and may be null
+            return ORDERED | SIZED | SUBSIZED;
+        }
+    }
+
+    private class EntrySpliterator extends RankSpliterator
+            implements Spliterator<Map.Entry<Integer, String>> {
+        EntrySpliterator(int lo, int hi, WAVLNode node) {
+            super(lo, hi, node);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Map.Entry<Integer, String>> action) {
+            if (this.lo >= this.hi) {
+                return false;
+            }
+            WAVLNode temp = take();
+            action.accept(new AbstractMap.SimpleImmutableEntry<>(temp.key, temp.value));
+            return true;
+        }
+
+        @Override
+        public Spliterator<Map.Entry<Integer, String>> trySplit() {
+            int mid = splitAt();
+            if (mid < 0) {
+                return null;
+            }
+            EntrySpliterator prefix = new EntrySpliterator(this.lo, mid, handOff());
+            this.lo = mid;
+            return prefix;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | DISTINCT | NONNULL | SIZED | SUBSIZED;
+        }
+
+        @Override
+        public Comparator<? super Map.Entry<Integer, String>> getComparator() {
+            return Map.Entry.comparingByKey();
+        }
+    }
+
+    /**
+     * public interface IWAVLNode ! Do not delete or modify this - otherwise all
+     * tests will fail !
+     */
+    public interface IWAVLNode {
+        public int getKey(); // returns node's key (for virtuval node return -1)
+
+        public String getValue(); // returns node's value [info] (for virtuval
+        // node return null)
+
+        public IWAVLNode getLeft(); // returns left child (if there is no left
+        // child return null)
+
+        public IWAVLNode getRight(); // returns right child (if there is no
+        // right child return null)
+
+        public boolean isRealNode(); // Returns True if this is a non-virtual
+        // WAVL node (i.e not a virtual leaf or
+        // a sentinal)
+
+        public int getSubtreeSize(); // Returns the number of real nodes in this
+        // node's subtree (Should be implemented
+        // in O(1))
+
+
+    }
+
+    /**
+     * public class WAVLNode
+     * <p>
+     * If you wish to implement classes other than WAVLTree (for example
+     * WAVLNode), do it in this file, not in another file. This class can and
+     * must be modified. (It must implement IWAVLNode)
+     */
+    public class WAVLNode implements IWAVLNode {
+        private boolean isReal;
+        private int key;
+        private int subTreeSize = 1;
+        private String value;
+        private WAVLNode right = null;
+        private WAVLNode left = null;
+        private WAVLNode parent = null;
+        // neighbours in key order, null past the ends
+        private WAVLNode next = null;
+        private WAVLNode prev = null;
+        private int rank;
+        // this subtree may break the rank rules, see setRelaxed
+        private boolean dirty;
+        // the registered WAVLMonoid over this subtree
+        private Object aggregate;
+
+        public WAVLNode(int key, String val) {
+            this.key = key;
+            this.value = val;
+            this.isReal = true;
+            this.rank = 0;
+            this.parent = null;
+
+        }
+
+        // use this to create virtual node
+        public WAVLNode(int key, String val, boolean isReal, int rank) {
+            this.key = key;
+            this.value = val;
+            this.isReal = isReal;
+            this.rank = -1;
+            this.parent = null;
+            this.subTreeSize = 0;
+
+        }
+
+        public int getKey() {
+            return this.key;
+        }
+
+        public String getValue() {
+            return this.value;
+        }
+
+        public IWAVLNode getLeft() {
+            return this.left;
+        }
+
+        public IWAVLNode getRight() {
+            return this.right;
+        }
+
+        // Returns True if this is a non-virtual WAVL node (i.e not a virtual
+        // leaf or a sentinal)
+        public boolean isRealNode() {
+            return this.isReal;
+        }
+
+        public int getSubtreeSize() {
+            return this.subTreeSize;
+        }
+
+
+    }
+
+}
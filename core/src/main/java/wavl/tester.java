@@ -1,8 +1,13 @@
+package wavl;
+
 public class tester {
 
 	public static void main(String[] args) {
 		WAVLTree tree = new WAVLTree();
-		tree.init();
+		int[] keys = {5, 2, 8, 1, 9, 3, 7, 4, 6};
+		for (int i = 0; i < keys.length; i++) {
+			tree.insert(keys[i], "v" + keys[i]);
+		}
 		System.out.println(tree.empty());
 		int []arr=tree.keysToArray();
 		String[]arr2=tree.infoToArray();
@@ -0,0 +1,181 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * aggregate(monoid, lo, hi) against a fold of the same monoid over the
+ * matching TreeMap range, while every kind of write keeps the subtree
+ * aggregates up to date. HASH is not commutative, so a range folded out of
+ * key order shows too.
+ */
+class AggregateTest {
+    private static final int SEEDS = 150;
+    private static final long BASE = 1_000_003L;
+    // a polynomial hash of the keys in order: {hash, BASE^count}
+    private static final WAVLMonoid<List<Long>> HASH = WAVLMonoid.of(List.of(0L, 1L),
+            (k, v) -> List.of(31L * k + 7, BASE),
+            (a, b) -> List.of(a.get(0) * b.get(1) + b.get(0), a.get(1) * b.get(1)));
+
+    private static long number(String v) {
+        return Long.parseLong(v.substring(v.indexOf('.') + 1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static WAVLMonoid<Object> monoid(int seed) {
+        switch (seed % 5) {
+            case 0:
+                return (WAVLMonoid<Object>) (WAVLMonoid<?>) WAVLMonoid.sum(AggregateTest::number);
+            case 1:
+                return (WAVLMonoid<Object>) (WAVLMonoid<?>) WAVLMonoid.min(AggregateTest::number);
+            case 2:
+                return (WAVLMonoid<Object>) (WAVLMonoid<?>) WAVLMonoid.max(AggregateTest::number);
+            case 3:
+                return (WAVLMonoid<Object>) (WAVLMonoid<?>) WAVLMonoid.count(v -> number(v) % 3 == 0);
+            default:
+                return (WAVLMonoid<Object>) (WAVLMonoid<?>) HASH;
+        }
+    }
+
+    private static Object fold(WAVLMonoid<Object> monoid, Map<Integer, String> items) {
+        Object acc = monoid.identity();
+        for (Map.Entry<Integer, String> e : items.entrySet()) {
+            acc = monoid.combine(acc, monoid.lift(e.getKey(), e.getValue()));
+        }
+        return acc;
+    }
+
+    private static void assertRanges(WAVLMonoid<Object> monoid, TreeMap<Integer, String> model,
+            WAVLTree tree, Random rnd, int bound) {
+        assertEquals(fold(monoid, model), tree.aggregate(monoid, Integer.MIN_VALUE, Integer.MAX_VALUE));
+        for (int q = 0; q < 30; q++) {
+            int lo = rnd.nextInt(bound + 2) - 1;
+            int hi = lo + rnd.nextInt(1 + bound / (1 + rnd.nextInt(8)));
+            if (rnd.nextInt(8) == 0) {
+                hi = lo - 1 - rnd.nextInt(3);
+            }
+            Object expected = lo > hi ? monoid.identity() : fold(monoid, model.subMap(lo, true, hi, true));
+            assertEquals(expected, tree.aggregate(monoid, lo, hi));
+        }
+    }
+
+    @Test
+    void rangesMatchFoldOfModel() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            WAVLMonoid<Object> monoid = monoid(seed);
+            int n = rnd.nextInt(seed < 30 ? 8 : 1500);
+            int bound = 3 * n + 1;
+            TreeMap<Integer, String> model = new TreeMap<>();
+            WAVLTree tree = new WAVLTree();
+            // registered before the inserts on odd seeds, after on even
+            if (seed % 2 == 1) {
+                tree.setAggregate(monoid);
+            }
+            for (int j = 0; j < n; j++) {
+                int k = rnd.nextInt(bound);
+                String v = "v." + rnd.nextInt(1000);
+                tree.insert(k, v);
+                model.putIfAbsent(k, v);
+            }
+            if (seed % 2 == 0) {
+                tree.setAggregate(monoid);
+            }
+            assertRanges(monoid, model, tree, rnd, bound);
+            for (int round = 0; round < 20; round++) {
+                write(tree, model, rnd, bound);
+                assertRanges(monoid, model, tree, rnd, bound);
+            }
+            TreeModel.assertMatches(model, tree);
+        }
+    }
+
+    // one write of a random kind, on tree and model
+    private static void write(WAVLTree tree, TreeMap<Integer, String> model, Random rnd, int bound) {
+        switch (rnd.nextInt(6)) {
+            case 0:
+                for (int j = 0; j < 20; j++) {
+                    int k = rnd.nextInt(bound);
+                    String v = "v." + rnd.nextInt(1000);
+                    tree.insert(k, v);
+                    model.putIfAbsent(k, v);
+                    k = rnd.nextInt(bound);
+                    tree.delete(k);
+                    model.remove(k);
+                }
+                break;
+            case 1: {
+                int[] keys = new int[rnd.nextInt(50)];
+                String[] values = new String[keys.length];
+                for (int j = 0; j < keys.length; j++) {
+                    keys[j] = rnd.nextInt(bound);
+                    values[j] = "v." + rnd.nextInt(1000);
+                    model.putIfAbsent(keys[j], values[j]);
+                }
+                tree.insertAll(keys, values);
+                break;
+            }
+            case 2: {
+                int[] keys = new int[rnd.nextInt(50)];
+                for (int j = 0; j < keys.length; j++) {
+                    keys[j] = rnd.nextInt(bound);
+                    model.remove(keys[j]);
+                }
+                tree.deleteAll(keys);
+                break;
+            }
+            case 3: {
+                int lo = rnd.nextInt(bound);
+                int hi = lo + rnd.nextInt(1 + bound / 10);
+                tree.deleteRange(lo, hi);
+                model.subMap(lo, true, hi, true).clear();
+                break;
+            }
+            case 4:
+                assertEquals(model.isEmpty() ? null : model.pollFirstEntry().getValue(), tree.pollMin());
+                assertEquals(model.isEmpty() ? null : model.pollLastEntry().getValue(), tree.pollMax());
+                break;
+            default:
+                // relaxed inserts leave ranks to rebalance, never aggregates
+                tree.setRelaxed(true);
+                for (int j = 0; j < 30; j++) {
+                    int k = rnd.nextInt(bound);
+                    String v = "v." + rnd.nextInt(1000);
+                    tree.insert(k, v);
+                    model.putIfAbsent(k, v);
+                }
+                if (rnd.nextBoolean()) {
+                    tree.rebalance();
+                }
+                tree.setRelaxed(false);
+                break;
+        }
+    }
+
+    @Test
+    void onlyTheRegisteredMonoid() {
+        WAVLTree tree = new WAVLTree();
+        WAVLMonoid<Long> sum = WAVLMonoid.sum(AggregateTest::number);
+        assertThrows(IllegalArgumentException.class, () -> tree.aggregate(sum, 0, 1));
+        tree.setAggregate(sum);
+        assertEquals(0L, tree.aggregate(sum, Integer.MIN_VALUE, Integer.MAX_VALUE));
+        tree.insert(1, "v.5");
+        tree.insert(2, "v.7");
+        assertEquals(12L, tree.aggregate(sum, 1, 2));
+        assertEquals(0L, tree.aggregate(sum, 2, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> tree.aggregate(WAVLMonoid.sum(AggregateTest::number), 0, 1));
+        // split and join make trees without one
+        WAVLTree[] parts = tree.split(2);
+        assertThrows(IllegalArgumentException.class, () -> parts[0].aggregate(sum, 0, 1));
+        tree.setAggregate(null);
+        assertThrows(IllegalArgumentException.class, () -> tree.aggregate(sum, 0, 1));
+    }
+}
@@ -0,0 +1,90 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * ArenaWAVLTree runs the same operations as a WAVLTree, with the same
+ * rebalancing counts, and holds what a TreeMap holds. small capacities make
+ * the arrays grow, deletes between inserts make the free list recycle slots.
+ */
+class ArenaWAVLTreeTest {
+    private static final int SEEDS = 100;
+
+    @Test
+    void matchesWAVLTreeAndModel() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            ArenaWAVLTree arena = new ArenaWAVLTree(1 + rnd.nextInt(16));
+            WAVLTree tree = new WAVLTree();
+            TreeMap<Integer, String> model = new TreeMap<>();
+            int bound = 1 + rnd.nextInt(seed < 20 ? 20 : 3000);
+            for (int op = 0; op < 3000; op++) {
+                int k = rnd.nextInt(bound);
+                if (rnd.nextInt(3) != 0) {
+                    String v = "v" + k + "." + op;
+                    assertEquals(tree.insert(k, v), arena.insert(k, v));
+                    model.putIfAbsent(k, v);
+                } else {
+                    assertEquals(tree.delete(k), arena.delete(k));
+                    model.remove(k);
+                }
+                assertEquals(model.get(k), arena.search(k));
+                if (op % 97 == 0) {
+                    assertMatches(model, arena);
+                }
+            }
+            assertMatches(model, arena);
+            // empty it again, the slots all go back to the free list
+            for (int k : model.keySet()) {
+                assertEquals(tree.delete(k), arena.delete(k));
+            }
+            assertMatches(new TreeMap<>(), arena);
+        }
+    }
+
+    private static void assertMatches(TreeMap<Integer, String> model, ArenaWAVLTree arena) {
+        TreeModel.checkArena(arena);
+        int n = model.size();
+        assertEquals(n, arena.size());
+        assertEquals(n == 0, arena.empty());
+        List<Integer> keys = new ArrayList<>(model.keySet());
+        assertArrayEquals(keys.stream().mapToInt(Integer::intValue).toArray(), arena.keysToArray());
+        assertArrayEquals(model.values().toArray(new String[0]), arena.infoToArray());
+        assertEquals(n == 0 ? null : model.firstEntry().getValue(), arena.min());
+        assertEquals(n == 0 ? null : model.lastEntry().getValue(), arena.max());
+        assertNull(arena.select(0));
+        assertNull(arena.select(n + 1));
+        for (int i = 1; i <= n; i += 1 + n / 16) {
+            assertEquals(model.get(keys.get(i - 1)), arena.select(i));
+        }
+        // the flyweight view walks the same tree
+        if (n == 0) {
+            assertNull(arena.getRoot());
+        } else {
+            List<Map.Entry<Integer, String>> seen = new ArrayList<>();
+            walk(arena.getRoot(), seen);
+            assertEquals(new ArrayList<>(model.entrySet()), seen);
+            assertEquals(n, arena.getRoot().getSubtreeSize());
+        }
+    }
+
+    // in key order, the depth is O(logn)
+    private static void walk(WAVLTree.IWAVLNode node, List<Map.Entry<Integer, String>> seen) {
+        if (!node.isRealNode()) {
+            return;
+        }
+        walk(node.getLeft(), seen);
+        seen.add(Map.entry(node.getKey(), node.getValue()));
+        walk(node.getRight(), seen);
+    }
+}
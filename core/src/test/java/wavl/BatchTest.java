@@ -0,0 +1,147 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * insertAll and deleteAll against a TreeMap, and against the same keys
+ * inserted or deleted one at a time in key order into a twin tree: the
+ * batch rebalances every key the same way, so the counts agree too.
+ */
+class BatchTest {
+    private static final int SEEDS = 200;
+    // the sum of the keys, from the values "v" + key
+    private static final WAVLMonoid<Long> SUM = WAVLMonoid.sum(v -> Long.parseLong(v.substring(1)));
+
+    // two trees built by the same inserts, so with the same shape
+    private static WAVLTree[] twins(Random rnd, int n, int bound, TreeMap<Integer, String> model) {
+        WAVLTree a = new WAVLTree();
+        WAVLTree b = new WAVLTree();
+        for (int j = 0; j < n; j++) {
+            int k = rnd.nextInt(bound);
+            a.insert(k, "v" + k);
+            b.insert(k, "v" + k);
+            model.putIfAbsent(k, "v" + k);
+        }
+        return new WAVLTree[]{a, b};
+    }
+
+    @Test
+    void insertAllMatchesInsertsInKeyOrder() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            int n = rnd.nextInt(seed < 40 ? 8 : 2000);
+            int bound = 3 * n + 10;
+            TreeMap<Integer, String> model = new TreeMap<>();
+            WAVLTree[] t = twins(rnd, n, bound, model);
+            WAVLTree batched = t[0];
+            WAVLTree single = t[1];
+            if (seed % 2 == 0) {
+                batched.setAggregate(SUM);
+            }
+            int m = rnd.nextInt(seed < 40 ? 8 : 1000);
+            int[] keys = new int[m];
+            String[] values = new String[m];
+            for (int j = 0; j < m; j++) {
+                keys[j] = rnd.nextInt(bound);
+                // repeats in the batch keep the first info
+                values[j] = "v" + keys[j];
+                model.putIfAbsent(keys[j], values[j]);
+            }
+            int expected = 0;
+            for (int j : sortedIndexes(keys)) {
+                int result = single.insert(keys[j], values[j]);
+                expected += Math.max(result, 0);
+            }
+            assertEquals(expected, batched.insertAll(keys, values));
+            TreeModel.assertMatches(model, batched);
+            if (seed % 2 == 0) {
+                long sum = model.keySet().stream().mapToLong(Integer::longValue).sum();
+                assertEquals(sum, batched.aggregate(SUM, Integer.MIN_VALUE, Integer.MAX_VALUE));
+            }
+        }
+    }
+
+    @Test
+    void deleteAllMatchesDeletesInKeyOrder() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            int n = rnd.nextInt(seed < 40 ? 8 : 2000);
+            int bound = 2 * n + 10;
+            TreeMap<Integer, String> model = new TreeMap<>();
+            WAVLTree[] t = twins(rnd, n, bound, model);
+            WAVLTree batched = t[0];
+            WAVLTree single = t[1];
+            int m = rnd.nextInt(seed < 40 ? 8 : 2 * n + 1);
+            int[] keys = new int[m];
+            for (int j = 0; j < m; j++) {
+                keys[j] = rnd.nextInt(bound);
+                model.remove(keys[j]);
+            }
+            int expected = 0;
+            int[] sorted = keys.clone();
+            Arrays.sort(sorted);
+            for (int k : sorted) {
+                expected += Math.max(single.delete(k), 0);
+            }
+            assertEquals(expected, batched.deleteAll(keys));
+            TreeModel.assertMatches(model, batched);
+        }
+    }
+
+    @Test
+    void batchesMixWithSingleWrites() {
+        Random rnd = new Random(3);
+        WAVLTree tree = new WAVLTree();
+        TreeMap<Integer, String> model = new TreeMap<>();
+        for (int round = 0; round < 200; round++) {
+            int[] keys = new int[rnd.nextInt(50)];
+            String[] values = new String[keys.length];
+            for (int j = 0; j < keys.length; j++) {
+                keys[j] = rnd.nextInt(1000);
+                values[j] = "v" + keys[j];
+            }
+            if (rnd.nextBoolean()) {
+                tree.insertAll(keys, values);
+                for (int j = 0; j < keys.length; j++) {
+                    model.putIfAbsent(keys[j], values[j]);
+                }
+            } else {
+                tree.deleteAll(keys);
+                for (int k : keys) {
+                    model.remove(k);
+                }
+            }
+            int k = rnd.nextInt(1000);
+            tree.insert(k, "v" + k);
+            model.putIfAbsent(k, "v" + k);
+            TreeModel.assertMatches(model, tree);
+        }
+    }
+
+    @Test
+    void emptyBatchesAndMismatchedLengths() {
+        WAVLTree tree = new WAVLTree();
+        assertEquals(0, tree.insertAll(new int[0], new String[0]));
+        assertEquals(0, tree.deleteAll(new int[0]));
+        assertEquals(0, tree.deleteAll(new int[]{1, 2, 3}));
+        assertThrows(IllegalArgumentException.class, () -> tree.insertAll(new int[2], new String[1]));
+        tree.insertAll(new int[]{5, 5, 1}, new String[]{"first", "second", "one"});
+        assertEquals("first", tree.search(5));
+        assertEquals(2, tree.size());
+    }
+
+    // the indexes of keys sorted by key, equal keys in batch order
+    private static int[] sortedIndexes(int[] keys) {
+        return IntStream.range(0, keys.length).boxed()
+                .sorted((x, y) -> Integer.compare(keys[x], keys[y]))
+                .mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,167 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * the bounded top-K mode of WAVLTree(capacity, keepLargest), and pollMin
+ * and pollMax, against a TreeMap that is trimmed to the capacity after
+ * every write.
+ */
+class BoundedTest {
+    private static final int SEEDS = 200;
+
+    // drop the items a bounded tree evicts
+    private static void trim(TreeMap<Integer, String> model, int capacity, boolean keepLargest) {
+        while (model.size() > capacity) {
+            if (keepLargest) {
+                model.pollFirstEntry();
+            } else {
+                model.pollLastEntry();
+            }
+        }
+    }
+
+    @Test
+    void insertsKeepTheTopK() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            boolean keepLargest = seed % 2 == 0;
+            int capacity = 1 + rnd.nextInt(seed < 20 ? 3 : 200);
+            WAVLTree tree = new WAVLTree(capacity, keepLargest);
+            TreeMap<Integer, String> model = new TreeMap<>();
+            for (int op = 0; op < 1000; op++) {
+                int k = rnd.nextInt(500);
+                String v = "v" + k + "." + op;
+                int r = rnd.nextInt(10);
+                if (r < 7) {
+                    int result = tree.insert(k, v);
+                    // a duplicate is -1, an item that is not kept is 0
+                    assertEquals(model.containsKey(k), result == -1);
+                    boolean full = model.size() == capacity;
+                    boolean outside = full && !model.containsKey(k)
+                            && (keepLargest ? k < model.firstKey() : k > model.lastKey());
+                    model.putIfAbsent(k, v);
+                    trim(model, capacity, keepLargest);
+                    if (outside) {
+                        assertEquals(0, result);
+                        assertFalse(model.containsKey(k));
+                    }
+                } else if (r < 8) {
+                    assertEquals(model.containsKey(k), tree.delete(k) != -1);
+                    model.remove(k);
+                } else if (r < 9) {
+                    Map.Entry<Integer, String> e = model.pollFirstEntry();
+                    assertEquals(e == null ? null : e.getValue(), tree.pollMin());
+                } else {
+                    Map.Entry<Integer, String> e = model.pollLastEntry();
+                    assertEquals(e == null ? null : e.getValue(), tree.pollMax());
+                }
+                assertTrue(tree.size() <= capacity);
+            }
+            TreeModel.assertMatches(model, tree);
+        }
+    }
+
+    @Test
+    void insertAllEvictsAfterTheBatch() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            boolean keepLargest = seed % 2 == 1;
+            int capacity = 1 + rnd.nextInt(seed < 20 ? 3 : 100);
+            WAVLTree tree = new WAVLTree(capacity, keepLargest);
+            TreeMap<Integer, String> model = new TreeMap<>();
+            for (int batch = 0; batch < 20; batch++) {
+                int[] keys = new int[rnd.nextInt(3 * capacity)];
+                String[] values = new String[keys.length];
+                for (int j = 0; j < keys.length; j++) {
+                    keys[j] = rnd.nextInt(400);
+                    values[j] = "v" + keys[j] + "." + batch + "." + j;
+                    // repeats in the batch and keys already kept keep their info
+                    model.putIfAbsent(keys[j], values[j]);
+                }
+                tree.insertAll(keys, values);
+                trim(model, capacity, keepLargest);
+                TreeModel.assertMatches(model, tree);
+            }
+        }
+    }
+
+    @Test
+    void fullTreeRejectsDuplicatesAndOutsiders() {
+        WAVLTree largest = new WAVLTree(3, true);
+        for (int k = 10; k <= 30; k += 10) {
+            largest.insert(k, "v" + k);
+        }
+        assertEquals(-1, largest.insert(10, "again"));
+        assertEquals(-1, largest.insert(30, "again"));
+        assertEquals(0, largest.insert(5, "small"));
+        assertNull(largest.search(5));
+        largest.insert(25, "v25");
+        assertEquals("v20", largest.min());
+        assertEquals("v30", largest.max());
+        assertEquals(3, largest.size());
+        assertNull(largest.search(10));
+
+        WAVLTree smallest = new WAVLTree(3, false);
+        for (int k = 10; k <= 30; k += 10) {
+            smallest.insert(k, "v" + k);
+        }
+        assertEquals(-1, smallest.insert(30, "again"));
+        assertEquals(0, smallest.insert(35, "big"));
+        assertNull(smallest.search(35));
+        smallest.insert(15, "v15");
+        assertEquals("v10", smallest.min());
+        assertEquals("v20", smallest.max());
+        assertNull(smallest.search(30));
+        assertEquals(3, smallest.size());
+    }
+
+    @Test
+    void pollOnEmptyAndSingleItemTrees() {
+        WAVLTree tree = new WAVLTree();
+        assertNull(tree.pollMin());
+        assertNull(tree.pollMax());
+        assertTrue(tree.empty());
+
+        tree.insert(4, "four");
+        assertEquals("four", tree.pollMin());
+        assertTrue(tree.empty());
+        assertNull(tree.min());
+        assertNull(tree.max());
+        assertNull(tree.pollMax());
+
+        tree.insert(7, "seven");
+        assertEquals("seven", tree.pollMax());
+        assertTrue(tree.empty());
+        // the emptied tree takes inserts again
+        tree.insert(1, "one");
+        tree.insert(2, "two");
+        TreeMap<Integer, String> model = new TreeMap<>();
+        model.put(1, "one");
+        model.put(2, "two");
+        TreeModel.assertMatches(model, tree);
+
+        WAVLTree one = new WAVLTree(1, true);
+        one.insert(3, "three");
+        one.insert(9, "nine");
+        assertEquals(0, one.insert(1, "one"));
+        assertEquals("nine", one.pollMax());
+        assertNull(one.pollMin());
+    }
+
+    @Test
+    void capacityMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new WAVLTree(0, true));
+        assertThrows(IllegalArgumentException.class, () -> new WAVLTree(-1, false));
+    }
+}
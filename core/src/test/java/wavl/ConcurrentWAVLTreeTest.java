@@ -0,0 +1,161 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * readers run the optimistic read paths while writers change the tree.
+ * the even keys 0, 2, .., 2 * STABLE - 2 are loaded first and never
+ * touched, every writer owns the odd keys k with k % (2 * WRITERS) ==
+ * 2 * w + 1 and keeps its own serial model of them. a read that overlapped
+ * a write and was not retried shows up as a value of another key, an
+ * impossible count, or a missing stable key.
+ */
+class ConcurrentWAVLTreeTest {
+    private static final int STABLE = 2000;
+    private static final int WRITERS = 2;
+    private static final int READERS = 2;
+    private static final int WRITES = 40_000;
+
+    @Test
+    void readsMatchSerialModel() throws Exception {
+        run(false);
+    }
+
+    @Test
+    void readsMatchSerialModelWhileRelaxed() throws Exception {
+        run(true);
+    }
+
+    private static String value(int k) {
+        return "v" + k;
+    }
+
+    private static void run(boolean relaxed) throws Exception {
+        WAVLTree inner = new WAVLTree();
+        for (int j = 0; j < STABLE; j++) {
+            inner.insert(2 * j, value(2 * j));
+        }
+        ConcurrentWAVLTree tree = new ConcurrentWAVLTree(inner);
+        if (relaxed) {
+            tree.setRelaxed(true, 1);
+        }
+        int maxKey = 2 * STABLE - 2;
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicLong reads = new AtomicLong();
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<TreeMap<Integer, String>> models = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            TreeMap<Integer, String> model = new TreeMap<>();
+            models.add(model);
+            int lane = 2 * w + 1;
+            long seed = w;
+            threads.add(new Thread(() -> {
+                Random rnd = new Random(seed);
+                for (int op = 0; op < WRITES; op++) {
+                    int k = lane + 2 * WRITERS * rnd.nextInt(maxKey / (2 * WRITERS) - 1);
+                    if (rnd.nextInt(8) == 0) {
+                        // a small batch through insertAll or deleteAll
+                        int[] keys = {k, k + 2 * WRITERS};
+                        if (rnd.nextBoolean()) {
+                            tree.insertAll(keys, new String[]{value(keys[0]), value(keys[1])});
+                            model.putIfAbsent(keys[0], value(keys[0]));
+                            model.putIfAbsent(keys[1], value(keys[1]));
+                        } else {
+                            tree.deleteAll(keys);
+                            model.remove(keys[0]);
+                            model.remove(keys[1]);
+                        }
+                    } else if (rnd.nextBoolean()) {
+                        tree.insert(k, value(k));
+                        model.putIfAbsent(k, value(k));
+                    } else {
+                        tree.delete(k);
+                        model.remove(k);
+                    }
+                }
+            }));
+        }
+        for (int r = 0; r < READERS; r++) {
+            long seed = 100 + r;
+            threads.add(new Thread(() -> {
+                Random rnd = new Random(seed);
+                try {
+                    while (!done.get()) {
+                        read(tree, rnd, maxKey);
+                        reads.incrementAndGet();
+                    }
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (int w = 0; w < WRITERS; w++) {
+            threads.get(w).join();
+        }
+        done.set(true);
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertTrue(failures.isEmpty(), () -> "reader failed: " + failures.peek());
+        assertTrue(reads.get() > 0, "the readers never ran");
+        if (relaxed) {
+            tree.setRelaxed(false, 0);
+        }
+        // the final tree is exactly the serial models
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        for (int j = 0; j < STABLE; j++) {
+            expected.put(2 * j, value(2 * j));
+        }
+        for (TreeMap<Integer, String> model : models) {
+            expected.putAll(model);
+        }
+        TreeModel.assertMatches(expected, inner);
+    }
+
+    // one read of every kind, each checked against what any interleaving of
+    // the writes allows
+    private static void read(ConcurrentWAVLTree tree, Random rnd, int maxKey) {
+        int k = rnd.nextInt(maxKey + 1);
+        String found = tree.search(k);
+        if (k % 2 == 0) {
+            assertEquals(value(k), found);
+        } else {
+            assertTrue(found == null || found.equals(value(k)), found);
+        }
+        // the even keys <= k are always there, the odd ones may be
+        int stableBelow = k / 2 + 1;
+        int rank = tree.rank(k);
+        assertTrue(rank >= stableBelow && rank <= k + 1, () -> "rank " + rank);
+        int lo = rnd.nextInt(maxKey + 1);
+        int hi = lo + rnd.nextInt(100);
+        int count = tree.countRange(lo, hi);
+        int stableIn = Math.max(0, Math.min(hi, maxKey) / 2 - (lo + 1) / 2 + 1);
+        assertTrue(count >= stableIn && count <= hi - lo + 1, () -> "countRange " + count);
+        int size = tree.size();
+        assertTrue(size >= STABLE && size <= maxKey + 1, () -> "size " + size);
+        assertEquals(value(0), tree.min());
+        assertEquals(value(maxKey), tree.max());
+        assertEquals(value(0), tree.select(1));
+        // i - 1 smaller keys come before the i'th, and the i'th stable key
+        // 2 * (i - 1) bounds it from above
+        int i = 1 + rnd.nextInt(STABLE);
+        String selected = tree.select(i);
+        int key = Integer.parseInt(selected.substring(1));
+        assertTrue(key >= i - 1 && key <= 2 * (i - 1), () -> "select " + i + " gave " + selected);
+    }
+}
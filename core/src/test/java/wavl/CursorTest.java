@@ -0,0 +1,86 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * the range cursor, rank and countRange against the views of a TreeMap.
+ */
+class CursorTest {
+    private static final int SEEDS = 200;
+
+    // a range end: mostly inside or next to the keys, sometimes the ends of
+    // the int range
+    private static int bound(Random rnd, int n) {
+        switch (rnd.nextInt(10)) {
+            case 0:
+                return Integer.MIN_VALUE;
+            case 1:
+                return Integer.MAX_VALUE;
+            default:
+                return rnd.nextInt(3 * n + 3) - 1;
+        }
+    }
+
+    private static List<Map.Entry<Integer, String>> walk(WAVLTree.Cursor c) {
+        List<Map.Entry<Integer, String>> seen = new ArrayList<>();
+        for (; c.valid(); c.next()) {
+            seen.add(Map.entry(c.getKey(), c.getValue()));
+        }
+        return seen;
+    }
+
+    @Test
+    void rangesMatchModel() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            int n = rnd.nextInt(seed < 40 ? 8 : 2000);
+            TreeMap<Integer, String> model = new TreeMap<>();
+            WAVLTree tree = TreeModel.random(rnd, n, 3 * n + 1, model);
+            // relaxed writes keep sizes and threads exact
+            tree.setRelaxed(seed % 4 == 0);
+            for (int j = 0; j < n / 4; j++) {
+                int k = rnd.nextInt(3 * n + 1);
+                tree.delete(k);
+                model.remove(k);
+            }
+            // one cursor, seeked again for every range
+            WAVLTree.Cursor c = tree.cursor();
+            for (int q = 0; q < 50; q++) {
+                int lo = bound(rnd, n);
+                int hi = bound(rnd, n);
+                List<Map.Entry<Integer, String>> expected = lo > hi
+                        ? List.of() : new ArrayList<>(model.subMap(lo, true, hi, true).entrySet());
+                assertEquals(expected, walk(c.seek(lo, hi)));
+                assertEquals(expected.size(), tree.countRange(lo, hi));
+                assertEquals(new ArrayList<>(model.tailMap(lo, true).entrySet()), walk(c.seek(lo)));
+                assertEquals(model.headMap(hi, true).size(), tree.rank(hi));
+            }
+            for (int k : model.keySet()) {
+                assertEquals(model.get(k), tree.select(tree.rank(k)));
+            }
+        }
+    }
+
+    @Test
+    void emptyTree() {
+        WAVLTree tree = new WAVLTree();
+        assertFalse(tree.cursor().seek(Integer.MIN_VALUE).valid());
+        assertEquals(0, tree.rank(0));
+        assertEquals(0, tree.countRange(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        tree.insert(3, "three");
+        assertEquals(0, tree.countRange(4, 2));
+        assertFalse(tree.cursor().seek(4, 2).valid());
+        assertFalse(tree.cursor().seek(4).valid());
+        assertEquals(1, tree.countRange(3, 3));
+        assertEquals(List.of(Map.entry(3, "three")), walk(tree.cursor().seek(Integer.MIN_VALUE, 3)));
+    }
+}
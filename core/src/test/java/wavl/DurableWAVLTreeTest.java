@@ -0,0 +1,212 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DurableWAVLTreeTest {
+    // long enough that the timer never commits during a test
+    private static final long NEVER = 3_600_000;
+
+    @TempDir
+    Path dir;
+
+    private static Path log(Path dir) {
+        return dir.resolve("wal.log");
+    }
+
+    private static void assertHolds(TreeMap<Integer, String> model, DurableWAVLTree tree) {
+        int[] keys = model.keySet().stream().mapToInt(Integer::intValue).toArray();
+        assertArrayEquals(keys, tree.keysToArray());
+        assertArrayEquals(model.values().toArray(new String[0]), tree.infoToArray());
+    }
+
+    // some history with inserts, deletes and a null value
+    private static void write(DurableWAVLTree tree, TreeMap<Integer, String> model) {
+        for (int k = 0; k < 40; k++) {
+            tree.insert(k, "v" + k);
+            model.put(k, "v" + k);
+        }
+        for (int k = 0; k < 40; k += 3) {
+            tree.delete(k);
+            model.remove(k);
+        }
+        tree.insert(100, null);
+        model.put(100, null);
+    }
+
+    @Test
+    void commitsInGroupsOfGroupSize() throws IOException {
+        try (DurableWAVLTree tree = DurableWAVLTree.open(this.dir, 4, NEVER, 0)) {
+            for (int k = 0; k < 3; k++) {
+                tree.insert(k, "v");
+            }
+            assertEquals(0, Files.size(log(this.dir)));
+            tree.insert(3, "v");
+            long group = Files.size(log(this.dir));
+            assertTrue(group > 0);
+            // a failed insert or delete is not logged
+            tree.insert(3, "again");
+            tree.delete(99);
+            tree.insert(4, "v");
+            assertEquals(group, Files.size(log(this.dir)));
+            tree.commit();
+            assertTrue(Files.size(log(this.dir)) > group);
+        }
+    }
+
+    @Test
+    void commitsAGroupAfterGroupMillis() throws Exception {
+        try (DurableWAVLTree tree = DurableWAVLTree.open(this.dir, 1000, 10, 0)) {
+            tree.insert(1, "v");
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (Files.size(log(this.dir)) == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(Files.size(log(this.dir)) > 0);
+        }
+    }
+
+    @Test
+    void reopenReplaysTheLog() throws IOException {
+        TreeMap<Integer, String> model = new TreeMap<>();
+        try (DurableWAVLTree tree = DurableWAVLTree.open(this.dir, 7, NEVER, 0)) {
+            write(tree, model);
+        }
+        try (DurableWAVLTree tree = DurableWAVLTree.open(this.dir, 7, NEVER, 0)) {
+            assertHolds(model, tree);
+        }
+    }
+
+    @Test
+    void recoveryDropsATornOrCorruptLastRecord() throws IOException {
+        Path source = this.dir.resolve("source");
+        TreeMap<Integer, String> model = new TreeMap<>();
+        long lastStart;
+        try (DurableWAVLTree tree = DurableWAVLTree.open(source, 1, NEVER, 0)) {
+            write(tree, model);
+            lastStart = Files.size(log(source));
+            tree.insert(200, "last");
+        }
+        byte[] full = Files.readAllBytes(log(source));
+        List<byte[]> damaged = new ArrayList<>();
+        // cut at every byte of the last record
+        for (long cut = lastStart; cut < full.length; cut++) {
+            damaged.add(Arrays.copyOf(full, (int) cut));
+        }
+        // or flip one of its bytes, which its CRC catches
+        for (int at = (int) lastStart; at < full.length; at++) {
+            byte[] bytes = full.clone();
+            bytes[at] ^= (byte) 0xFF;
+            damaged.add(bytes);
+        }
+        for (int j = 0; j < damaged.size(); j++) {
+            Path copy = this.dir.resolve("copy" + j);
+            Files.createDirectories(copy);
+            Files.write(log(copy), damaged.get(j));
+            try (DurableWAVLTree tree = DurableWAVLTree.open(copy, 1, NEVER, 0)) {
+                assertHolds(model, tree);
+                // the bad tail is gone, new records follow the last good one
+                assertEquals(lastStart, Files.size(log(copy)), "case " + j);
+                tree.insert(300, "after");
+            }
+            TreeMap<Integer, String> after = new TreeMap<>(model);
+            after.put(300, "after");
+            try (DurableWAVLTree tree = DurableWAVLTree.open(copy, 1, NEVER, 0)) {
+                assertHolds(after, tree);
+            }
+        }
+    }
+
+    @Test
+    void checkpointTruncatesTheLog() throws IOException {
+        TreeMap<Integer, String> model = new TreeMap<>();
+        byte[] oldLog;
+        try (DurableWAVLTree tree = DurableWAVLTree.open(this.dir, 5, NEVER, 0)) {
+            write(tree, model);
+            tree.commit();
+            oldLog = Files.readAllBytes(log(this.dir));
+            tree.checkpoint();
+            assertEquals(0, Files.size(log(this.dir)));
+            assertTrue(Files.exists(this.dir.resolve("checkpoint.wavl")));
+            tree.insert(500, "after checkpoint");
+            model.put(500, "after checkpoint");
+        }
+        try (DurableWAVLTree tree = DurableWAVLTree.open(this.dir, 5, NEVER, 0)) {
+            assertHolds(model, tree);
+        }
+        // a crash between the checkpoint and the truncate leaves the old log,
+        // replaying it over the checkpoint changes nothing
+        Path crashed = this.dir.resolve("crashed");
+        Files.createDirectories(crashed);
+        Files.copy(this.dir.resolve("checkpoint.wavl"), crashed.resolve("checkpoint.wavl"));
+        Files.write(log(crashed), oldLog);
+        model.remove(500);
+        try (DurableWAVLTree tree = DurableWAVLTree.open(crashed, 5, NEVER, 0)) {
+            assertHolds(model, tree);
+        }
+    }
+
+    @Test
+    void closeKeepsEveryAcceptedWrite() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            Path roundDir = this.dir.resolve("round" + round);
+            Map<Integer, String> accepted = new ConcurrentHashMap<>();
+            DurableWAVLTree tree = DurableWAVLTree.open(roundDir, 16, NEVER, 0);
+            List<Thread> writers = new ArrayList<>();
+            for (int w = 0; w < 3; w++) {
+                int first = w * 1_000_000;
+                writers.add(new Thread(() -> {
+                    try {
+                        for (int k = first; ; k++) {
+                            tree.insert(k, "v" + k);
+                            accepted.put(k, "v" + k);
+                        }
+                    } catch (IllegalStateException closed) {
+                        // the tree was closed under the writer
+                    }
+                }));
+            }
+            for (Thread t : writers) {
+                t.start();
+            }
+            Thread.sleep(5);
+            tree.close();
+            for (Thread t : writers) {
+                t.join();
+            }
+            assertThrows(IllegalStateException.class, () -> tree.insert(-1, "x"));
+            try (DurableWAVLTree reopened = DurableWAVLTree.open(roundDir, 16, NEVER, 0)) {
+                assertHolds(new TreeMap<>(accepted), reopened);
+            }
+        }
+    }
+
+    @Test
+    void valuesSurviveAsUtf8() throws IOException {
+        String value = "été ☃";
+        try (DurableWAVLTree tree = DurableWAVLTree.open(this.dir, 1, NEVER, 0)) {
+            tree.insert(1, value);
+        }
+        try (DurableWAVLTree tree = DurableWAVLTree.open(this.dir, 1, NEVER, 0)) {
+            assertEquals(value, tree.search(1));
+        }
+        assertTrue(new String(Files.readAllBytes(log(this.dir)), StandardCharsets.UTF_8)
+                .contains(value));
+    }
+}
@@ -0,0 +1,139 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * the maximum pointer and the insert finger against a TreeMap, for the
+ * insert orders the finger is for (ascending, descending, nearly sorted,
+ * sawtooth) and for random keys, with deletes, polls, range deletes and
+ * split and join in between moving or clearing the finger.
+ */
+class FingerTest {
+    private static final int SEEDS = 100;
+    private static final int OPS = 3000;
+
+    // the key of the op'th insert in the given order
+    private static int key(int order, int op, Random rnd) {
+        switch (order) {
+            case 0:
+                return op;
+            case 1:
+                return OPS - op;
+            case 2:
+                // ascending, each key up to 20 places early or late
+                return op + rnd.nextInt(41) - 20;
+            case 3:
+                // ascending runs of 50 that start over a little higher
+                return op % 50 * 40 + op / 50;
+            default:
+                return rnd.nextInt(2 * OPS);
+        }
+    }
+
+    @Test
+    void insertOrdersMatchModel() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            int order = seed % 5;
+            WAVLTree tree = new WAVLTree();
+            TreeMap<Integer, String> model = new TreeMap<>();
+            for (int op = 0; op < OPS; op++) {
+                int k = key(order, op, rnd);
+                String v = "v" + k;
+                assertEquals(model.containsKey(k), tree.insert(k, v) == -1);
+                model.putIfAbsent(k, v);
+                assertEquals(v, tree.search(k));
+                int r = rnd.nextInt(40);
+                if (r == 0) {
+                    int d = key(order, rnd.nextInt(op + 1), rnd);
+                    assertEquals(model.containsKey(d), tree.delete(d) != -1);
+                    model.remove(d);
+                } else if (r == 1) {
+                    Map.Entry<Integer, String> e = model.pollLastEntry();
+                    assertEquals(e == null ? null : e.getValue(), tree.pollMax());
+                } else if (r == 2) {
+                    Map.Entry<Integer, String> e = model.pollFirstEntry();
+                    assertEquals(e == null ? null : e.getValue(), tree.pollMin());
+                } else if (r == 3) {
+                    int lo = key(order, rnd.nextInt(op + 1), rnd);
+                    int hi = lo + rnd.nextInt(10);
+                    assertEquals(model.subMap(lo, true, hi, true).size(), tree.deleteRange(lo, hi));
+                    model.subMap(lo, true, hi, true).clear();
+                } else if (r < 7) {
+                    // the finger itself goes, the next insert must not start there
+                    tree.delete(k);
+                    model.remove(k);
+                } else if (r == 7) {
+                    // split and join again, around a new middle key
+                    int m = key(order, rnd.nextInt(op + 1), rnd);
+                    model.remove(m);
+                    tree.delete(m);
+                    WAVLTree[] parts = tree.split(m);
+                    tree = WAVLTree.join(parts[0], m, "v" + m, parts[1]);
+                    model.put(m, "v" + m);
+                }
+                assertEquals(model.isEmpty() ? null : model.lastEntry().getValue(), tree.max());
+                assertEquals(model.isEmpty() ? null : model.firstEntry().getValue(), tree.min());
+                if (op % 211 == 0) {
+                    TreeModel.assertMatches(model, tree);
+                }
+            }
+            TreeModel.assertMatches(model, tree);
+        }
+    }
+
+    @Test
+    void insertAllFromTheFingerMatchesModel() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            int order = seed % 5;
+            WAVLTree tree = new WAVLTree();
+            TreeMap<Integer, String> model = new TreeMap<>();
+            for (int batch = 0; batch < 30; batch++) {
+                int[] keys = new int[rnd.nextInt(100)];
+                String[] values = new String[keys.length];
+                for (int j = 0; j < keys.length; j++) {
+                    keys[j] = key(order, batch * 100 + j, rnd);
+                    values[j] = "v" + keys[j];
+                    model.putIfAbsent(keys[j], values[j]);
+                }
+                tree.insertAll(keys, values);
+                // a single insert after the batch starts from a fresh finger
+                int k = key(order, rnd.nextInt(batch * 100 + 1), rnd);
+                tree.insert(k, "v" + k);
+                model.putIfAbsent(k, "v" + k);
+                TreeModel.assertMatches(model, tree);
+            }
+        }
+    }
+
+    @Test
+    void maximumOfSmallTrees() {
+        WAVLTree tree = new WAVLTree();
+        assertNull(tree.max());
+        tree.insert(5, "five");
+        assertEquals("five", tree.max());
+        tree.insert(3, "three");
+        assertEquals("five", tree.max());
+        tree.insert(9, "nine");
+        assertEquals("nine", tree.max());
+        tree.delete(9);
+        assertEquals("five", tree.max());
+        tree.delete(5);
+        assertEquals("three", tree.max());
+        tree.delete(3);
+        assertNull(tree.max());
+        // an emptied tree hangs its first key at the root again
+        tree.insert(1, "one");
+        tree.insert(0, "zero");
+        assertEquals("one", tree.max());
+        assertEquals("zero", tree.min());
+    }
+}
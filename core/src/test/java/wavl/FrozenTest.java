@@ -0,0 +1,113 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * FrozenWAVLIndex against the TreeMap its tree was frozen from, for every
+ * size up to a few full Eytzinger levels and for large random trees. the
+ * index must not change when its tree does, and thaw() must give back a
+ * valid tree of the same items.
+ */
+class FrozenTest {
+    private static final int SEEDS = 60;
+
+    // the number of keys <= k, or < k. TreeMap views count in O(n)
+    private static int below(int[] keys, int k, boolean inclusive) {
+        int j = Arrays.binarySearch(keys, k);
+        return j >= 0 ? (inclusive ? j + 1 : j) : -j - 1;
+    }
+
+    private static void assertMatches(TreeMap<Integer, String> model, FrozenWAVLIndex index, Random rnd) {
+        int n = model.size();
+        assertEquals(n, index.size());
+        assertEquals(n == 0, index.empty());
+        int[] keys = model.keySet().stream().mapToInt(Integer::intValue).toArray();
+        assertArrayEquals(keys, index.keysToArray());
+        assertArrayEquals(model.values().toArray(new String[0]), index.infoToArray());
+        assertEquals(n == 0 ? null : model.firstEntry().getValue(), index.min());
+        assertEquals(n == 0 ? null : model.lastEntry().getValue(), index.max());
+        for (int i = 1; i <= n; i++) {
+            int k = keys[i - 1];
+            assertEquals(model.get(k), index.select(i));
+            assertEquals(model.get(k), index.search(k));
+            assertEquals(i, index.rank(k));
+        }
+        int[] probes = {Integer.MIN_VALUE, Integer.MAX_VALUE, -1, 0};
+        for (int q = 0; q < 4 * n + 20; q++) {
+            int k = q < probes.length ? probes[q] : rnd.nextInt(4 * n + 4) - 2;
+            assertEquals(model.get(k), index.search(k), () -> "search " + k);
+            assertEquals(below(keys, k, true), index.rank(k), () -> "rank " + k);
+            int hi = rnd.nextBoolean() ? k + rnd.nextInt(n + 2) : k - rnd.nextInt(3);
+            int expected = k > hi ? 0 : below(keys, hi, true) - below(keys, k, false);
+            assertEquals(expected, index.countRange(k, hi), () -> "countRange " + k + " " + hi);
+        }
+    }
+
+    @Test
+    void everySmallSize() {
+        Random rnd = new Random(1);
+        for (int n = 0; n <= 70; n++) {
+            TreeMap<Integer, String> model = new TreeMap<>();
+            WAVLTree tree = new WAVLTree();
+            // keys 1, 4, 7, .. so every gap between them is searched too
+            for (int j = 0; j < n; j++) {
+                model.put(3 * j + 1, "v" + (3 * j + 1));
+            }
+            for (Map.Entry<Integer, String> e : model.entrySet()) {
+                tree.insert(e.getKey(), e.getValue());
+            }
+            assertMatches(model, tree.freeze(), rnd);
+        }
+    }
+
+    @Test
+    void randomTreesAndThaw() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            int n = rnd.nextInt(seed < 10 ? 8 : 5000);
+            TreeMap<Integer, String> model = new TreeMap<>();
+            WAVLTree tree = TreeModel.random(rnd, n, 3 * n + 1, model);
+            for (int j = 0; j < n / 3; j++) {
+                int k = rnd.nextInt(3 * n + 1);
+                tree.delete(k);
+                model.remove(k);
+            }
+            FrozenWAVLIndex index = tree.freeze();
+            assertMatches(model, index, rnd);
+
+            // the tree goes on changing, the index keeps the old items
+            TreeMap<Integer, String> frozen = new TreeMap<>(model);
+            for (int j = 0; j < n / 2 + 1; j++) {
+                int k = rnd.nextInt(3 * n + 1);
+                if (rnd.nextBoolean()) {
+                    tree.insert(k, "new" + k);
+                    model.putIfAbsent(k, "new" + k);
+                } else {
+                    tree.delete(k);
+                    model.remove(k);
+                }
+            }
+            TreeModel.assertMatches(model, tree);
+            assertMatches(frozen, index, rnd);
+
+            // every thaw is a tree of its own
+            WAVLTree thawed = index.thaw();
+            TreeModel.assertMatches(frozen, thawed);
+            int k = 3 * n + 5;
+            thawed.insert(k, "thawed");
+            assertNull(index.search(k));
+            assertNull(index.thaw().search(k));
+            frozen.put(k, "thawed");
+            TreeModel.assertMatches(frozen, thawed);
+        }
+    }
+}
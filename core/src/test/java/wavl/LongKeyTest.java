@@ -0,0 +1,108 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * LongKeyWAVLTree against a TreeMap of Long keys, and against a WAVLTree
+ * given the same writes on int keys. wide() keeps the order of the keys and
+ * moves them past the int range, so the two trees take the same shape and
+ * report the same rebalancing counts.
+ */
+class LongKeyTest {
+    private static final int SEEDS = 100;
+
+    // order preserving, and different from any int in the upper half
+    private static long wide(int k) {
+        return ((long) k << 32) + 0x7fff_0001L;
+    }
+
+    @Test
+    void matchesWAVLTreeAndModel() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            LongKeyWAVLTree tree = new LongKeyWAVLTree();
+            WAVLTree ints = new WAVLTree();
+            TreeMap<Long, String> model = new TreeMap<>();
+            int bound = 1 + rnd.nextInt(seed < 20 ? 20 : 3000);
+            // half the seeds insert nearly in order, for the finger
+            boolean sorted = seed % 2 == 0;
+            for (int op = 0; op < 3000; op++) {
+                int k = sorted ? Math.min(bound - 1, op * bound / 3000 + rnd.nextInt(5)) - rnd.nextInt(3)
+                        : rnd.nextInt(bound);
+                long key = wide(k);
+                if (rnd.nextInt(3) != 0) {
+                    String v = "v" + k + "." + op;
+                    assertEquals(ints.insert(k, v), tree.insert(key, v));
+                    model.putIfAbsent(key, v);
+                } else {
+                    assertEquals(ints.delete(k), tree.delete(key));
+                    model.remove(key);
+                }
+                assertEquals(model.get(key), tree.search(key));
+                // the int with the same low bits is never a key
+                assertNull(tree.search(k));
+                if (op % 97 == 0) {
+                    assertMatches(model, tree, rnd);
+                }
+            }
+            assertMatches(model, tree, rnd);
+        }
+    }
+
+    private static void assertMatches(TreeMap<Long, String> model, LongKeyWAVLTree tree, Random rnd) {
+        int n = model.size();
+        assertEquals(n, tree.size());
+        assertEquals(n == 0, tree.empty());
+        long[] keys = model.keySet().stream().mapToLong(Long::longValue).toArray();
+        assertArrayEquals(keys, tree.keysToArray());
+        assertArrayEquals(model.values().toArray(new String[0]), tree.infoToArray());
+        assertEquals(n == 0 ? null : model.firstEntry().getValue(), tree.min());
+        assertEquals(n == 0 ? null : model.lastEntry().getValue(), tree.max());
+        assertNull(tree.select(0));
+        assertNull(tree.select(n + 1));
+        for (int i = 1; i <= n; i += 1 + n / 16) {
+            assertEquals(model.get(keys[i - 1]), tree.select(i));
+            assertEquals(i, tree.rank(keys[i - 1]));
+        }
+        for (int q = 0; q < 20; q++) {
+            long lo = n == 0 || rnd.nextBoolean() ? rnd.nextLong() : keys[rnd.nextInt(n)] - rnd.nextInt(2);
+            long hi = lo + (rnd.nextBoolean() ? rnd.nextInt(1 << 20) : Long.MAX_VALUE / 4);
+            int expected = lo > hi ? 0 : model.subMap(lo, true, hi, true).size();
+            assertEquals(expected, tree.countRange(lo, hi));
+            assertEquals(model.headMap(hi, true).size(), tree.rank(hi));
+        }
+    }
+
+    @Test
+    void extremeKeys() {
+        LongKeyWAVLTree tree = new LongKeyWAVLTree();
+        TreeMap<Long, String> model = new TreeMap<>();
+        long[] keys = {Long.MAX_VALUE, Long.MIN_VALUE, 0, -1, 1,
+            Integer.MAX_VALUE + 1L, Integer.MIN_VALUE - 1L, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1};
+        for (long k : keys) {
+            tree.insert(k, "v" + k);
+            model.put(k, "v" + k);
+        }
+        assertEquals(-1, tree.insert(Long.MIN_VALUE, "again"));
+        assertMatches(model, tree, new Random(1));
+        assertEquals("v" + Long.MIN_VALUE, tree.min());
+        assertEquals("v" + Long.MAX_VALUE, tree.max());
+        assertEquals(keys.length, tree.countRange(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(0, tree.countRange(Long.MAX_VALUE, Long.MIN_VALUE));
+        for (long k : model.keySet()) {
+            assertNotEquals(-1, tree.delete(k));
+        }
+        assertEquals(0, tree.size());
+        assertNull(tree.min());
+        assertNull(tree.max());
+        assertEquals(-1, tree.delete(0));
+    }
+}
@@ -0,0 +1,76 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * what WAVLMetrics counts: one insert or delete per call, a batch as one
+ * call, polls as deletes, one search path per searched key, and every
+ * call as slow under a zero threshold.
+ */
+class MetricsTest {
+
+    @Test
+    void countsCallsBatchesAndPaths() {
+        WAVLMetrics metrics = new WAVLMetrics(0);
+        WAVLTree tree = new WAVLTree();
+        tree.setMetrics(metrics);
+        for (int k = 0; k < 100; k++) {
+            tree.insert(k, "v" + k);
+        }
+        // a duplicate and a missing key are calls too
+        tree.insert(5, "again");
+        tree.delete(1000);
+        assertEquals(101, metrics.inserts());
+        assertEquals(1, metrics.deletes());
+
+        tree.insertAll(new int[]{200, 201, 202}, new String[]{"a", "b", "c"});
+        tree.deleteAll(new int[]{0, 1, 2, 3});
+        tree.pollMin();
+        tree.pollMax();
+        assertEquals(102, metrics.inserts());
+        assertEquals(4, metrics.deletes());
+        assertEquals(106, metrics.slowOperations());
+        assertTrue(metrics.promotions() > 0);
+
+        String[] out = new String[3];
+        tree.searchAll(new int[]{4, 50, 1000}, out);
+        tree.search(50);
+        assertEquals(4, metrics.searches());
+
+        // not counted as calls
+        tree.split(50);
+        assertEquals(102, metrics.inserts());
+        assertEquals(4, metrics.deletes());
+
+        metrics.reset();
+        assertEquals(0, metrics.inserts());
+        assertArrayEquals(new long[WAVLMetrics.MAX_PATH + 1], metrics.searchPaths());
+    }
+
+    @Test
+    void rootRankBoundsHeight() {
+        Random rnd = new Random(1);
+        WAVLTree tree = new WAVLTree();
+        assertEquals(-1, tree.rootRank());
+        assertEquals(-1, tree.height());
+        for (int j = 0; j < 5000; j++) {
+            int k = rnd.nextInt(10_000);
+            if (rnd.nextInt(3) == 0) {
+                tree.delete(k);
+            } else {
+                tree.insert(k, "v" + k);
+            }
+            if (j % 250 == 0 && !tree.empty()) {
+                int bound = 2 * (Integer.SIZE - Integer.numberOfLeadingZeros(tree.size()));
+                assertTrue(tree.height() <= tree.rootRank());
+                assertTrue(tree.rootRank() <= bound);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * floor, ceiling, successor and predecessor against the TreeMap lookups of
+ * the same names, on trees whose threads were relinked by deletes, split,
+ * join, the set operations and fromSorted.
+ */
+class NeighbourTest {
+    private static final int SEEDS = 200;
+
+    private static String key(WAVLTree.IWAVLNode node) {
+        return node == null ? null : node.getKey() + "=" + node.getValue();
+    }
+
+    private static String key(Map.Entry<Integer, String> e) {
+        return e == null ? null : e.getKey() + "=" + e.getValue();
+    }
+
+    private static void assertNeighbours(TreeMap<Integer, String> model, WAVLTree tree, Random rnd, int bound) {
+        TreeModel.assertMatches(model, tree);
+        for (int q = 0; q < 100; q++) {
+            int k = q < 4 ? new int[]{Integer.MIN_VALUE, Integer.MAX_VALUE, -1, bound}[q] : rnd.nextInt(bound);
+            assertEquals(key(model.floorEntry(k)), key(tree.floor(k)), () -> "floor " + k);
+            assertEquals(key(model.ceilingEntry(k)), key(tree.ceiling(k)), () -> "ceiling " + k);
+            assertEquals(key(model.higherEntry(k)), key(tree.successor(k)), () -> "successor " + k);
+            assertEquals(key(model.lowerEntry(k)), key(tree.predecessor(k)), () -> "predecessor " + k);
+        }
+    }
+
+    @Test
+    void neighboursMatchModel() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            int n = rnd.nextInt(seed < 40 ? 8 : 2000);
+            int bound = 3 * n + 1;
+            TreeMap<Integer, String> model = new TreeMap<>();
+            WAVLTree tree = TreeModel.random(rnd, n, bound, model);
+            assertNeighbours(model, tree, rnd, bound);
+            for (int j = 0; j < n / 2; j++) {
+                int k = rnd.nextInt(bound);
+                tree.delete(k);
+                model.remove(k);
+            }
+            assertNeighbours(model, tree, rnd, bound);
+
+            // split, and join the halves again around a key between them
+            int m = rnd.nextInt(bound);
+            WAVLTree[] parts = tree.split(m);
+            assertNeighbours(new TreeMap<>(model.headMap(m)), parts[0], rnd, bound);
+            assertNeighbours(new TreeMap<>(model.tailMap(m)), parts[1], rnd, bound);
+            parts[1].delete(m);
+            model.put(m, "joined");
+            tree = WAVLTree.join(parts[0], m, "joined", parts[1]);
+            assertNeighbours(model, tree, rnd, bound);
+        }
+    }
+
+    @Test
+    void setOperationsAndFromSortedKeepThreads() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            int n = rnd.nextInt(seed < 40 ? 8 : 1000);
+            int bound = 2 * n + 1;
+            TreeMap<Integer, String> ma = new TreeMap<>();
+            TreeMap<Integer, String> mb = new TreeMap<>();
+            WAVLTree a = TreeModel.random(rnd, n, bound, ma);
+            WAVLTree b = TreeModel.random(rnd, n, bound, mb);
+            WAVLTree result;
+            TreeMap<Integer, String> model = new TreeMap<>(ma);
+            switch (seed % 4) {
+                case 0:
+                    result = WAVLTree.union(a, b);
+                    mb.forEach(model::putIfAbsent);
+                    break;
+                case 1:
+                    result = WAVLTree.intersection(a, b);
+                    model.keySet().retainAll(mb.keySet());
+                    break;
+                case 2:
+                    result = WAVLTree.difference(a, b);
+                    model.keySet().removeAll(mb.keySet());
+                    break;
+                default:
+                    result = WAVLTree.fromSorted(a.keysToArray(), a.infoToArray());
+                    break;
+            }
+            assertNeighbours(model, result, rnd, bound);
+        }
+    }
+
+    @Test
+    void emptyAndSingleItemTrees() {
+        WAVLTree tree = new WAVLTree();
+        assertNull(tree.floor(0));
+        assertNull(tree.ceiling(0));
+        assertNull(tree.successor(0));
+        assertNull(tree.predecessor(0));
+        tree.insert(5, "five");
+        assertEquals("five", tree.floor(5).getValue());
+        assertEquals("five", tree.ceiling(5).getValue());
+        assertNull(tree.successor(5));
+        assertNull(tree.predecessor(5));
+        assertEquals("five", tree.successor(4).getValue());
+        assertEquals("five", tree.predecessor(6).getValue());
+        assertNull(tree.floor(4));
+        assertNull(tree.ceiling(6));
+    }
+}
@@ -0,0 +1,76 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class PersistentWAVLTreeTest {
+
+    private static int[] keys(TreeMap<Integer, String> model) {
+        return model.keySet().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    void snapshotsKeepTheirVersion() {
+        Random rnd = new Random(1);
+        PersistentWAVLTree tree = new PersistentWAVLTree();
+        TreeMap<Integer, String> model = new TreeMap<>();
+        for (int round = 0; round < 50; round++) {
+            PersistentWAVLTree snapshot = tree.snapshot();
+            TreeMap<Integer, String> frozen = new TreeMap<>(model);
+            for (int op = 0; op < 100; op++) {
+                int k = rnd.nextInt(500);
+                if (rnd.nextBoolean()) {
+                    tree.insert(k, "v" + k);
+                    model.putIfAbsent(k, "v" + k);
+                } else {
+                    tree.delete(k);
+                    model.remove(k);
+                }
+            }
+            assertArrayEquals(keys(frozen), snapshot.keysToArray());
+            assertEquals(frozen.isEmpty() ? null : frozen.firstEntry().getValue(), snapshot.min());
+            assertArrayEquals(keys(model), tree.keysToArray());
+            assertEquals(model.isEmpty() ? null : model.firstEntry().getValue(), tree.min());
+            assertThrows(UnsupportedOperationException.class, () -> snapshot.insert(1, "x"));
+        }
+    }
+
+    @Test
+    void snapshotOnAnotherThreadSeesOneVersion() throws Exception {
+        PersistentWAVLTree tree = new PersistentWAVLTree();
+        for (int k = 0; k < 1000; k++) {
+            tree.insert(k, "v" + k);
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                PersistentWAVLTree snapshot = tree.snapshot();
+                // min comes from the minimum, select(1) from the root
+                String min = snapshot.min();
+                String first = snapshot.select(1);
+                if (min == null ? first != null : !min.equals(first)) {
+                    failures.add(min + " vs " + first);
+                }
+            }
+        });
+        reader.start();
+        // the writer keeps replacing the smallest key
+        for (int k = 0; k < 200_000; k++) {
+            tree.delete(k);
+            tree.insert(k + 1000, "v" + (k + 1000));
+        }
+        done.set(true);
+        reader.join();
+        assertTrue(failures.isEmpty(), () -> "torn snapshot: " + failures.peek());
+    }
+}
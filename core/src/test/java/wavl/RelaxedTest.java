@@ -0,0 +1,137 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.IntUnaryOperator;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * relaxed writes skip the rank rules, but an insert never leaves a node
+ * deeper than a valid tree of the same size can be: 2 * (floor(log2 n) + 1).
+ * keys in order (timestamps) are the case that used to grow one long path.
+ */
+class RelaxedTest {
+    private static final int N = 40_000;
+    private static final int CHECK_EVERY = 997;
+
+    private static int bound(int size) {
+        return 2 * (Integer.SIZE - Integer.numberOfLeadingZeros(size));
+    }
+
+    private static void assertShallow(WAVLTree tree, int size) {
+        int height = tree.height();
+        assertTrue(height <= bound(size), () -> "height " + height + " for " + size + " items");
+    }
+
+    @Test
+    void ascendingInsertsStayShallow() {
+        inserts(k -> k);
+    }
+
+    @Test
+    void descendingInsertsStayShallow() {
+        inserts(k -> -k);
+    }
+
+    @Test
+    void randomInsertsStayShallow() {
+        Random rnd = new Random(1);
+        inserts(k -> rnd.nextInt());
+    }
+
+    private static void inserts(IntUnaryOperator key) {
+        WAVLTree tree = new WAVLTree();
+        tree.setRelaxed(true);
+        TreeMap<Integer, String> model = new TreeMap<>();
+        for (int j = 0; j < N; j++) {
+            int k = key.applyAsInt(j);
+            tree.insert(k, "v" + k);
+            model.putIfAbsent(k, "v" + k);
+            if (j % CHECK_EVERY == 0) {
+                assertShallow(tree, tree.size());
+            }
+        }
+        assertShallow(tree, tree.size());
+        // the repaired parts keep the rank rules, the rest is marked
+        TreeModel.assertMatches(model, tree);
+        tree.setRelaxed(false);
+        TreeModel.assertMatches(model, tree);
+    }
+
+    @Test
+    void sortedBatchesStayShallow() {
+        WAVLTree tree = new WAVLTree();
+        tree.setRelaxed(true);
+        TreeMap<Integer, String> model = new TreeMap<>();
+        for (int b = 0; b < 8; b++) {
+            int[] keys = new int[5000];
+            String[] values = new String[keys.length];
+            for (int j = 0; j < keys.length; j++) {
+                keys[j] = b * keys.length + j;
+                values[j] = "v" + keys[j];
+                model.put(keys[j], values[j]);
+            }
+            tree.insertAll(keys, values);
+            assertShallow(tree, tree.size());
+        }
+        TreeModel.assertMatches(model, tree);
+    }
+
+    @Test
+    void deletesKeepTheDepthOfTheLargestSize() {
+        Random rnd = new Random(2);
+        WAVLTree tree = new WAVLTree();
+        tree.setRelaxed(true);
+        TreeMap<Integer, String> model = new TreeMap<>();
+        int largest = 0;
+        for (int j = 0; j < 4 * N; j++) {
+            // ascending runs with deletes mixed in
+            int k = j % 3 == 0 ? rnd.nextInt(j + 1) : j;
+            if (rnd.nextInt(3) == 0) {
+                tree.delete(k);
+                model.remove(k);
+            } else {
+                tree.insert(k, "v" + k);
+                model.putIfAbsent(k, "v" + k);
+            }
+            largest = Math.max(largest, tree.size());
+            if (j % CHECK_EVERY == 0) {
+                assertShallow(tree, largest);
+            }
+        }
+        TreeModel.assertMatches(model, tree);
+        tree.setRelaxed(false);
+        TreeModel.assertMatches(model, tree);
+    }
+
+    @Test
+    void repairsKeepTheAggregate() {
+        WAVLTree tree = new WAVLTree();
+        WAVLMonoid<Long> sum = WAVLMonoid.sum(Long::parseLong);
+        tree.setAggregate(sum);
+        tree.setRelaxed(true);
+        long expected = 0;
+        for (int k = 0; k < N; k++) {
+            tree.insert(k, Integer.toString(k));
+            expected += k;
+        }
+        for (int k = 0; k < N; k += 7) {
+            tree.delete(k);
+            expected -= k;
+        }
+        assertShallow(tree, N);
+        assertEquals(expected, tree.aggregate(sum, Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertEquals(N / 2 * (long) (N / 2 - 1) / 2 - sumOfMultiples(7, N / 2),
+                tree.aggregate(sum, 0, N / 2 - 1));
+    }
+
+    // the sum of the multiples of m below n
+    private static long sumOfMultiples(int m, int n) {
+        long count = (n - 1) / m + 1;
+        return m * count * (count - 1) / 2;
+    }
+}
@@ -0,0 +1,86 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SaveLoadTest {
+    // magic, version, flags, then the item count
+    private static final int COUNT_OFFSET = 3 * Integer.BYTES;
+
+    @TempDir
+    Path dir;
+
+    private WAVLTree sample(TreeMap<Integer, String> model) {
+        WAVLTree tree = TreeModel.random(new Random(7), 300, 10_000, model);
+        tree.insert(-5, null);
+        model.put(-5, null);
+        tree.insert(20_000, "");
+        model.put(20_000, "");
+        return tree;
+    }
+
+    @Test
+    void roundTrip() throws IOException {
+        for (boolean withRanks : new boolean[]{true, false}) {
+            TreeMap<Integer, String> model = new TreeMap<>();
+            Path file = this.dir.resolve("tree-" + withRanks);
+            sample(model).save(file, withRanks);
+            TreeModel.assertMatches(model, WAVLTree.load(file));
+        }
+        Path empty = this.dir.resolve("empty");
+        new WAVLTree().save(empty);
+        TreeModel.assertMatches(new TreeMap<>(), WAVLTree.load(empty));
+    }
+
+    @Test
+    void truncatedFileThrowsIOException() throws IOException {
+        for (boolean withRanks : new boolean[]{true, false}) {
+            Path file = this.dir.resolve("full-" + withRanks);
+            sample(new TreeMap<>()).save(file, withRanks);
+            byte[] bytes = Files.readAllBytes(file);
+            Path cut = this.dir.resolve("cut");
+            for (int length = 0; length < bytes.length; length++) {
+                Files.write(cut, Arrays.copyOf(bytes, length));
+                assertThrows(IOException.class, () -> WAVLTree.load(cut), "cut at " + length);
+            }
+        }
+    }
+
+    @Test
+    void corruptCountThrowsIOException() throws IOException {
+        Path file = this.dir.resolve("tree");
+        sample(new TreeMap<>()).save(file);
+        byte[] bytes = Files.readAllBytes(file);
+        for (int count : new int[]{-1, Integer.MIN_VALUE, Integer.MAX_VALUE, 1 << 28, 400}) {
+            ByteBuffer.wrap(bytes).putInt(COUNT_OFFSET, count);
+            Files.write(file, bytes);
+            assertThrows(IOException.class, () -> WAVLTree.load(file), "count " + count);
+        }
+    }
+
+    @Test
+    void corruptValueLengthThrowsIOException() throws IOException {
+        WAVLTree tree = new WAVLTree();
+        tree.insert(1, "a");
+        Path file = this.dir.resolve("one");
+        tree.save(file, false);
+        byte[] bytes = Files.readAllBytes(file);
+        // header, count, the key, then the length of the only value
+        int lengthOffset = COUNT_OFFSET + 2 * Integer.BYTES;
+        for (int length : new int[]{-2, Integer.MAX_VALUE, 2}) {
+            ByteBuffer.wrap(bytes).putInt(lengthOffset, length);
+            Files.write(file, bytes);
+            assertThrows(IOException.class, () -> WAVLTree.load(file), "length " + length);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * searchAll against TreeMap.get for each key, for batches narrower than the
+ * search lanes, between the two, and past the size that splits a batch
+ * over the fork-join pool, with and without metrics.
+ */
+class SearchAllTest {
+    private static final int SEEDS = 100;
+    private static final int[] BATCHES = {0, 1, 3, 7, 8, 9, 17, 100, 4095, 4096, 20_000};
+
+    @Test
+    void batchesMatchModel() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            int n = rnd.nextInt(seed < 20 ? 8 : 5000);
+            int bound = 2 * n + 1;
+            TreeMap<Integer, String> model = new TreeMap<>();
+            WAVLTree tree = TreeModel.random(rnd, n, bound, model);
+            // relaxed trees are searched as they are, deep paths and all
+            if (seed % 4 == 1) {
+                tree.setRelaxed(true);
+                for (int j = 0; j < n / 2; j++) {
+                    int k = bound + j;
+                    tree.insert(k, "v" + k);
+                    model.put(k, "v" + k);
+                }
+                bound += n / 2;
+            }
+            if (seed % 4 == 2) {
+                tree.setMetrics(new WAVLMetrics());
+            }
+            int m = BATCHES[seed % BATCHES.length];
+            int[] keys = new int[m];
+            String[] expected = new String[m];
+            int found = 0;
+            for (int j = 0; j < m; j++) {
+                keys[j] = j % 5 == 0 ? Integer.MIN_VALUE + j : rnd.nextInt(bound + 2) - 1;
+                expected[j] = model.get(keys[j]);
+                found += expected[j] != null ? 1 : 0;
+            }
+            // out may be longer, the tail stays as it was
+            String[] out = new String[m + 2];
+            out[m] = "untouched";
+            assertEquals(found, tree.searchAll(keys, out));
+            String[] head = new String[m];
+            System.arraycopy(out, 0, head, 0, m);
+            assertArrayEquals(expected, head);
+            assertEquals("untouched", out[m]);
+        }
+    }
+
+    @Test
+    void emptyTreeAndShortOut() {
+        WAVLTree tree = new WAVLTree();
+        String[] out = {"stale", "stale"};
+        assertEquals(0, tree.searchAll(new int[]{1, 2}, out));
+        assertArrayEquals(new String[]{null, null}, out);
+        assertThrows(IllegalArgumentException.class, () -> tree.searchAll(new int[3], new String[2]));
+    }
+}
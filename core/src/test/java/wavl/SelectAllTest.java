@@ -0,0 +1,100 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * selectAll, rankAll and quantiles against the sorted keys of a TreeMap,
+ * for batches in any order with repeats, and on relaxed trees, which they
+ * rebalance first.
+ */
+class SelectAllTest {
+    private static final int SEEDS = 150;
+
+    // the number of keys <= k
+    private static int rank(int[] keys, int k) {
+        int j = Arrays.binarySearch(keys, k);
+        return j >= 0 ? j + 1 : -j - 1;
+    }
+
+    @Test
+    void batchesMatchModel() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            int n = 1 + rnd.nextInt(seed < 30 ? 8 : 5000);
+            int bound = 3 * n + 1;
+            TreeMap<Integer, String> model = new TreeMap<>();
+            WAVLTree tree = TreeModel.random(rnd, n, bound, model);
+            if (seed % 3 == 0) {
+                tree.setRelaxed(true);
+                for (int j = 0; j < n / 2; j++) {
+                    int k = rnd.nextInt(2 * bound) - bound / 2;
+                    tree.insert(k, "v" + k);
+                    model.putIfAbsent(k, "v" + k);
+                }
+            }
+            int[] keys = model.keySet().stream().mapToInt(Integer::intValue).toArray();
+            String[] values = model.values().toArray(new String[0]);
+            int size = keys.length;
+            int m = rnd.nextInt(seed % 5 == 0 ? 2 * size + 2 : 40);
+
+            int[] ranks = new int[m];
+            String[] selected = new String[m];
+            for (int j = 0; j < m; j++) {
+                ranks[j] = 1 + rnd.nextInt(size);
+                selected[j] = values[ranks[j] - 1];
+            }
+            assertArrayEquals(selected, tree.selectAll(ranks));
+
+            int[] probes = new int[m];
+            int[] expectedRanks = new int[m];
+            for (int j = 0; j < m; j++) {
+                probes[j] = j % 7 == 0 ? (j % 2 == 0 ? Integer.MIN_VALUE : Integer.MAX_VALUE)
+                        : rnd.nextInt(2 * bound) - bound / 2;
+                expectedRanks[j] = rank(keys, probes[j]);
+            }
+            assertArrayEquals(expectedRanks, tree.rankAll(probes));
+
+            double[] qs = new double[m];
+            int[] quantiles = new int[m];
+            for (int j = 0; j < m; j++) {
+                qs[j] = j % 6 == 0 ? j % 4 / 3.0 : rnd.nextDouble();
+                quantiles[j] = keys[Math.max(1, (int) Math.ceil(qs[j] * size)) - 1];
+            }
+            assertArrayEquals(quantiles, tree.quantiles(qs));
+            // the batches rebalance a relaxed tree, and change nothing else
+            assertFalse(tree.needsRebalance());
+            TreeModel.assertMatches(model, tree);
+        }
+    }
+
+    @Test
+    void edgesAndBadArguments() {
+        WAVLTree empty = new WAVLTree();
+        assertArrayEquals(new String[0], empty.selectAll(new int[0]));
+        assertArrayEquals(new int[0], empty.rankAll(new int[0]));
+        assertArrayEquals(new int[]{0, 0}, empty.rankAll(new int[]{0, Integer.MIN_VALUE}));
+        assertArrayEquals(new int[0], empty.quantiles());
+        assertThrows(IllegalArgumentException.class, () -> empty.quantiles(0.5));
+        assertThrows(IllegalArgumentException.class, () -> empty.selectAll(new int[]{1}));
+
+        WAVLTree tree = new WAVLTree();
+        for (int k = 10; k <= 100; k += 10) {
+            tree.insert(k, "v" + k);
+        }
+        assertArrayEquals(new int[]{10, 50, 100, 100, 10}, tree.quantiles(0, 0.5, 0.91, 1, 0.1));
+        assertArrayEquals(new String[]{"v100", "v10", "v100"}, tree.selectAll(new int[]{10, 1, 10}));
+        assertThrows(IllegalArgumentException.class, () -> tree.selectAll(new int[]{0}));
+        assertThrows(IllegalArgumentException.class, () -> tree.selectAll(new int[]{5, 11}));
+        assertThrows(IllegalArgumentException.class, () -> tree.quantiles(-0.1));
+        assertThrows(IllegalArgumentException.class, () -> tree.quantiles(1.5));
+        assertThrows(IllegalArgumentException.class, () -> tree.quantiles(Double.NaN));
+    }
+}
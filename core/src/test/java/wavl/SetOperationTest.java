@@ -0,0 +1,59 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+class SetOperationTest {
+    private static final int SEEDS = 300;
+    // above the parallel threshold of the set operations
+    private static final int LARGE = 20_000;
+
+    private interface Operation {
+        WAVLTree apply(WAVLTree a, WAVLTree b);
+    }
+
+    private interface Model {
+        void apply(TreeMap<Integer, String> a, TreeMap<Integer, String> b);
+    }
+
+    private static void check(Operation operation, Model model) {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            int na = seed % 50 == 0 ? LARGE : rnd.nextInt(seed % 4 == 0 ? 10 : 1500);
+            int nb = seed % 50 == 1 ? LARGE : rnd.nextInt(seed % 4 == 1 ? 10 : 1500);
+            int bound = 2 * Math.max(na, nb) + 1;
+            TreeMap<Integer, String> ma = new TreeMap<>();
+            TreeMap<Integer, String> mb = new TreeMap<>();
+            WAVLTree a = TreeModel.random(rnd, na, bound, ma);
+            WAVLTree b = new WAVLTree();
+            for (int j = 0; j < nb; j++) {
+                int k = rnd.nextInt(bound);
+                b.insert(k, "w" + k);
+                mb.putIfAbsent(k, "w" + k);
+            }
+            WAVLTree result = operation.apply(a, b);
+            model.apply(ma, mb);
+            TreeModel.assertMatches(ma, result);
+            assertTrue(a.empty() && b.empty());
+        }
+    }
+
+    @Test
+    void unionKeepsInfoOfA() {
+        check(WAVLTree::union, (a, b) -> b.forEach(a::putIfAbsent));
+    }
+
+    @Test
+    void intersectionMatchesModel() {
+        check(WAVLTree::intersection, (a, b) -> a.keySet().retainAll(b.keySet()));
+    }
+
+    @Test
+    void differenceMatchesModel() {
+        check(WAVLTree::difference, (a, b) -> a.keySet().removeAll(b.keySet()));
+    }
+}
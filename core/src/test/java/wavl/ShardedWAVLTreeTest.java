@@ -0,0 +1,199 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * readers cross shard boundaries while writers make the boundaries move.
+ * the even keys 0, 2, .., 2 * STABLE - 2 are loaded first and never
+ * touched, every writer owns the odd keys k with k % (2 * WRITERS) ==
+ * 2 * w + 1 and keeps its own serial model of them. the writers insert
+ * into one quarter of the key space at a time and delete anywhere, so the
+ * shards holding that quarter keep outgrowing their neighbours and hand
+ * keys over by split and join while the readers run.
+ */
+class ShardedWAVLTreeTest {
+    private static final int SHARDS = 8;
+    // small shards and a small move threshold, so boundaries move every
+    // few dozen writes
+    private static final int MOVE_MIN = 4;
+    private static final int STABLE = 64;
+    private static final int WRITERS = 2;
+    private static final int READERS = 2;
+    private static final int WRITES = 200_000;
+    private static final int HOT_WRITES = 200;
+    private static final int MAX_KEY = 8 * STABLE;
+
+    private static String value(int k) {
+        return "v" + k;
+    }
+
+    @Test
+    void readsMatchSerialModelWhileBoundariesMove() throws Exception {
+        ShardedWAVLTree tree = new ShardedWAVLTree(SHARDS, MOVE_MIN);
+        for (int j = 0; j < STABLE; j++) {
+            tree.insert(2 * j, value(2 * j));
+        }
+        tree.checkInvariants();
+        int[] loaded = tree.lowerBounds();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicLong reads = new AtomicLong();
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<TreeMap<Integer, String>> models = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            TreeMap<Integer, String> model = new TreeMap<>();
+            models.add(model);
+            int lane = 2 * w + 1;
+            long seed = w;
+            threads.add(new Thread(() -> {
+                Random rnd = new Random(seed);
+                int slots = MAX_KEY / (2 * WRITERS);
+                for (int op = 0; op < WRITES; op++) {
+                    if (rnd.nextBoolean()) {
+                        // inserts go to a quarter of the key space that
+                        // changes every HOT_WRITES writes
+                        int hot = (op / HOT_WRITES) % 4;
+                        int k = lane + 2 * WRITERS * (hot * slots / 4 + rnd.nextInt(slots / 4));
+                        tree.insert(k, value(k));
+                        model.putIfAbsent(k, value(k));
+                    } else {
+                        int k = lane + 2 * WRITERS * rnd.nextInt(slots);
+                        tree.delete(k);
+                        model.remove(k);
+                    }
+                }
+            }));
+        }
+        for (int r = 0; r < READERS; r++) {
+            long seed = 100 + r;
+            threads.add(new Thread(() -> {
+                Random rnd = new Random(seed);
+                try {
+                    while (!done.get()) {
+                        read(tree, rnd);
+                        reads.incrementAndGet();
+                    }
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (int w = 0; w < WRITERS; w++) {
+            threads.get(w).join();
+        }
+        done.set(true);
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertTrue(failures.isEmpty(), () -> "reader failed: " + failures.peek());
+        assertTrue(reads.get() > 0, "the readers never ran");
+        assertFalse(Arrays.equals(loaded, tree.lowerBounds()), "no boundary moved under the writers");
+
+        tree.checkInvariants();
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        for (int j = 0; j < STABLE; j++) {
+            expected.put(2 * j, value(2 * j));
+        }
+        for (TreeMap<Integer, String> model : models) {
+            expected.putAll(model);
+        }
+        assertArrayEquals(expected.keySet().stream().mapToInt(Integer::intValue).toArray(),
+                tree.keysToArray());
+        assertArrayEquals(expected.values().toArray(new String[0]), tree.infoToArray());
+        assertEquals(expected.size(), tree.size());
+    }
+
+    @Test
+    void movesKeepEveryKeyInItsShard() {
+        Random rnd = new Random(7);
+        ShardedWAVLTree tree = new ShardedWAVLTree(SHARDS, MOVE_MIN);
+        TreeMap<Integer, String> model = new TreeMap<>();
+        int moves = 0;
+        int[] bounds = tree.lowerBounds();
+        for (int op = 0; op < 20_000; op++) {
+            // a hot quarter that moves around, and deletes anywhere
+            int k;
+            if (rnd.nextBoolean()) {
+                int hot = (op / HOT_WRITES) % 4;
+                k = hot * MAX_KEY / 4 + rnd.nextInt(MAX_KEY / 4);
+                assertEquals(model.containsKey(k) ? -1 : 0, Math.min(0, tree.insert(k, value(k))));
+                model.putIfAbsent(k, value(k));
+            } else {
+                k = rnd.nextInt(MAX_KEY);
+                assertEquals(model.containsKey(k), tree.delete(k) != -1);
+                model.remove(k);
+            }
+            tree.checkInvariants();
+            int[] now = tree.lowerBounds();
+            if (!Arrays.equals(bounds, now)) {
+                moves++;
+                bounds = now;
+                assertArrayEquals(model.keySet().stream().mapToInt(Integer::intValue).toArray(),
+                        tree.keysToArray());
+            }
+            assertEquals(model.isEmpty() ? null : model.firstEntry().getValue(), tree.min());
+            assertEquals(model.isEmpty() ? null : model.lastEntry().getValue(), tree.max());
+            if (!model.isEmpty()) {
+                int i = 1 + rnd.nextInt(model.size());
+                assertEquals(value(model.keySet().stream().skip(i - 1).findFirst().get()), tree.select(i));
+            }
+        }
+        assertTrue(moves > 40, "only " + moves + " boundary moves");
+        assertArrayEquals(model.values().toArray(new String[0]), tree.infoToArray());
+        assertEquals(model.size(), tree.size());
+    }
+
+    // one read of every kind, each checked against what any interleaving of
+    // the writes and moves allows
+    private static void read(ShardedWAVLTree tree, Random rnd) {
+        int k = rnd.nextInt(MAX_KEY);
+        String found = tree.search(k);
+        if (k % 2 == 0 && k < 2 * STABLE) {
+            assertEquals(value(k), found);
+        } else {
+            assertTrue(found == null || found.equals(value(k)), found);
+        }
+        assertEquals(value(0), tree.min());
+        // i - 1 smaller keys come before the i'th, and the i'th stable key
+        // 2 * (i - 1) bounds it from above
+        int i = 1 + rnd.nextInt(STABLE);
+        String selected = tree.select(i);
+        int key = Integer.parseInt(selected.substring(1));
+        assertTrue(key >= i - 1 && key <= 2 * (i - 1), () -> "select " + i + " gave " + selected);
+        if (rnd.nextInt(16) == 0) {
+            // one consistent state of all shards: sorted, every stable key
+            int[] keys = tree.keysToArray();
+            int stable = 0;
+            for (int j = 0; j < keys.length; j++) {
+                assertTrue(j == 0 || keys[j - 1] < keys[j], "keys out of order");
+                if (keys[j] % 2 == 0) {
+                    stable++;
+                }
+            }
+            assertEquals(STABLE, stable);
+            String[] info = tree.infoToArray();
+            for (int j = 1; j < info.length; j++) {
+                int a = Integer.parseInt(info[j - 1].substring(1));
+                int b = Integer.parseInt(info[j].substring(1));
+                assertTrue(a < b, "info out of order");
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+class SplitJoinTest {
+    private static final int SEEDS = 300;
+    // the sum of the keys, from the values "v" + key
+    private static final WAVLMonoid<Long> SUM = WAVLMonoid.sum(v -> Long.parseLong(v.substring(1)));
+
+    @Test
+    void splitMatchesModel() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            int n = rnd.nextInt(seed < 50 ? 10 : 2000);
+            TreeMap<Integer, String> model = new TreeMap<>();
+            WAVLTree tree = TreeModel.random(rnd, n, 3 * n + 1, model);
+            int k = rnd.nextInt(3 * n + 3) - 1;
+            WAVLTree[] parts = tree.split(k);
+            TreeModel.assertMatches(new TreeMap<>(model.headMap(k, false)), parts[0]);
+            TreeModel.assertMatches(new TreeMap<>(model.tailMap(k, true)), parts[1]);
+            assertTrue(tree.empty());
+        }
+    }
+
+    @Test
+    void joinMatchesModel() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            // unbalanced sizes exercise the spine walks of the join
+            int nl = rnd.nextInt(seed % 3 == 0 ? 5 : 2000);
+            int nr = rnd.nextInt(seed % 3 == 1 ? 5 : 2000);
+            TreeMap<Integer, String> model = new TreeMap<>();
+            WAVLTree left = TreeModel.random(rnd, nl, 10_000, model);
+            TreeMap<Integer, String> rightModel = new TreeMap<>();
+            WAVLTree right = new WAVLTree();
+            for (int j = 0; j < nr; j++) {
+                int k = 10_001 + rnd.nextInt(10_000);
+                right.insert(k, "v" + k);
+                rightModel.putIfAbsent(k, "v" + k);
+            }
+            model.putAll(rightModel);
+            model.put(10_000, "middle");
+            WAVLTree joined = WAVLTree.join(left, 10_000, "middle", right);
+            TreeModel.assertMatches(model, joined);
+            assertTrue(left.empty() && right.empty());
+            // the joined tree is an ordinary tree afterwards
+            joined.delete(10_000);
+            model.remove(10_000);
+            joined.insert(-1, "low");
+            model.put(-1, "low");
+            TreeModel.assertMatches(model, joined);
+        }
+    }
+
+    @Test
+    void splitThenJoinRestoresTree() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            TreeMap<Integer, String> model = new TreeMap<>();
+            WAVLTree tree = TreeModel.random(rnd, 1 + rnd.nextInt(1000), 5000, model);
+            int k = model.keySet().toArray(new Integer[0])[rnd.nextInt(model.size())];
+            WAVLTree[] parts = tree.split(k);
+            // k is the smallest item of the right part, take it out again
+            String value = parts[1].search(k);
+            parts[1].delete(k);
+            TreeModel.assertMatches(model, WAVLTree.join(parts[0], k, value, parts[1]));
+        }
+    }
+
+    // a range end: mostly inside or next to the keys, sometimes the ends of
+    // the int range
+    private static int bound(Random rnd, int n) {
+        switch (rnd.nextInt(8)) {
+            case 0:
+                return Integer.MIN_VALUE;
+            case 1:
+                return Integer.MAX_VALUE;
+            default:
+                return rnd.nextInt(3 * n + 3) - 1;
+        }
+    }
+
+    // the range operations keep the tree usable: aggregate, threads and
+    // minimum and maximum are right, and it takes further writes
+    private static void assertUsable(TreeMap<Integer, String> model, WAVLTree tree, Random rnd) {
+        TreeModel.assertMatches(model, tree);
+        long sum = model.keySet().stream().mapToLong(Integer::longValue).sum();
+        assertEquals(sum, tree.aggregate(SUM, Integer.MIN_VALUE, Integer.MAX_VALUE));
+        for (int j = 0; j < 20; j++) {
+            int k = rnd.nextInt(1000) - 500;
+            if (rnd.nextBoolean()) {
+                tree.insert(k, "v" + k);
+                model.putIfAbsent(k, "v" + k);
+            } else {
+                tree.delete(k);
+                model.remove(k);
+            }
+        }
+        TreeModel.assertMatches(model, tree);
+    }
+
+    @Test
+    void deleteRangeMatchesModel() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            int n = rnd.nextInt(seed < 50 ? 10 : 2000);
+            TreeMap<Integer, String> model = new TreeMap<>();
+            WAVLTree tree = TreeModel.random(rnd, n, 3 * n + 1, model);
+            tree.setAggregate(SUM);
+            tree.setRelaxed(seed % 5 == 0);
+            int lo = bound(rnd, n);
+            int hi = seed % 7 == 0 ? lo : bound(rnd, n);
+            int expected = lo > hi ? 0 : model.subMap(lo, true, hi, true).size();
+            if (lo <= hi) {
+                model.subMap(lo, true, hi, true).clear();
+            }
+            assertEquals(expected, tree.deleteRange(lo, hi));
+            assertUsable(model, tree, rnd);
+        }
+    }
+
+    @Test
+    void retainRangeMatchesModel() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            int n = rnd.nextInt(seed < 50 ? 10 : 2000);
+            TreeMap<Integer, String> model = new TreeMap<>();
+            WAVLTree tree = TreeModel.random(rnd, n, 3 * n + 1, model);
+            tree.setAggregate(SUM);
+            tree.setRelaxed(seed % 5 == 0);
+            int lo = bound(rnd, n);
+            int hi = seed % 7 == 0 ? lo : bound(rnd, n);
+            TreeMap<Integer, String> kept = lo > hi
+                    ? new TreeMap<>() : new TreeMap<>(model.subMap(lo, true, hi, true));
+            assertEquals(model.size() - kept.size(), tree.retainRange(lo, hi));
+            assertUsable(kept, tree, rnd);
+        }
+    }
+
+    @Test
+    void rangeEdgeCases() {
+        TreeMap<Integer, String> model = new TreeMap<>();
+        WAVLTree tree = new WAVLTree();
+        assertEquals(0, tree.deleteRange(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertEquals(0, tree.retainRange(0, 10));
+        for (int k = 0; k < 100; k += 2) {
+            tree.insert(k, "v" + k);
+            model.put(k, "v" + k);
+        }
+        // lo > hi deletes nothing, and retains nothing
+        assertEquals(0, tree.deleteRange(50, 10));
+        // a range between two keys
+        assertEquals(0, tree.deleteRange(11, 11));
+        assertEquals(0, tree.deleteRange(-5, -1));
+        assertEquals(0, tree.deleteRange(99, Integer.MAX_VALUE));
+        TreeModel.assertMatches(model, tree);
+        // the whole tree
+        WAVLTree copy = WAVLTree.fromSorted(tree.keysToArray(), tree.infoToArray());
+        assertEquals(50, copy.deleteRange(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        TreeModel.assertMatches(new TreeMap<>(), copy);
+        copy = WAVLTree.fromSorted(tree.keysToArray(), tree.infoToArray());
+        assertEquals(0, copy.retainRange(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        TreeModel.assertMatches(model, copy);
+        assertEquals(50, copy.retainRange(1, 0));
+        TreeModel.assertMatches(new TreeMap<>(), copy);
+        // the minimum and the maximum
+        assertEquals(1, tree.deleteRange(Integer.MIN_VALUE, 0));
+        assertEquals(1, tree.deleteRange(98, Integer.MAX_VALUE));
+        model.remove(0);
+        model.remove(98);
+        TreeModel.assertMatches(model, tree);
+        assertEquals("v2", tree.min());
+        assertEquals("v96", tree.max());
+    }
+
+    @Test
+    void joinRejectsOverlappingKeys() {
+        WAVLTree left = new WAVLTree();
+        left.insert(5, "a");
+        WAVLTree right = new WAVLTree();
+        right.insert(9, "b");
+        assertThrows(IllegalArgumentException.class, () -> WAVLTree.join(left, 5, "x", right));
+        assertThrows(IllegalArgumentException.class, () -> WAVLTree.join(left, 9, "x", right));
+    }
+}
@@ -0,0 +1,128 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * keys(), values() and entries(), sequential, parallel and split by hand,
+ * against the views of a TreeMap.
+ */
+class StreamTest {
+    private static final int SEEDS = 200;
+
+    @Test
+    void streamsMatchModel() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            int n = rnd.nextInt(seed < 40 ? 8 : 5000);
+            TreeMap<Integer, String> model = new TreeMap<>();
+            WAVLTree tree = TreeModel.random(rnd, n, 3 * n + 1, model);
+            for (int j = 0; j < n / 4; j++) {
+                int k = rnd.nextInt(3 * n + 1);
+                tree.delete(k);
+                model.remove(k);
+            }
+            List<Integer> keys = new ArrayList<>(model.keySet());
+            List<String> values = new ArrayList<>(model.values());
+            List<Map.Entry<Integer, String>> entries = new ArrayList<>(model.entrySet());
+
+            assertEquals(keys, tree.keys().boxed().collect(Collectors.toList()));
+            assertEquals(keys, tree.keys().parallel().boxed().collect(Collectors.toList()));
+            assertEquals(values, tree.values().collect(Collectors.toList()));
+            assertEquals(values, tree.values().parallel().collect(Collectors.toList()));
+            assertEquals(entries, tree.entries().collect(Collectors.toList()));
+            assertEquals(entries, tree.entries().parallel().collect(Collectors.toList()));
+            assertEquals(model.size(), tree.keys().parallel().count());
+            long sum = keys.stream().mapToLong(Integer::longValue).sum();
+            assertEquals(sum, tree.keys().parallel().asLongStream().sum());
+            // a short-circuit stops part way through a spliterator
+            int skip = rnd.nextInt(n + 1);
+            assertEquals(keys.subList(Math.min(skip, keys.size()), keys.size()),
+                    tree.keys().skip(skip).boxed().collect(Collectors.toList()));
+            assertEquals(keys.stream().limit(skip).collect(Collectors.toList()),
+                    tree.keys().parallel().limit(skip).boxed().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void splitsCoverTheRanksInOrder() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            int n = rnd.nextInt(seed < 40 ? 8 : 3000);
+            TreeMap<Integer, String> model = new TreeMap<>();
+            WAVLTree tree = TreeModel.random(rnd, n, 3 * n + 1, model);
+            List<Integer> seen = new ArrayList<>();
+            // advance some first, so a split hands the found node over
+            Spliterator.OfInt s = tree.keys().spliterator();
+            int ahead = rnd.nextInt(model.size() + 1);
+            for (int j = 0; j < ahead; j++) {
+                assertTrue(s.tryAdvance((int k) -> seen.add(k)));
+            }
+            drain(s, rnd, seen);
+            assertEquals(new ArrayList<>(model.keySet()), seen);
+
+            List<String> info = new ArrayList<>();
+            Spliterator<String> v = tree.values().spliterator();
+            assertEquals(model.size(), v.getExactSizeIfKnown());
+            Spliterator<String> prefix = v.trySplit();
+            if (prefix != null) {
+                assertEquals(model.size(), prefix.estimateSize() + v.estimateSize());
+                prefix.forEachRemaining(info::add);
+            }
+            v.forEachRemaining(info::add);
+            assertEquals(new ArrayList<>(model.values()), info);
+
+            List<Map.Entry<Integer, String>> entries = new ArrayList<>();
+            Spliterator<Map.Entry<Integer, String>> e = tree.entries().spliterator();
+            Spliterator<Map.Entry<Integer, String>> front = e.trySplit();
+            if (front != null) {
+                front.forEachRemaining(entries::add);
+            }
+            e.forEachRemaining(entries::add);
+            assertEquals(new ArrayList<>(model.entrySet()), entries);
+        }
+    }
+
+    // splits in random places, the prefix of every split before the rest,
+    // so the keys come out in order
+    private static void drain(Spliterator.OfInt s, Random rnd, List<Integer> seen) {
+        long size = s.estimateSize();
+        Spliterator.OfInt prefix = rnd.nextInt(4) == 0 ? null : s.trySplit();
+        if (prefix == null) {
+            if (size > 1 && rnd.nextBoolean()) {
+                assertTrue(s.tryAdvance((int k) -> seen.add(k)));
+                drain(s, rnd, seen);
+                return;
+            }
+            s.forEachRemaining((int k) -> seen.add(k));
+            return;
+        }
+        assertEquals(size, prefix.estimateSize() + s.estimateSize());
+        assertTrue(prefix.estimateSize() > 0 && s.estimateSize() > 0);
+        drain(prefix, rnd, seen);
+        drain(s, rnd, seen);
+    }
+
+    @Test
+    void emptyTree() {
+        WAVLTree tree = new WAVLTree();
+        assertEquals(0, tree.keys().count());
+        assertEquals(0, tree.values().parallel().count());
+        assertEquals(0, tree.entries().count());
+        assertNull(tree.keys().spliterator().trySplit());
+        tree.insert(1, "one");
+        assertNull(tree.keys().spliterator().trySplit());
+        assertEquals(List.of(Map.entry(1, "one")), tree.entries().parallel().collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,106 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * TreeModel
+ * <p>
+ * a TreeMap kept next to a WAVLTree, the tests compare the two.
+ */
+final class TreeModel {
+
+    private TreeModel() {
+    }
+
+    // a tree and its model with n random keys from [0, bound)
+    static WAVLTree random(Random rnd, int n, int bound, TreeMap<Integer, String> model) {
+        WAVLTree tree = new WAVLTree();
+        for (int j = 0; j < n; j++) {
+            int k = rnd.nextInt(bound);
+            tree.insert(k, "v" + k);
+            model.putIfAbsent(k, "v" + k);
+        }
+        return tree;
+    }
+
+    // tree holds exactly the items of model, with valid ranks, sizes and
+    // key-order links
+    static void assertMatches(TreeMap<Integer, String> model, WAVLTree tree) {
+        tree.checkInvariants();
+        int n = model.size();
+        assertEquals(n, tree.size());
+        assertEquals(n == 0, tree.empty());
+        int[] keys = new int[n];
+        String[] values = new String[n];
+        int j = 0;
+        for (Map.Entry<Integer, String> e : model.entrySet()) {
+            keys[j] = e.getKey();
+            values[j++] = e.getValue();
+        }
+        assertArrayEquals(keys, tree.keysToArray());
+        assertArrayEquals(values, tree.infoToArray());
+        if (n == 0) {
+            return;
+        }
+        assertEquals(values[0], tree.min());
+        assertEquals(values[n - 1], tree.max());
+        for (int i = 1; i <= n; i += 1 + n / 16) {
+            assertEquals(values[i - 1], tree.select(i));
+            assertEquals(i, tree.rank(keys[i - 1]));
+            assertEquals(values[i - 1], tree.search(keys[i - 1]));
+        }
+    }
+
+    // the slots of an arena tree reachable from its root form a valid WAVL
+    // tree: parent links, sizes, key order, rank rules and the minimum
+    static void checkArena(ArenaTree tree) {
+        int v = ArenaTree.VIRTUAL;
+        assertEquals(-1, tree.rank[v]);
+        assertEquals(0, tree.size[v]);
+        if (tree.empty()) {
+            assertEquals(v, tree.minimum);
+            return;
+        }
+        assertEquals(v, tree.parent[tree.root]);
+        // an explicit stack, in key order
+        int[] stack = new int[tree.slots()];
+        int depth = 0;
+        int node = tree.root;
+        int previous = v;
+        int count = 0;
+        while (node != v || depth > 0) {
+            while (node != v) {
+                stack[depth++] = node;
+                node = tree.left[node];
+            }
+            node = stack[--depth];
+            int l = tree.left[node];
+            int r = tree.right[node];
+            if (count == 0) {
+                assertEquals(node, tree.minimum, "minimum");
+            } else {
+                assertTrue(tree.key[previous] < tree.key[node], "key order");
+            }
+            count++;
+            assertTrue(l == v || tree.parent[l] == node, "parent link");
+            assertTrue(r == v || tree.parent[r] == node, "parent link");
+            assertEquals(tree.size[l] + tree.size[r] + 1, tree.size[node], "size");
+            int dl = tree.rank[node] - tree.rank[l];
+            int dr = tree.rank[node] - tree.rank[r];
+            if (l == v && r == v) {
+                assertEquals(0, tree.rank[node], "leaf rank");
+            } else {
+                assertTrue(dl >= 1 && dl <= 2 && dr >= 1 && dr <= 2, "rank differences");
+            }
+            previous = node;
+            node = r;
+        }
+        assertEquals(tree.size(), count);
+    }
+}
@@ -0,0 +1,145 @@
+package wavl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * IntValuedWAVLTree, LongValuedWAVLTree and DoubleValuedWAVLTree run the
+ * same writes as an ArenaWAVLTree, with the same rebalancing counts, and hold
+ * what a TreeMap holds. small capacities make the value arrays grow, deletes
+ * of inner nodes move values between slots.
+ */
+class ValuedTest {
+    private static final int SEEDS = 100;
+    private static final int MISSING = Integer.MIN_VALUE;
+
+    @Test
+    void matchesArenaTreeAndModel() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random rnd = new Random(seed);
+            int capacity = 1 + rnd.nextInt(16);
+            ArenaWAVLTree arena = new ArenaWAVLTree(capacity);
+            IntValuedWAVLTree ints = new IntValuedWAVLTree(capacity);
+            LongValuedWAVLTree longs = new LongValuedWAVLTree(capacity);
+            DoubleValuedWAVLTree doubles = new DoubleValuedWAVLTree(capacity);
+            TreeMap<Integer, Integer> model = new TreeMap<>();
+            int bound = 1 + rnd.nextInt(seed < 20 ? 20 : 3000);
+            for (int op = 0; op < 3000; op++) {
+                int k = rnd.nextInt(bound);
+                if (rnd.nextInt(3) != 0) {
+                    int v = rnd.nextInt();
+                    int expected = arena.insert(k, "v");
+                    assertEquals(expected, ints.insert(k, v));
+                    assertEquals(expected, longs.insert(k, wide(v)));
+                    assertEquals(expected, doubles.insert(k, real(v)));
+                    model.putIfAbsent(k, v);
+                } else {
+                    int expected = arena.delete(k);
+                    assertEquals(expected, ints.delete(k));
+                    assertEquals(expected, longs.delete(k));
+                    assertEquals(expected, doubles.delete(k));
+                    model.remove(k);
+                }
+                Integer v = model.get(k);
+                assertEquals(v != null, ints.contains(k));
+                assertEquals(v == null ? MISSING : v, ints.search(k, MISSING));
+                assertEquals(v == null ? MISSING : wide(v), longs.search(k, MISSING));
+                assertEquals(v == null ? Double.NaN : real(v), doubles.search(k, Double.NaN));
+                if (op % 97 == 0) {
+                    assertMatches(model, ints, longs, doubles);
+                }
+            }
+            assertMatches(model, ints, longs, doubles);
+            for (int k : new ArrayList<>(model.keySet())) {
+                ints.delete(k);
+                longs.delete(k);
+                doubles.delete(k);
+                model.remove(k);
+            }
+            assertMatches(model, ints, longs, doubles);
+        }
+    }
+
+    // values past the int range, so a long array truncated to int shows
+    private static long wide(int v) {
+        return ((long) v << 32) | (v & 0xffffL);
+    }
+
+    private static double real(int v) {
+        return v / 7.0;
+    }
+
+    private static void assertMatches(TreeMap<Integer, Integer> model, IntValuedWAVLTree ints,
+            LongValuedWAVLTree longs, DoubleValuedWAVLTree doubles) {
+        int n = model.size();
+        List<Integer> keys = new ArrayList<>(model.keySet());
+        int[] keyArray = keys.stream().mapToInt(Integer::intValue).toArray();
+        int[] values = model.values().stream().mapToInt(Integer::intValue).toArray();
+        for (ArenaTree tree : new ArenaTree[]{ints, longs, doubles}) {
+            TreeModel.checkArena(tree);
+            assertEquals(n, tree.size());
+            assertEquals(n == 0, tree.empty());
+            assertArrayEquals(keyArray, tree.keysToArray());
+        }
+        long[] wide = new long[n];
+        double[] real = new double[n];
+        for (int j = 0; j < n; j++) {
+            wide[j] = wide(values[j]);
+            real[j] = real(values[j]);
+        }
+        assertArrayEquals(values, ints.infoToArray());
+        assertArrayEquals(wide, longs.infoToArray());
+        assertArrayEquals(real, doubles.infoToArray());
+        assertEquals(n == 0 ? MISSING : values[0], ints.min(MISSING));
+        assertEquals(n == 0 ? MISSING : values[n - 1], ints.max(MISSING));
+        assertEquals(n == 0 ? MISSING : wide[0], longs.min(MISSING));
+        assertEquals(n == 0 ? MISSING : wide[n - 1], longs.max(MISSING));
+        assertEquals(n == 0 ? -1.5 : real[0], doubles.min(-1.5));
+        assertEquals(n == 0 ? -1.5 : real[n - 1], doubles.max(-1.5));
+        assertEquals(MISSING, ints.select(0, MISSING));
+        assertEquals(MISSING, longs.select(n + 1, MISSING));
+        assertTrue(Double.isNaN(doubles.select(n + 1, Double.NaN)));
+        for (int i = 1; i <= n; i += 1 + n / 16) {
+            assertEquals(values[i - 1], ints.select(i, MISSING));
+            assertEquals(wide[i - 1], longs.select(i, MISSING));
+            assertEquals(real[i - 1], doubles.select(i, Double.NaN));
+        }
+    }
+
+    @Test
+    void storedValuesComeBackBitForBit() {
+        DoubleValuedWAVLTree doubles = new DoubleValuedWAVLTree(1);
+        doubles.insert(1, -0.0);
+        doubles.insert(2, Double.NaN);
+        doubles.insert(3, Double.NEGATIVE_INFINITY);
+        assertEquals(Double.doubleToRawLongBits(-0.0), Double.doubleToRawLongBits(doubles.search(1, 0.0)));
+        assertTrue(Double.isNaN(doubles.search(2, 0.0)));
+        assertArrayEquals(new double[]{-0.0, Double.NaN, Double.NEGATIVE_INFINITY}, doubles.infoToArray());
+
+        LongValuedWAVLTree longs = new LongValuedWAVLTree(1);
+        longs.insert(5, Long.MAX_VALUE);
+        longs.insert(4, Long.MIN_VALUE);
+        assertEquals(-1, longs.insert(5, 0));
+        assertEquals(Long.MAX_VALUE, longs.search(5, 0));
+        assertEquals(Long.MIN_VALUE, longs.min(0));
+        // a missing value that is also stored needs contains
+        assertTrue(longs.contains(4));
+        assertFalse(longs.contains(6));
+
+        IntValuedWAVLTree ints = new IntValuedWAVLTree();
+        assertEquals(-1, ints.search(0, -1));
+        assertEquals(-1, ints.min(-1));
+        assertEquals(-1, ints.max(-1));
+        assertArrayEquals(new int[0], ints.infoToArray());
+        assertEquals(-1, ints.delete(0));
+    }
+}